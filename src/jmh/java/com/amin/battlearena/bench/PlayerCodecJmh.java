@@ -0,0 +1,84 @@
+package com.amin.battlearena.bench;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.amin.battlearena.domain.account.Player;
+import com.amin.battlearena.persistence.PlayerCodec;
+
+/**
+ * The PlayerCodecBenchmark comparison under JMH: the old String.split format against the
+ * codec's text and binary paths, on the same sample account.
+ * Run with: mvn -Pjmh compile, then
+ * java -cp target/classes:$(cat target/jmh.classpath) org.openjdk.jmh.Main PlayerCodecJmh
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PlayerCodecJmh {
+    private Player sample;
+    private String legacyLine;
+    private byte[] textBytes;
+    private byte[] binary;
+    private ByteBuffer out;
+    private StringBuilder sb;
+
+    @Setup
+    public void setUp() {
+        sample = PlayerCodecBenchmark.sample();
+        legacyLine = PlayerCodecBenchmark.legacySerialize(sample);
+        textBytes = (legacyLine + "\n").getBytes(StandardCharsets.UTF_8);
+        binary = PlayerCodec.encode(sample);
+        out = ByteBuffer.allocate(256);
+        sb = new StringBuilder(128);
+    }
+
+    @Benchmark
+    public String legacySerialize() {
+        return PlayerCodecBenchmark.legacySerialize(sample);
+    }
+
+    @Benchmark
+    public Player legacyDeserialize() {
+        return PlayerCodecBenchmark.legacyDeserialize(legacyLine);
+    }
+
+    @Benchmark
+    public int encodeText() {
+        sb.setLength(0);
+        PlayerCodec.encodeText(sample, sb);
+        return sb.length();
+    }
+
+    @Benchmark
+    public Player decodeText() {
+        return PlayerCodec.decode(ByteBuffer.wrap(textBytes));
+    }
+
+    @Benchmark
+    public int encodeBinary() {
+        out.clear();
+        PlayerCodec.encode(sample, out);
+        return out.position();
+    }
+
+    @Benchmark
+    public Player decodeBinary() {
+        return PlayerCodec.decode(ByteBuffer.wrap(binary));
+    }
+}
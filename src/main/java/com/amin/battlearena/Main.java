@@ -1,5 +1,6 @@
 package com.amin.battlearena;
 
+import com.amin.battlearena.domain.account.AccountRepository;
 import com.amin.battlearena.infra.SceneManager;
 
 import javafx.application.Application;
@@ -16,6 +17,11 @@ public class Main extends Application {
         SceneManager.getInstance().switchScene("/uifx/signin.fxml");
     }
 
+    @Override
+    public void stop() {
+        AccountRepository.getInstance().shutdown();
+    }
+
     public static void main(String[] args) {
         launch(args);
     }
@@ -0,0 +1,173 @@
+package com.amin.battlearena.bench;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import com.amin.battlearena.domain.account.AccountRepository;
+import com.amin.battlearena.domain.account.Player;
+import com.amin.battlearena.persistence.AccountStore;
+import com.amin.battlearena.persistence.AccountStores;
+
+/**
+ * Hammers AccountRepository from many threads, then reopens the store and checks that every
+ * update survived. Each thread owns some players and also shares a few with every other thread.
+ * Run with: java -cp target/classes com.amin.battlearena.bench.AccountRepositoryStressBenchmark [store] [ops/thread]
+ */
+public final class AccountRepositoryStressBenchmark {
+    private static final int OWN_PLAYERS = 100;
+    private static final int SHARED_PLAYERS = 8;
+
+    private AccountRepositoryStressBenchmark() {}
+
+    /** Counts the batches that actually reach the backend. */
+    private static final class CountingStore implements AccountStore {
+        final AccountStore delegate;
+        final AtomicLong batches = new AtomicLong();
+        final AtomicLong records = new AtomicLong();
+
+        CountingStore(AccountStore delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public Player load(String nickname) throws IOException {
+            return delegate.load(nickname);
+        }
+
+        @Override
+        public void saveAll(Collection<Player> players) throws IOException {
+            batches.incrementAndGet();
+            records.addAndGet(players.size());
+            delegate.saveAll(players);
+        }
+
+        @Override
+        public int size() {
+            return delegate.size();
+        }
+
+        @Override
+        public void forEach(Consumer<Player> action) throws IOException {
+            delegate.forEach(action);
+        }
+
+        @Override
+        public void close() throws IOException {
+            delegate.close();
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        // Short write-behind interval so flushes overlap with the load
+        System.setProperty("battlearena.flushIntervalMs", "20");
+        String type = args.length > 0 ? args[0] : "journal";
+        int opsPerThread = args.length > 1 ? Integer.parseInt(args[1]) : 200_000;
+
+        System.out.printf("store %s, %,d saves per thread%n", type, opsPerThread);
+        boolean ok = true;
+        for (int threads : new int[]{1, 2, 4, 8, 16}) {
+            ok &= run(type, threads, opsPerThread);
+        }
+        if (!ok) System.exit(1);
+    }
+
+    private static boolean run(String type, int threads, int opsPerThread) throws Exception {
+        Path dir = Files.createTempDirectory("stress-" + type);
+        try {
+            CountingStore store = new CountingStore(AccountStores.open(type, dir));
+            AccountRepository repo = new AccountRepository(store);
+            CountDownLatch start = new CountDownLatch(1);
+            Thread[] workers = new Thread[threads];
+
+            for (int t = 0; t < threads; t++) {
+                int id = t;
+                workers[t] = new Thread(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    for (int i = 0; i < opsPerThread; i++) {
+                        if (i % 16 == 0) {
+                            // Shared player: every thread logs in concurrently and records a win
+                            // A Player is not thread-safe; sharing one means guarding change and save together
+                            Player p = repo.login("shared_" + (i / 16) % SHARED_PLAYERS);
+                            synchronized (p) {
+                                p.addVictory();
+                                repo.savePlayer(p);
+                            }
+                        } else {
+                            Player p = repo.login("t" + id + "_" + i % OWN_PLAYERS);
+                            p.addGold(1);
+                            repo.savePlayer(p);
+                        }
+                    }
+                }, "stress-" + t);
+                workers[t].start();
+            }
+
+            long begin = System.nanoTime();
+            start.countDown();
+            for (Thread w : workers) w.join();
+            long elapsed = System.nanoTime() - begin;
+            repo.flushNow();
+            repo.shutdown();
+
+            long sharedSaves = (long) threads * ((opsPerThread + 15) / 16);
+            long totalOps = (long) threads * opsPerThread;
+            boolean ok = verify(type, dir, threads, opsPerThread, sharedSaves);
+            System.out.printf("%2d threads: %,12.0f saves/s  %,9d saves -> %,6d store batches (%,8d records)  %s%n",
+                    threads, totalOps * 1e9 / elapsed, totalOps, store.batches.get(), store.records.get(),
+                    ok ? "no lost updates" : "LOST UPDATES");
+            return ok;
+        } finally {
+            deleteRecursively(dir);
+        }
+    }
+
+    private static boolean verify(String type, Path dir, int threads, int opsPerThread, long sharedSaves)
+            throws IOException {
+        if (type.equals("memory")) return true; // nothing survives the repository
+        try (AccountStore reopened = AccountStores.open(type, dir)) {
+            boolean ok = true;
+            for (int t = 0; t < threads; t++) {
+                for (int n = 0; n < OWN_PLAYERS; n++) {
+                    int saves = 0;
+                    for (int i = n; i < opsPerThread; i += OWN_PLAYERS) if (i % 16 != 0) saves++;
+                    if (saves == 0) continue;
+                    Player p = reopened.load("t" + t + "_" + n);
+                    if (p == null || p.getGold() != 1000 + saves) {
+                        System.out.println("  t" + t + "_" + n + " expected " + (1000 + saves) + " gold, got "
+                                + (p == null ? "nothing" : p.getGold()));
+                        ok = false;
+                    }
+                }
+            }
+            long victories = 0;
+            for (int s = 0; s < SHARED_PLAYERS; s++) {
+                Player p = reopened.load("shared_" + s);
+                if (p != null) victories += p.getVictories();
+            }
+            if (victories != sharedSaves) {
+                System.out.println("  shared victories expected " + sharedSaves + ", got " + victories);
+                ok = false;
+            }
+            return ok;
+        }
+    }
+
+    private static void deleteRecursively(Path dir) throws IOException {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            for (Path p : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.deleteIfExists(p);
+            }
+        }
+    }
+}
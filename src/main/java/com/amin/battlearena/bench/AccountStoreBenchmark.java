@@ -0,0 +1,113 @@
+package com.amin.battlearena.bench;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import com.amin.battlearena.domain.account.Player;
+import com.amin.battlearena.persistence.AccountStore;
+import com.amin.battlearena.persistence.AccountStores;
+
+/**
+ * Runs the same workload against every AccountStore backend in a scratch directory.
+ * Run with: java -cp target/classes com.amin.battlearena.bench.AccountStoreBenchmark [accounts] [batch]
+ */
+public final class AccountStoreBenchmark {
+    private AccountStoreBenchmark() {}
+
+    public static void main(String[] args) throws IOException {
+        int accounts = args.length > 0 ? Integer.parseInt(args[0]) : 2_000;
+        int batchSize = args.length > 1 ? Integer.parseInt(args[1]) : 64;
+        System.out.printf("%d accounts, batches of %d%n", accounts, batchSize);
+
+        for (String type : AccountStores.TYPES) {
+            Path dir = Files.createTempDirectory("bench-" + type);
+            try {
+                runBackend(type, dir, accounts, batchSize);
+            } finally {
+                deleteRecursively(dir);
+            }
+        }
+    }
+
+    private static void runBackend(String type, Path dir, int accounts, int batchSize) throws IOException {
+        System.out.println("== " + type);
+        Random random = new Random(42);
+        List<Player> players = new ArrayList<>(accounts);
+        for (int i = 0; i < accounts; i++) {
+            players.add(samplePlayer(i, random));
+        }
+
+        try (AccountStore store = AccountStores.open(type, dir)) {
+            long start = System.nanoTime();
+            for (int i = 0; i < accounts; i += batchSize) {
+                store.saveAll(players.subList(i, Math.min(accounts, i + batchSize)));
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("%-44s %9.3f s  %,12.0f records/s%n", "populate", seconds, accounts / seconds);
+
+            // Disk-backed single saves are dominated by fsync, so keep those rounds short
+            BenchmarkHarness singles = new BenchmarkHarness(1, 3, 50);
+            BenchmarkHarness batches = new BenchmarkHarness(1, 3, 10);
+            BenchmarkHarness loads = new BenchmarkHarness(2, 5, 20_000);
+
+            singles.run("saveAll, 1 player", () -> {
+                Player p = players.get(random.nextInt(accounts));
+                p.setGold(p.getGold() + 1);
+                saveQuietly(store, Collections.singletonList(p));
+                return p.getGold();
+            });
+            double batchNs = batches.run("saveAll, " + batchSize + " players", () -> {
+                int from = random.nextInt(Math.max(1, accounts - batchSize));
+                List<Player> batch = players.subList(from, Math.min(accounts, from + batchSize));
+                saveQuietly(store, batch);
+                return batch.size();
+            });
+            System.out.printf("%-44s %,12.0f records/s%n", "  batched throughput", batchSize * 1e9 / batchNs);
+            loads.run("load random player", () -> {
+                try {
+                    Player p = store.load("player_" + random.nextInt(accounts));
+                    return p == null ? 0 : p.getGold();
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            });
+            System.out.println("sink " + ((singles.sink() + batches.sink() + loads.sink()) & 0xF));
+        }
+    }
+
+    private static void saveQuietly(AccountStore store, List<Player> batch) {
+        try {
+            store.saveAll(batch);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static Player samplePlayer(int i, Random random) {
+        Player p = new Player("player_" + i);
+        p.setGold(random.nextInt(100_000));
+        p.setLevel(1 + random.nextInt(30));
+        p.setVictories(random.nextInt(500));
+        p.setCampaignProgress(random.nextInt(11));
+        int[] upgrades = new int[Player.UPGRADE_TYPES];
+        for (int u = 0; u < upgrades.length; u++) upgrades[u] = random.nextInt(6);
+        p.setUpgrades(upgrades);
+        p.addItems("HealthPotion", random.nextInt(5));
+        return p;
+    }
+
+    private static void deleteRecursively(Path dir) throws IOException {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            for (Path p : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.deleteIfExists(p);
+            }
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.amin.battlearena.bench;
+
+import com.amin.battlearena.domain.character.Character;
+import com.amin.battlearena.engine.AiEngine;
+import com.amin.battlearena.engine.GameEngine;
+
+/**
+ * Cost of GameEngine's action queries (cached and right after a state change) against the
+ * full-board sweep the UI used to do, plus whole AI-vs-AI battles on top of the queries.
+ * Run with: java -cp target/classes com.amin.battlearena.bench.ActionQueryBenchmark
+ */
+public final class ActionQueryBenchmark {
+    private static final int MAX_TURNS = 200;
+
+    private ActionQueryBenchmark() {}
+
+    public static void main(String[] args) {
+        BenchmarkHarness.loginInMemory("query_bench");
+
+        GameEngine engine = new GameEngine();
+        engine.initLevel(1);
+        Character unit = engine.getAllCharacters().get(0);
+        BenchmarkHarness bench = new BenchmarkHarness(5, 10, 200_000);
+
+        bench.run("full-board sweep (old UI highlight)", () -> sweep(engine, unit));
+        bench.run("getReachableTiles, cached", () -> engine.getReachableTiles(unit).size());
+        bench.run("getReachableTiles after a state change", () -> {
+            engine.useConsumable(unit, "HealthPotion");
+            return engine.getReachableTiles(unit).size();
+        });
+        bench.run("getAttackTargets, cached", () -> engine.getAttackTargets(unit, null).size());
+
+        AiEngine ai = new AiEngine();
+        new BenchmarkHarness(3, 5, 2_000).run("AI-vs-AI battle", () -> {
+            GameEngine battle = new GameEngine();
+            battle.initLevel(1);
+            while (!battle.isGameOver() && battle.getTurnCount() <= MAX_TURNS) {
+                ai.performTurn(battle, battle.isPlayerTurn());
+                battle.endTurn();
+            }
+            return battle.getTurnCount();
+        });
+        System.out.println("sink " + bench.sink());
+    }
+
+    // What highlightMoveTiles did before the engine queries
+    private static int sweep(GameEngine engine, Character c) {
+        int count = 0;
+        int cx = c.getPosition().getX();
+        int cy = c.getPosition().getY();
+        for (int x = 0; x < engine.getBoard().getWidth(); x++) {
+            for (int y = 0; y < engine.getBoard().getHeight(); y++) {
+                if (engine.getBoard().getTile(x, y).isOccupied()) continue;
+                int dist = Math.abs(cx - x) + Math.abs(cy - y);
+                if (dist > 0 && dist <= c.getSpeed()) count++;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,56 @@
+package com.amin.battlearena.bench;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import com.amin.battlearena.engine.log.BattleLog;
+import com.amin.battlearena.engine.log.LogEntry;
+import com.amin.battlearena.uifx.log.BattleLogList;
+
+import javafx.collections.ListChangeListener;
+
+/**
+ * Per-entry log cost as a session grows, for the ring-buffer BattleLog behind the ListView and
+ * for the old TextArea model (its text property re-materialises the whole log on every append),
+ * then export throughput.
+ * Run with the JavaFX jars on the classpath:
+ *   java -cp target/classes:... com.amin.battlearena.bench.BattleLogBenchmark
+ */
+public final class BattleLogBenchmark {
+    private BattleLogBenchmark() {}
+
+    public static void main(String[] args) throws IOException {
+        for (int session : new int[] {1_000, 10_000, 50_000}) {
+            StringBuilder text = new StringBuilder();
+            for (int i = 0; i < session; i++) text.append("[T").append(i / 20).append("] Warrior took 7 damage\n");
+            new BenchmarkHarness(2, 5, 200).run("TextArea model after " + session + " lines", () -> {
+                text.append("[T9] Warrior took 7 damage\n");
+                return text.toString().length();
+            });
+        }
+
+        for (long session : new long[] {1_000, 1_000_000, 10_000_000}) {
+            BattleLogList list = new BattleLogList(new BattleLog(5000));
+            int[] changes = new int[1];
+            list.addListener((ListChangeListener<LogEntry>) c -> changes[0]++);
+            for (long i = 0; i < session; i++) list.info("warm up line " + (i & 7));
+            new BenchmarkHarness(3, 5, 200_000).run("BattleLogList after " + session + " entries", () -> {
+                list.info("Warrior took 7 damage");
+                return changes[0];
+            });
+        }
+
+        BattleLog log = new BattleLog(1_000_000);
+        for (int i = 0; i < 1_000_000; i++) {
+            log.append(i / 20, LogEntry.Action.DAMAGE, "Warrior", "Goblin Archer", i % 13, null);
+        }
+        Path file = Files.createTempFile("battlelog", ".tsv");
+        long start = System.nanoTime();
+        int written = log.exportAsync(file).join();
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("export: %,d entries, %,d bytes in %.2f s (%,.0f entries/s)%n",
+                written, Files.size(file), seconds, written / seconds);
+        Files.delete(file);
+    }
+}
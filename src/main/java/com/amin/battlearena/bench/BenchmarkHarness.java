@@ -0,0 +1,63 @@
+package com.amin.battlearena.bench;
+
+import java.util.function.IntSupplier;
+
+import com.amin.battlearena.domain.account.AccountRepository;
+import com.amin.battlearena.domain.account.Player;
+import com.amin.battlearena.persistence.AccountStores;
+
+/**
+ * Minimal warmup-then-measure loop shared by the benchmarks in this package. Each operation
+ * returns an int that is folded into a sink so the JIT cannot drop the work.
+ */
+public final class BenchmarkHarness {
+    private final int warmupRounds;
+    private final int measureRounds;
+    private final int opsPerRound;
+    private long sink;
+
+    public BenchmarkHarness(int warmupRounds, int measureRounds, int opsPerRound) {
+        if (warmupRounds < 0 || measureRounds < 1 || opsPerRound < 1) {
+            throw new IllegalArgumentException("Invalid benchmark configuration");
+        }
+        this.warmupRounds = warmupRounds;
+        this.measureRounds = measureRounds;
+        this.opsPerRound = opsPerRound;
+    }
+
+    /** Runs the operation and prints avg/best ns per op and ops per second; returns the avg. */
+    public double run(String name, IntSupplier op) {
+        for (int r = 0; r < warmupRounds; r++) {
+            for (int i = 0; i < opsPerRound; i++) sink += op.getAsInt();
+        }
+
+        long best = Long.MAX_VALUE;
+        long total = 0;
+        for (int r = 0; r < measureRounds; r++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < opsPerRound; i++) sink += op.getAsInt();
+            long elapsed = System.nanoTime() - start;
+            best = Math.min(best, elapsed);
+            total += elapsed;
+        }
+
+        double avg = (double) total / (measureRounds * (long) opsPerRound);
+        System.out.printf("%-44s avg %9.1f ns/op  best %9.1f ns/op  %,12.0f ops/s%n", name,
+                avg, (double) best / opsPerRound, 1e9 / avg);
+        return avg;
+    }
+
+    /**
+     * Logs in a throwaway account kept in memory, for benchmarks whose battles build the player
+     * team from the logged-in account. Call before anything else touches AccountRepository.
+     */
+    public static Player loginInMemory(String nickname) {
+        System.setProperty(AccountStores.PROPERTY, "memory");
+        return AccountRepository.getInstance().login(nickname);
+    }
+
+    /** Folded result of every operation run so far; print it to keep the work observable. */
+    public long sink() {
+        return sink;
+    }
+}
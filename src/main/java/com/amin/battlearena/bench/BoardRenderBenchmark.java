@@ -0,0 +1,131 @@
+package com.amin.battlearena.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import com.amin.battlearena.domain.Board;
+import com.amin.battlearena.domain.Tile;
+import com.amin.battlearena.domain.character.Character;
+import com.amin.battlearena.domain.character.Warrior;
+import com.amin.battlearena.uifx.board.BoardView;
+import com.amin.battlearena.uifx.board.HighlightLayer;
+
+import javafx.scene.layout.GridPane;
+import javafx.scene.layout.StackPane;
+import javafx.scene.paint.Color;
+import javafx.scene.shape.Rectangle;
+import javafx.scene.text.Font;
+import javafx.scene.text.Text;
+
+/**
+ * Frame cost of the old rebuild-every-tile board against BoardView's dirty-tile sync, for one
+ * unit moving per frame on growing boards, plus the cost of relighting a selection. Builds
+ * nodes off-screen, so no display is needed.
+ * Run with the JavaFX jars on the classpath:
+ *   java -cp target/classes:... com.amin.battlearena.bench.BoardRenderBenchmark
+ */
+public final class BoardRenderBenchmark {
+    private static final int TILE_SIZE = 50;
+    private static final int UNITS = 12;
+
+    private BoardRenderBenchmark() {}
+
+    public static void main(String[] args) {
+        int[][] sizes = {{15, 10}, {40, 30}, {100, 60}};
+        for (int[] size : sizes) {
+            run(size[0], size[1]);
+        }
+    }
+
+    private static void run(int width, int height) {
+        Board board = new Board(width, height);
+        List<Character> units = new ArrayList<>();
+        Random rand = new Random(42);
+        while (units.size() < UNITS) {
+            Tile t = board.getTile(rand.nextInt(width), rand.nextInt(height));
+            if (t.isOccupied()) continue;
+            Character c = new Warrior(100, 20, 10, 5, 1, 3, units.size() % 2 == 0);
+            t.setOccupant(c);
+            c.setPosition(t);
+            units.add(c);
+        }
+
+        GridPane legacyGrid = new GridPane();
+        GridPane grid = new GridPane();
+        BoardView view = new BoardView(grid, board, TILE_SIZE, (x, y) -> { });
+        String label = width + "x" + height;
+
+        int legacyOps = Math.max(5, 30_000 / (width * height));
+        new BenchmarkHarness(3, 5, legacyOps).run(label + " full rebuild", () -> {
+            step(board, units, rand, null);
+            return legacyRender(legacyGrid, board);
+        });
+        new BenchmarkHarness(5, 10, 20_000).run(label + " BoardView sync", () -> {
+            step(board, units, rand, view);
+            return view.sync();
+        });
+
+        // Selection feedback: relight a range-4 diamond around a random tile as one batch
+        HighlightLayer highlights = view.getHighlights();
+        new BenchmarkHarness(5, 10, 20_000).run(label + " highlight batch", () -> {
+            int cx = rand.nextInt(width);
+            int cy = rand.nextInt(height);
+            highlights.begin();
+            for (int dx = -4; dx <= 4; dx++) {
+                int reach = 4 - Math.abs(dx);
+                for (int dy = -reach; dy <= reach; dy++) {
+                    highlights.set(cx + dx, cy + dy, Color.GREEN);
+                }
+            }
+            highlights.commit();
+            return highlights.size();
+        });
+    }
+
+    // Moves a random unit to a free neighbouring tile, telling the view like a MOVE event would
+    private static void step(Board board, List<Character> units, Random rand, BoardView view) {
+        Character c = units.get(rand.nextInt(units.size()));
+        Tile from = c.getPosition();
+        List<Tile> neighbors = board.getNeighbors(from);
+        Tile to = neighbors.get(rand.nextInt(neighbors.size()));
+        if (to.isOccupied()) return;
+        from.setOccupant(null);
+        to.setOccupant(c);
+        c.setPosition(to);
+        if (view != null) {
+            view.invalidate(from.getX(), from.getY());
+            view.invalidate(to.getX(), to.getY());
+        }
+    }
+
+    // What GameController.renderBoard did before BoardView, with Text standing in for the Label
+    // (Labels need a running toolkit), so the real rebuild cost was higher still
+    private static int legacyRender(GridPane grid, Board board) {
+        grid.getChildren().clear();
+        for (int x = 0; x < board.getWidth(); x++) {
+            for (int y = 0; y < board.getHeight(); y++) {
+                StackPane stack = new StackPane();
+                stack.setPrefSize(TILE_SIZE, TILE_SIZE);
+                Rectangle bg = new Rectangle(TILE_SIZE, TILE_SIZE);
+                bg.setFill(Color.LIGHTGRAY);
+                bg.setStroke(Color.BLACK);
+                Rectangle highlight = new Rectangle(TILE_SIZE, TILE_SIZE);
+                highlight.setFill(Color.TRANSPARENT);
+                highlight.setStroke(Color.TRANSPARENT);
+                highlight.setStrokeWidth(4);
+                highlight.setMouseTransparent(true);
+                stack.getChildren().addAll(bg, highlight);
+                Tile tile = board.getTile(x, y);
+                if (tile.isOccupied()) {
+                    Text icon = new Text(tile.getOccupant().getIcon());
+                    icon.setFont(new Font(24));
+                    icon.setFill(tile.getOccupant().isPlayerTeam() ? Color.BLUE : Color.RED);
+                    stack.getChildren().add(icon);
+                }
+                grid.add(stack, x, y);
+            }
+        }
+        return grid.getChildren().size();
+    }
+}
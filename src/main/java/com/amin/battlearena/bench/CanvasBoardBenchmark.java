@@ -0,0 +1,69 @@
+package com.amin.battlearena.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import com.amin.battlearena.domain.Board;
+import com.amin.battlearena.domain.Tile;
+import com.amin.battlearena.domain.character.Character;
+import com.amin.battlearena.domain.character.Warrior;
+import com.amin.battlearena.uifx.board.CanvasBoardView;
+
+/**
+ * Frame cost of CanvasBoardView on a 500x500 mass-battle board in a 1600x1000 viewport: a full
+ * repaint as after a pan, and a dirty-rectangle frame for one unit moving. Tile sizes stay below
+ * the glyph threshold because rasterising glyphs needs a running toolkit; zoomed out is also the
+ * case with the most visible tiles. Measures the draw calls issued, not GPU time.
+ * Run with the JavaFX jars on the classpath:
+ *   java -cp target/classes:... com.amin.battlearena.bench.CanvasBoardBenchmark [units]
+ */
+public final class CanvasBoardBenchmark {
+    private static final int SIZE = 500;
+
+    private CanvasBoardBenchmark() {}
+
+    public static void main(String[] args) {
+        int unitCount = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        Board board = new Board(SIZE, SIZE);
+        List<Character> units = new ArrayList<>();
+        Random rand = new Random(42);
+        while (units.size() < unitCount) {
+            Tile t = board.getTile(rand.nextInt(SIZE), rand.nextInt(SIZE));
+            if (t.isOccupied()) continue;
+            Character c = new Warrior(100, 20, 10, 5, 1, 3, units.size() % 2 == 0);
+            t.setOccupant(c);
+            c.setPosition(t);
+            units.add(c);
+        }
+
+        CanvasBoardView view = new CanvasBoardView(board, 50, (x, y) -> { });
+        view.getNode().resize(1600, 1000);
+
+        for (int tile : new int[] {4, 8}) {
+            view.zoom(tile, 0, 0);
+            int[] pan = {0};
+            String label = SIZE + "x" + SIZE + " @" + tile + "px";
+            double full = new BenchmarkHarness(3, 5, 50).run(label + " pan + full repaint", () -> {
+                pan[0] = (pan[0] + 7) % (SIZE * tile / 2);
+                view.panTo(pan[0], pan[0]);
+                return view.sync();
+            });
+            new BenchmarkHarness(5, 10, 5_000).run(label + " one move, dirty repaint", () -> {
+                Character c = units.get(rand.nextInt(units.size()));
+                Tile from = c.getPosition();
+                List<Tile> neighbors = board.getNeighbors(from);
+                Tile to = neighbors.get(rand.nextInt(neighbors.size()));
+                if (!to.isOccupied()) {
+                    from.setOccupant(null);
+                    to.setOccupant(c);
+                    c.setPosition(to);
+                    view.invalidate(from.getX(), from.getY());
+                    view.invalidate(to.getX(), to.getY());
+                }
+                return view.sync();
+            });
+            System.out.printf("  full repaint uses %.1f%% of a 60 fps frame%n", full / 16_666_667.0 * 100);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.amin.battlearena.bench;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import com.amin.battlearena.domain.account.Leaderboard;
+import com.amin.battlearena.domain.account.Leaderboard.Metric;
+
+/**
+ * Leaderboard maintenance and queries at a large population, against a full sort baseline.
+ * Run with: java -Xmx2g -cp target/classes com.amin.battlearena.bench.LeaderboardBenchmark [accounts]
+ */
+public final class LeaderboardBenchmark {
+    private LeaderboardBenchmark() {}
+
+    public static void main(String[] args) {
+        int accounts = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        Random random = new Random(42);
+        String[] names = new String[accounts];
+        int[][] scores = new int[accounts][];
+        for (int i = 0; i < accounts; i++) {
+            names[i] = "player_" + i;
+            scores[i] = new int[]{random.nextInt(1_000), random.nextInt(1_000_000), 1 + random.nextInt(10)};
+        }
+
+        Leaderboard leaderboard = new Leaderboard();
+        long start = System.nanoTime();
+        for (int i = 0; i < accounts; i++) {
+            leaderboard.update(names[i], scores[i]);
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("build %,d accounts: %.2f s (%,.0f inserts/s)%n", accounts, seconds, accounts / seconds);
+
+        BenchmarkHarness bench = new BenchmarkHarness(3, 5, 100_000);
+        bench.run("update (victory + gold change)", () -> {
+            int i = random.nextInt(accounts);
+            int[] s = scores[i];
+            s[0]++;
+            s[1] += random.nextInt(500);
+            leaderboard.update(names[i], s);
+            return s[0];
+        });
+        bench.run("rankOf(VICTORIES)", () -> leaderboard.rankOf(Metric.VICTORIES, names[random.nextInt(accounts)]));
+        bench.run("rankOf(GOLD)", () -> leaderboard.rankOf(Metric.GOLD, names[random.nextInt(accounts)]));
+        bench.run("top(GOLD, 10)", () -> leaderboard.top(Metric.GOLD, 10).size());
+        bench.run("page(VICTORIES, random rank, 50)",
+                () -> leaderboard.page(Metric.VICTORIES, 1 + random.nextInt(accounts), 50).size());
+
+        // What answering "top 10 by gold" cost without an index
+        BenchmarkHarness baseline = new BenchmarkHarness(1, 3, 1);
+        baseline.run("baseline: sort all for top 10 by gold", () -> {
+            long[] keyed = new long[accounts];
+            for (int i = 0; i < accounts; i++) {
+                keyed[i] = ((long) scores[i][1] << 32) | i;
+            }
+            Arrays.sort(keyed);
+            return (int) keyed[accounts - 1];
+        });
+
+        System.out.println("top 5 by victories: " + leaderboard.top(Metric.VICTORIES, 5));
+        System.out.println("sink " + ((bench.sink() + baseline.sink()) & 0xF));
+    }
+}
@@ -0,0 +1,158 @@
+package com.amin.battlearena.bench;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.channels.ServerSocketChannel;
+import java.util.List;
+
+import com.amin.battlearena.domain.Tile;
+import com.amin.battlearena.domain.account.AccountRepository;
+import com.amin.battlearena.domain.account.Player;
+import com.amin.battlearena.domain.character.Character;
+import com.amin.battlearena.engine.AiEngine;
+import com.amin.battlearena.engine.BattleSnapshot;
+import com.amin.battlearena.engine.GameEngine;
+import com.amin.battlearena.engine.replay.ReplayAction;
+import com.amin.battlearena.engine.replay.TurnPlanner;
+import com.amin.battlearena.net.LockstepPeer;
+
+/**
+ * Plays AI-vs-AI lockstep battles between this JVM (the host) and a second JVM it starts on the
+ * same classpath (the guest), over localhost. Both peers plan their own turns and send only the
+ * commands; every turn's checksum must match, so a clean run shows the engines stay identical
+ * across processes. With a desync turn the guest nudges one of its units' hp at that turn of
+ * the first battle, which both sides must then report.
+ * Run with: java -cp target/classes com.amin.battlearena.bench.LockstepHarness [battles] [desyncTurn]
+ */
+public final class LockstepHarness {
+    private static final int MAX_TURNS = 200;
+    private static final long SEED = 0x10C5_7E9L;
+
+    private LockstepHarness() {}
+
+    private static final class Stats {
+        int battles;
+        int turns;
+        long commands;
+        long bytes;
+        long snapshotBytes;
+        int desyncs;
+        int firstDesyncTurn = -1;
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && args[0].equals("guest")) {
+            guest(Integer.parseInt(args[1]), Integer.parseInt(args[2]), Integer.parseInt(args[3]));
+            return;
+        }
+        int battles = args.length > 0 ? Integer.parseInt(args[0]) : 50;
+        int desyncTurn = args.length > 1 ? Integer.parseInt(args[1]) : -1;
+        Player me = account("lockstep_host");
+
+        try (ServerSocketChannel listener = ServerSocketChannel.open()) {
+            listener.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+            int port = ((InetSocketAddress) listener.getLocalAddress()).getPort();
+            String java = ProcessHandle.current().info().command().orElse("java");
+            Process guest = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                    LockstepHarness.class.getName(), "guest", String.valueOf(port), String.valueOf(battles),
+                    String.valueOf(desyncTurn)).inheritIO().start();
+
+            Stats stats = new Stats();
+            long start = System.nanoTime();
+            for (int b = 0; b < battles; b++) {
+                try (LockstepPeer peer = LockstepPeer.host(listener, me, SEED + b)) {
+                    play(peer, stats, -1);
+                }
+            }
+            long elapsed = System.nanoTime() - start;
+            int exit = guest.waitFor();
+
+            report("host", stats);
+            System.out.printf("  %.1f ms per battle across both processes; guest exited with %d%n",
+                    elapsed / 1e6 / battles, exit);
+        }
+    }
+
+    private static void guest(int port, int battles, int desyncTurn) throws IOException {
+        Player me = account("lockstep_guest");
+        InetSocketAddress host = new InetSocketAddress(InetAddress.getLoopbackAddress(), port);
+        Stats stats = new Stats();
+        for (int b = 0; b < battles; b++) {
+            try (LockstepPeer peer = LockstepPeer.join(host, me)) {
+                play(peer, stats, b == 0 ? desyncTurn : -1);
+            }
+        }
+        report("guest", stats);
+    }
+
+    private static Player account(String nickname) {
+        // Both accounts live only in their own process
+        Player me = BenchmarkHarness.loginInMemory(nickname);
+        me.addItems("HealthPotion", 3);
+        me.incrementUpgrade(0);
+        return me;
+    }
+
+    private static void play(LockstepPeer peer, Stats stats, int desyncTurn) throws IOException {
+        GameEngine engine = peer.getEngine();
+        AiEngine ai = new AiEngine();
+        boolean playerTeam = peer.getSide() == 0;
+        while (!peer.isOver() && engine.getTurnCount() <= MAX_TURNS) {
+            if (!peer.isMyTurn()) {
+                if (peer.receive() == null) break;
+                continue;
+            }
+            if (engine.getTurnCount() == desyncTurn) nudge(engine, playerTeam);
+
+            ReplayAction potion = potion(peer, playerTeam);
+            if (potion != null && peer.play(potion)) stats.commands++;
+            List<ReplayAction> plan = TurnPlanner.plan(BattleSnapshot.encode(engine), ai, playerTeam);
+            plan.add(ReplayAction.endTurn());
+            for (ReplayAction action : plan) {
+                if (!peer.play(action)) throw new IOException("Own command refused: " + action);
+                stats.commands++;
+            }
+            // What an authoritative server would send for the same turn instead
+            stats.snapshotBytes += BattleSnapshot.encode(engine).length;
+        }
+        stats.battles++;
+        stats.turns += engine.getTurnCount();
+        stats.bytes += peer.getBytesSent();
+        if (peer.getDesyncTurn() >= 0) {
+            stats.desyncs++;
+            if (stats.firstDesyncTurn < 0) stats.firstDesyncTurn = peer.getDesyncTurn();
+        }
+    }
+
+    // A heal potion on the first own unit below half hp, if the account still has one
+    private static ReplayAction potion(LockstepPeer peer, boolean playerTeam) {
+        GameEngine engine = peer.getEngine();
+        Player me = AccountRepository.getInstance().getCurrentUser();
+        if (!me.hasItem("HealthPotion")) return null;
+        int width = engine.getBoard().getWidth();
+        for (Character c : engine.getAllCharacters()) {
+            if (c.isPlayerTeam() == playerTeam && c.isAlive() && c.getCurrentHp() * 2 < c.getMaxHp()) {
+                Tile t = c.getPosition();
+                return ReplayAction.item(t.getY() * width + t.getX(), "HealthPotion");
+            }
+        }
+        return null;
+    }
+
+    private static void nudge(GameEngine engine, boolean playerTeam) {
+        for (Character c : engine.getAllCharacters()) {
+            if (c.isPlayerTeam() == playerTeam && c.isAlive() && c.getCurrentHp() > 1) {
+                c.setCurrentHp(c.getCurrentHp() - 1);
+                return;
+            }
+        }
+    }
+
+    private static void report(String role, Stats stats) {
+        System.out.printf("%s: %d battles, %,d turns, %,d commands sent, %.1f bytes sent per turn"
+                + " (a snapshot per own turn would be %.1f); %d desyncs%s%n", role, stats.battles, stats.turns,
+                stats.commands, (double) stats.bytes / stats.turns, (double) stats.snapshotBytes / stats.turns,
+                stats.desyncs, stats.firstDesyncTurn >= 0 ? ", first at turn " + stats.firstDesyncTurn : "");
+    }
+}
@@ -0,0 +1,133 @@
+package com.amin.battlearena.bench;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import com.amin.battlearena.domain.account.Player;
+import com.amin.battlearena.matchmaking.MatchTicket;
+import com.amin.battlearena.matchmaking.Matchmaker;
+
+/**
+ * Load generator for the Matchmaker: several threads queue synthetic players at a fixed total
+ * arrival rate. Victories follow a long-tailed distribution and upgrade levels a broad one, with
+ * a few outliers at both ends that only match once their search has widened. Reports the cost
+ * of each enqueue call, how long players waited, how close the pairs were and what the sweeper
+ * costs.
+ * Run with: java -cp target/classes com.amin.battlearena.bench.MatchmakingBenchmark [players] [threads] [arrivalsPerSecond]
+ */
+public final class MatchmakingBenchmark {
+    private MatchmakingBenchmark() {}
+
+    public static void main(String[] args) throws Exception {
+        int players = args.length > 0 ? Integer.parseInt(args[0]) : 50_000;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+        int rate = args.length > 2 ? Integer.parseInt(args[2]) : 20_000;
+
+        List<Player> population = population(players, new Random(42));
+        MatchTicket[] tickets = new MatchTicket[players];
+        long[] enqueueNanos = new long[players];
+        int peakWaiting = 0;
+
+        try (Matchmaker matchmaker = new Matchmaker()) {
+            matchmaker.start();
+            ExecutorService pool = Executors.newFixedThreadPool(threads);
+            long start = System.nanoTime();
+            List<Future<?>> producers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int first = t;
+                producers.add(pool.submit(() -> {
+                    // Player i arrives at start + i / rate seconds, whichever thread queues it
+                    for (int i = first; i < players; i += threads) {
+                        long due = start + (long) i * 1_000_000_000L / rate;
+                        long delay = due - System.nanoTime();
+                        if (delay > 0) LockSupport.parkNanos(delay);
+                        long before = System.nanoTime();
+                        tickets[i] = matchmaker.enqueue(population.get(i));
+                        enqueueNanos[i] = System.nanoTime() - before;
+                    }
+                }));
+            }
+            while (!allDone(producers)) {
+                peakWaiting = Math.max(peakWaiting, matchmaker.getWaiting());
+                Thread.sleep(5);
+            }
+            long arrivals = System.nanoTime() - start;
+
+            // Give the stragglers time to widen all the way before giving up on them
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos((Matchmaker.MAX_RING + 1) * Matchmaker.WIDEN_MS);
+            while (matchmaker.getWaiting() > 1 && System.nanoTime() < deadline) Thread.sleep(10);
+            int unmatched = 0;
+            for (MatchTicket ticket : tickets) {
+                if (matchmaker.cancel(ticket)) unmatched++;
+            }
+            pool.shutdown();
+
+            long[] waits = new long[players];
+            int matched = 0;
+            long ratingGap = 0;
+            long powerGap = 0;
+            for (MatchTicket ticket : tickets) {
+                if (ticket.getMatchedAt() == 0) continue;
+                waits[matched++] = ticket.getMatchedAt() - ticket.getEnqueuedAt();
+                MatchTicket other = ticket.getOpponent().get();
+                ratingGap += Math.abs(ticket.getRating() - other.getRating());
+                powerGap += Math.abs(ticket.getPower() - other.getPower());
+            }
+            waits = Arrays.copyOf(waits, matched);
+            Arrays.sort(waits);
+            Arrays.sort(enqueueNanos);
+
+            System.out.printf("%,d players over %.1f s on %d threads: %,d matches, %d left unmatched, peak %,d waiting%n",
+                    players, arrivals / 1e9, threads, matchmaker.getMatches(), unmatched, peakWaiting);
+            System.out.printf("  enqueue (matching included): avg %,d ns, p50 %,d ns, p99 %,d ns, max %,d ns%n",
+                    matchmaker.getEnqueueNanos() / matchmaker.getEnqueues(), enqueueNanos[players / 2],
+                    enqueueNanos[players * 99 / 100], enqueueNanos[players - 1]);
+            System.out.printf("  wait for an opponent: p50 %.2f ms, p90 %.2f ms, p99 %.1f ms, max %.1f ms%n",
+                    percentile(waits, 50) / 1e6, percentile(waits, 90) / 1e6, percentile(waits, 99) / 1e6,
+                    percentile(waits, 100) / 1e6);
+            System.out.printf("  average gap in a pair: %.1f rating, %.2f upgrade levels%n",
+                    (double) ratingGap / matched, (double) powerGap / matched);
+            System.out.printf("  sweeper: %,d sweeps, %.1f us each%n", matchmaker.getSweeps(),
+                    matchmaker.getSweepNanos() / 1e3 / Math.max(1, matchmaker.getSweeps()));
+        }
+    }
+
+    private static List<Player> population(int players, Random random) {
+        List<Player> population = new ArrayList<>(players);
+        for (int i = 0; i < players; i++) {
+            Player p = new Player("mm_bench_" + i);
+            int[] upgrades = new int[Player.UPGRADE_TYPES];
+            if (i % 1000 == 0) {
+                // Veterans far beyond the usual population
+                p.setVictories(400 + random.nextInt(200));
+                Arrays.fill(upgrades, 10 + random.nextInt(5));
+            } else {
+                p.setVictories((int) (-30 * Math.log(1 - random.nextDouble())));
+                for (int u = 0; u < upgrades.length; u++) upgrades[u] = random.nextInt(1 + p.getVictories() / 10 + 2);
+            }
+            p.setUpgrades(upgrades);
+            population.add(p);
+        }
+        return population;
+    }
+
+    private static boolean allDone(List<Future<?>> futures) throws Exception {
+        for (Future<?> f : futures) {
+            if (!f.isDone()) return false;
+        }
+        for (Future<?> f : futures) f.get();
+        return true;
+    }
+
+    private static long percentile(long[] sorted, int p) {
+        if (sorted.length == 0) return 0;
+        return sorted[Math.min(sorted.length - 1, (int) ((long) sorted.length * p / 100))];
+    }
+}
@@ -0,0 +1,83 @@
+package com.amin.battlearena.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import com.amin.battlearena.domain.account.AccountRepository;
+import com.amin.battlearena.domain.account.Player;
+import com.amin.battlearena.persistence.AccountStore;
+import com.amin.battlearena.persistence.AccountStores;
+
+/**
+ * Skewed login/save traffic over a large account population with a small bounded cache,
+ * once per eviction policy. Checks that no update is lost through dirty evictions.
+ * Run with: java -Xmx2g -cp target/classes com.amin.battlearena.bench.PlayerCacheBenchmark [accounts] [cacheSize]
+ */
+public final class PlayerCacheBenchmark {
+    private PlayerCacheBenchmark() {}
+
+    public static void main(String[] args) throws Exception {
+        int accounts = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int cacheSize = args.length > 1 ? Integer.parseInt(args[1]) : 10_000;
+        int operations = 2_000_000;
+        System.setProperty("battlearena.cacheSize", Integer.toString(cacheSize));
+        System.setProperty("battlearena.flushIntervalMs", "50");
+        System.out.printf("%,d accounts, cache of %,d, %,d skewed login+save operations%n",
+                accounts, cacheSize, operations);
+
+        boolean ok = true;
+        for (String policy : new String[]{"lru", "lfu"}) {
+            System.setProperty("battlearena.cachePolicy", policy);
+            ok &= run(accounts, operations);
+        }
+        if (!ok) System.exit(1);
+    }
+
+    private static boolean run(int accounts, int operations) throws Exception {
+        AccountStore store = AccountStores.open("memory", null);
+        List<Player> batch = new ArrayList<>();
+        for (int i = 0; i < accounts; i++) {
+            batch.add(new Player("player_" + i));
+            if (batch.size() == 10_000) {
+                store.saveAll(batch);
+                batch = new ArrayList<>();
+            }
+        }
+        store.saveAll(batch);
+
+        AccountRepository repo = new AccountRepository(store);
+        Random random = new Random(7);
+        int[] earned = new int[accounts];
+        long start = System.nanoTime();
+        for (int op = 0; op < operations; op++) {
+            // Heavily skewed: a few percent of the accounts get most of the traffic
+            int id = (int) (accounts * Math.pow(random.nextDouble(), 6));
+            Player p = repo.login("player_" + id);
+            p.addGold(1);
+            repo.savePlayer(p);
+            earned[id]++;
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        String[] hot = new String[64];
+        for (int i = 0; i < hot.length; i++) hot[i] = "player_" + i;
+        BenchmarkHarness bench = new BenchmarkHarness(3, 5, 500_000);
+        int[] next = new int[1];
+        bench.run("repeat login of a hot player", () -> repo.login(hot[next[0]++ & 63]).getLevel());
+
+        repo.flushNow();
+        int lost = 0;
+        for (int id = 0; id < accounts; id++) {
+            if (earned[id] == 0) continue;
+            Player p = store.load("player_" + id);
+            if (p.getGold() != 1000 + earned[id]) lost++;
+        }
+        System.out.printf(Locale.ROOT, "  %s%n  %,.0f ops/s, %,d dirty evictions written back early, %s%n",
+                repo.getCache(), operations / seconds, repo.getDirtyEvictions(),
+                lost == 0 ? "no lost updates" : lost + " players LOST UPDATES");
+        repo.shutdown();
+        return lost == 0;
+    }
+}
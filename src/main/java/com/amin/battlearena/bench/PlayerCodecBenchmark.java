@@ -0,0 +1,109 @@
+package com.amin.battlearena.bench;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.amin.battlearena.domain.account.Player;
+import com.amin.battlearena.persistence.PlayerCodec;
+
+/**
+ * Compares the old String.split based account format with PlayerCodec. PlayerCodecJmh measures
+ * the same operations under JMH.
+ * Run with: java -cp target/classes com.amin.battlearena.bench.PlayerCodecBenchmark
+ */
+public final class PlayerCodecBenchmark {
+    private PlayerCodecBenchmark() {}
+
+    public static void main(String[] args) {
+        Player sample = sample();
+        String legacyLine = legacySerialize(sample);
+        byte[] textBytes = (legacyLine + "\n").getBytes(StandardCharsets.UTF_8);
+        byte[] binary = PlayerCodec.encode(sample);
+        ByteBuffer out = ByteBuffer.allocate(256);
+        StringBuilder sb = new StringBuilder(128);
+
+        System.out.printf("record size: legacy text %d bytes, binary %d bytes%n", textBytes.length, binary.length);
+
+        BenchmarkHarness bench = new BenchmarkHarness(5, 10, 200_000);
+        bench.run("legacy serialize (StringBuilder)", () -> legacySerialize(sample).length());
+        bench.run("legacy deserialize (String.split)", () -> legacyDeserialize(legacyLine).getGold());
+        bench.run("codec encodeText", () -> {
+            sb.setLength(0);
+            PlayerCodec.encodeText(sample, sb);
+            return sb.length();
+        });
+        bench.run("codec decode legacy text bytes", () -> PlayerCodec.decode(ByteBuffer.wrap(textBytes)).getGold());
+        bench.run("codec encode binary (reused buffer)", () -> {
+            out.clear();
+            PlayerCodec.encode(sample, out);
+            return out.position();
+        });
+        bench.run("codec decode binary", () -> PlayerCodec.decode(ByteBuffer.wrap(binary)).getGold());
+    }
+
+    static Player sample() {
+        Player sample = new Player("benchmark_player");
+        sample.setGold(12345);
+        sample.setLevel(7);
+        sample.setVictories(42);
+        sample.setCampaignProgress(6);
+        sample.setUpgrades(new int[]{3, 2, 1, 4, 0, 2, 5, 1, 1});
+        sample.addItems("HealthPotion", 5);
+        sample.addItems("ManaPotion", 2);
+        sample.addItems("HastePotion", 1);
+        return sample;
+    }
+
+    // The pre-codec AccountRepository format, kept here as the baseline
+    static String legacySerialize(Player p) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(p.getNickname()).append("|");
+        sb.append(p.getGold()).append("|");
+        sb.append(p.getLevel()).append("|");
+        sb.append(p.getVictories()).append("|");
+        sb.append(p.getCampaignProgress()).append("|");
+        for (int i = 0; i < 9; i++) {
+            sb.append(p.getUpgradeLevel(i));
+            if (i < 8) sb.append(",");
+        }
+        sb.append("|");
+        Map<String, Integer> inv = p.getInventory();
+        if (inv.isEmpty()) {
+            sb.append("EMPTY");
+        } else {
+            int count = 0;
+            for (Map.Entry<String, Integer> entry : inv.entrySet()) {
+                sb.append(entry.getKey()).append(":").append(entry.getValue());
+                count++;
+                if (count < inv.size()) sb.append(",");
+            }
+        }
+        return sb.toString();
+    }
+
+    static Player legacyDeserialize(String line) {
+        String[] parts = line.split("\\|");
+        Player p = new Player(parts[0]);
+        p.setGold(Integer.parseInt(parts[1]));
+        p.setLevel(Integer.parseInt(parts[2]));
+        p.setVictories(Integer.parseInt(parts[3]));
+        p.setCampaignProgress(Integer.parseInt(parts[4]));
+        String[] ups = parts[5].split(",");
+        int[] upgrades = new int[9];
+        for (int i = 0; i < ups.length && i < 9; i++) {
+            upgrades[i] = Integer.parseInt(ups[i]);
+        }
+        p.setUpgrades(upgrades);
+        if (!parts[6].equals("EMPTY")) {
+            Map<String, Integer> inv = new HashMap<>();
+            for (String item : parts[6].split(",")) {
+                String[] pair = item.split(":");
+                inv.put(pair[0], Integer.parseInt(pair[1]));
+            }
+            p.setInventory(inv);
+        }
+        return p;
+    }
+}
@@ -0,0 +1,174 @@
+package com.amin.battlearena.bench;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.amin.battlearena.domain.Tile;
+import com.amin.battlearena.domain.account.AccountRepository;
+import com.amin.battlearena.domain.character.Character;
+import com.amin.battlearena.engine.AiEngine;
+import com.amin.battlearena.engine.BattleSnapshot;
+import com.amin.battlearena.engine.GameEngine;
+import com.amin.battlearena.engine.replay.ReplayAction;
+import com.amin.battlearena.engine.replay.TurnPlanner;
+import com.amin.battlearena.net.Protocol;
+import com.amin.battlearena.net.PvpClient;
+import com.amin.battlearena.net.PvpServer;
+import com.amin.battlearena.persistence.AccountStores;
+
+/**
+ * Runs many AI-vs-AI PvP matches against a localhost PvpServer at once. Every client plans its
+ * turns on its own mirror and sends them command by command, so the run checks that the server
+ * accepts exactly the legal commands (each client also sends one illegal command that must be
+ * rejected). Reports command round-trip latency and the server's CPU cost per command, which
+ * gives the matches one core can carry.
+ * Run with: java -cp target/classes com.amin.battlearena.bench.PvpLoadBenchmark [matches] [loops]
+ */
+public final class PvpLoadBenchmark {
+    private static final int MAX_TURNS = 200;
+
+    private PvpLoadBenchmark() {}
+
+    public static void main(String[] args) throws Exception {
+        int matches = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        int loops = args.length > 1 ? Integer.parseInt(args[1]) : PvpServer.DEFAULT_LOOPS;
+        // Accounts for the clients are created on the fly and never need the disk
+        System.setProperty(AccountStores.PROPERTY, "memory");
+        AccountRepository accounts = AccountRepository.getInstance();
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+
+        try (PvpServer server = new PvpServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), loops, accounts)) {
+            server.start();
+            InetSocketAddress address = new InetSocketAddress(InetAddress.getLoopbackAddress(), server.getPort());
+            ExecutorService pool = Executors.newFixedThreadPool(matches * 2, r -> {
+                Thread t = new Thread(r, "pvp-bench-client");
+                t.setDaemon(true);
+                return t;
+            });
+
+            long start = System.nanoTime();
+            List<Future<ClientStats>> clients = new ArrayList<>();
+            for (int i = 0; i < matches * 2; i++) {
+                String nickname = "pvp_bench_" + i;
+                clients.add(pool.submit(() -> play(address, nickname)));
+            }
+            int peak = 0;
+            while (!clients.stream().allMatch(Future::isDone)) {
+                peak = Math.max(peak, server.getActiveMatches());
+                Thread.sleep(5);
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            pool.shutdown();
+
+            long serverCpu = 0;
+            for (Thread t : server.getLoopThreads()) serverCpu += threads.getThreadCpuTime(t.getId());
+            long[] latencies = new long[0];
+            int finished = 0;
+            int rejected = 0;
+            int unexpected = 0;
+            for (Future<ClientStats> f : clients) {
+                ClientStats s = f.get();
+                int from = latencies.length;
+                latencies = Arrays.copyOf(latencies, from + s.count);
+                System.arraycopy(s.latencies, 0, latencies, from, s.count);
+                if (s.finished) finished++;
+                rejected += s.rejected;
+                unexpected += s.unexpected;
+            }
+            Arrays.sort(latencies);
+            long commands = server.getCommands();
+
+            System.out.printf("%d matches on %d loops, peak %d at once; %d clients saw the end, %.2f s%n",
+                    matches, loops, peak, finished, seconds);
+            System.out.printf("%,d commands (%,.0f/s); illegal probes rejected %d/%d; legal commands rejected %d%n",
+                    commands, commands / seconds, rejected, matches * 2, unexpected);
+            System.out.printf("round trip: p50 %.0f us, p90 %.0f us, p99 %.0f us, max %.0f us%n",
+                    percentile(latencies, 0.50), percentile(latencies, 0.90), percentile(latencies, 0.99),
+                    latencies.length == 0 ? 0.0 : latencies[latencies.length - 1] / 1e3);
+            double cpuPerCommand = (double) serverCpu / commands;
+            System.out.printf("server CPU %.1f us per command: %,.0f commands per core-second,"
+                    + " i.e. that many concurrent matches per core at one command per second each%n",
+                    cpuPerCommand / 1e3, 1e9 / cpuPerCommand);
+        }
+    }
+
+    private static final class ClientStats {
+        long[] latencies = new long[256];
+        int count;
+        int rejected;
+        int unexpected;
+        boolean finished;
+
+        void add(long nanos) {
+            if (count == latencies.length) latencies = Arrays.copyOf(latencies, count * 2);
+            latencies[count++] = nanos;
+        }
+    }
+
+    private static ClientStats play(InetSocketAddress address, String nickname) throws IOException {
+        ClientStats stats = new ClientStats();
+        AiEngine ai = new AiEngine();
+        try (PvpClient client = new PvpClient(address, nickname)) {
+            if (!client.awaitStart()) return stats;
+            int side = client.getSide();
+
+            // Moving an opponent's unit is refused whoever's turn it is
+            client.send(ReplayAction.move(tileOf(client.getEngine(), opponent(client.getEngine(), side)), 0));
+            if (awaitReply(client, side).getType() == Protocol.REJECTED) stats.rejected++;
+
+            while (!client.isOver() && client.getEngine().getTurnCount() <= MAX_TURNS) {
+                if (!client.isMyTurn()) {
+                    client.read();
+                    continue;
+                }
+                List<ReplayAction> plan = TurnPlanner.plan(BattleSnapshot.encode(client.getEngine()), ai, side == 0);
+                plan.add(ReplayAction.endTurn());
+                for (ReplayAction action : plan) {
+                    long sent = System.nanoTime();
+                    client.send(action);
+                    PvpClient.Message reply = awaitReply(client, side);
+                    stats.add(System.nanoTime() - sent);
+                    if (reply.getType() == Protocol.REJECTED) stats.unexpected++;
+                    if (reply.getType() == Protocol.GAME_OVER) break;
+                }
+            }
+            stats.finished = client.isOver();
+        }
+        return stats;
+    }
+
+    // The answer to our last command: its echo, a rejection, or the end of the match
+    private static PvpClient.Message awaitReply(PvpClient client, int side) throws IOException {
+        while (true) {
+            PvpClient.Message m = client.read();
+            if (m.getType() == Protocol.REJECTED || m.getType() == Protocol.GAME_OVER) return m;
+            if (m.getType() == Protocol.ACTION && m.getValue() == side) return m;
+        }
+    }
+
+    private static Character opponent(GameEngine engine, int side) {
+        for (Character c : engine.getAllCharacters()) {
+            if (c.isPlayerTeam() != (side == 0)) return c;
+        }
+        throw new IllegalStateException("No opponent units");
+    }
+
+    private static int tileOf(GameEngine engine, Character c) {
+        Tile t = c.getPosition();
+        return t.getY() * engine.getBoard().getWidth() + t.getX();
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        if (sorted.length == 0) return 0;
+        return sorted[Math.min(sorted.length - 1, (int) (sorted.length * p))] / 1e3;
+    }
+}
@@ -0,0 +1,110 @@
+package com.amin.battlearena.bench;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.amin.battlearena.engine.AiEngine;
+import com.amin.battlearena.engine.BattleEvent;
+import com.amin.battlearena.engine.BattleSnapshot;
+import com.amin.battlearena.engine.GameEngine;
+import com.amin.battlearena.engine.replay.ReplayAction;
+import com.amin.battlearena.engine.replay.ReplayReader;
+import com.amin.battlearena.engine.replay.ReplayRecorder;
+
+/**
+ * Records AI-vs-AI battles, compares replay size with a full-state-per-action dump, and checks
+ * that replaying every file reproduces the recorded final state exactly.
+ * Run with: java -cp target/classes com.amin.battlearena.bench.ReplayBenchmark [battles]
+ */
+public final class ReplayBenchmark {
+    private static final int MAX_TURNS = 200;
+
+    private ReplayBenchmark() {}
+
+    public static void main(String[] args) throws IOException {
+        int battles = args.length > 0 ? Integer.parseInt(args[0]) : 1_000;
+        BenchmarkHarness.loginInMemory("replay_bench");
+
+        AiEngine ai = new AiEngine();
+        List<byte[]> replays = new ArrayList<>(battles);
+        List<byte[]> finalStates = new ArrayList<>(battles);
+        long replayBytes = 0;
+        long fullStateBytes = 0;
+        long actions = 0;
+        long recordNanos = 0;
+
+        for (int b = 0; b < battles; b++) {
+            GameEngine engine = new GameEngine();
+            engine.initLevel(1 + b % 10);
+            long[] dump = new long[2];
+            engine.addListener(e -> {
+                if (e.getType() != BattleEvent.Type.DAMAGE && e.getType() != BattleEvent.Type.DEATH) {
+                    dump[0] += BattleSnapshot.encode(engine).length;
+                    dump[1]++;
+                }
+            });
+
+            ByteArrayOutputStream file = new ByteArrayOutputStream();
+            long start = System.nanoTime();
+            ReplayRecorder recorder = new ReplayRecorder(engine, file);
+            while (!engine.isGameOver() && engine.getTurnCount() <= MAX_TURNS) {
+                ai.performTurn(engine, engine.isPlayerTurn());
+                engine.endTurn();
+            }
+            recorder.close();
+            recordNanos += System.nanoTime() - start;
+
+            replays.add(file.toByteArray());
+            finalStates.add(BattleSnapshot.encode(engine));
+            replayBytes += file.size();
+            fullStateBytes += dump[0];
+            actions += dump[1];
+        }
+
+        System.out.printf("%,d battles, %,d actions (%.1f per battle)%n", battles, actions, (double) actions / battles);
+        System.out.printf("replay files: %,d bytes total, %.0f bytes/battle, %.2f bytes/action%n",
+                replayBytes, (double) replayBytes / battles, (double) replayBytes / actions);
+        System.out.printf("full state per action: %,d bytes total (%.1fx larger)%n",
+                fullStateBytes, (double) fullStateBytes / replayBytes);
+        System.out.printf("recording incl. simulation: %.1f us/battle%n", recordNanos / 1e3 / battles);
+
+        // Stream every replay back through a fresh engine and compare the end state
+        long readStart = System.nanoTime();
+        int mismatches = 0;
+        long replayed = 0;
+        for (int b = 0; b < battles; b++) {
+            try (ReplayReader reader = new ReplayReader(new ByteArrayInputStream(replays.get(b)))) {
+                reader.nextBlock();
+                GameEngine engine = reader.keyframe();
+                ReplayAction action;
+                while ((action = reader.next()) != null) {
+                    if (!action.apply(engine)) {
+                        mismatches++;
+                        break;
+                    }
+                    replayed++;
+                }
+                if (!Arrays.equals(BattleSnapshot.encode(engine), finalStates.get(b))) mismatches++;
+            }
+        }
+        double readSeconds = (System.nanoTime() - readStart) / 1e9;
+        System.out.printf("replayed %,d actions in %.2f s (%,.0f actions/s), %s%n", replayed, readSeconds,
+                replayed / readSeconds, mismatches == 0 ? "all final states match" : mismatches + " MISMATCHES");
+
+        // Seeking skips blocks by header, without inflating or replaying them
+        long seekStart = System.nanoTime();
+        int seeks = 0;
+        for (byte[] replay : replays) {
+            try (ReplayReader reader = new ReplayReader(new ByteArrayInputStream(replay))) {
+                if (reader.seek(8) != null) seeks++;
+            }
+        }
+        System.out.printf("seek to turn 8: %.1f us per replay (%d replays reached it)%n",
+                (System.nanoTime() - seekStart) / 1e3 / battles, seeks);
+        if (mismatches > 0) System.exit(1);
+    }
+}
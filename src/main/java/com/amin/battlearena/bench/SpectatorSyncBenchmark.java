@@ -0,0 +1,123 @@
+package com.amin.battlearena.bench;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.amin.battlearena.engine.AiEngine;
+import com.amin.battlearena.engine.BattleSnapshot;
+import com.amin.battlearena.engine.GameEngine;
+import com.amin.battlearena.engine.sync.LocalSpectator;
+import com.amin.battlearena.engine.sync.SpectatorHub;
+
+/**
+ * Streams AI-vs-AI battles to many local spectators through a SpectatorHub and compares the
+ * bytes sent with a full BattleSnapshot per version. A quarter of the spectators drop frames
+ * now and then (they catch up from their last acknowledged version) and some join mid-battle.
+ * Every mirror is checked against the source at the end of each turn.
+ * Run with: java -cp target/classes com.amin.battlearena.bench.SpectatorSyncBenchmark [battles]
+ */
+public final class SpectatorSyncBenchmark {
+    private static final int MAX_TURNS = 200;
+
+    private SpectatorSyncBenchmark() {}
+
+    /** Drops every third frame, as a follower behind a lossy link would. */
+    private static final class LossySpectator implements SpectatorHub.Follower {
+        final LocalSpectator view = new LocalSpectator();
+        int received;
+
+        @Override
+        public int getAckedVersion() {
+            return view.getAckedVersion();
+        }
+
+        @Override
+        public void send(byte[] frame) {
+            if (++received % 3 != 0) view.send(frame);
+        }
+    }
+
+    public static void main(String[] args) {
+        int battles = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        BenchmarkHarness.loginInMemory("sync_bench");
+        AiEngine ai = new AiEngine();
+
+        for (int spectators : new int[] {1, 100, 1000}) {
+            long versions = 0;
+            long frames = 0;
+            long bytes = 0;
+            long snapshotBytes = 0;
+            long encodes = 0;
+            long nanos = 0;
+            int checks = 0;
+            int mismatches = 0;
+
+            for (int b = 0; b < battles; b++) {
+                GameEngine engine = new GameEngine();
+                engine.initLevel(1 + b % 10);
+                SpectatorHub hub = new SpectatorHub(engine);
+                List<LocalSpectator> views = new ArrayList<>();
+                List<LossySpectator> lossy = new ArrayList<>();
+                long start = System.nanoTime();
+                for (int s = 0; s < spectators; s++) {
+                    // Half join now, the rest on the second turn
+                    if (s % 2 == 1) continue;
+                    join(hub, s, views, lossy);
+                }
+                nanos += System.nanoTime() - start;
+
+                while (!engine.isGameOver() && engine.getTurnCount() <= MAX_TURNS) {
+                    start = System.nanoTime();
+                    if (engine.getTurnCount() == 2 && engine.isPlayerTurn()) {
+                        for (int s = 1; s < spectators; s += 2) join(hub, s, views, lossy);
+                    }
+                    int before = hub.getEncoder().getVersion();
+                    ai.performTurn(engine, engine.isPlayerTurn());
+                    engine.endTurn();
+                    // Lossy followers resync from their last acknowledged version
+                    hub.publish();
+                    hub.publish();
+                    nanos += System.nanoTime() - start;
+
+                    int produced = hub.getEncoder().getVersion() - before;
+                    versions += produced;
+                    snapshotBytes += (long) produced * BattleSnapshot.encode(engine).length;
+                    byte[] truth = BattleSnapshot.encode(engine);
+                    for (LocalSpectator v : views) {
+                        checks++;
+                        if (!Arrays.equals(truth, BattleSnapshot.encode(v.getEngine()))) mismatches++;
+                    }
+                    for (LossySpectator l : lossy) {
+                        if (l.getAckedVersion() != hub.getEncoder().getVersion()) continue;
+                        checks++;
+                        if (!Arrays.equals(truth, BattleSnapshot.encode(l.view.getEngine()))) mismatches++;
+                    }
+                }
+                frames += hub.getFramesSent();
+                bytes += hub.getBytesSent();
+                encodes += hub.getEncoder().getEncodes();
+                hub.detach();
+            }
+
+            System.out.printf("%,d spectators: %,d versions, %.1f bytes per frame vs %.1f per full snapshot"
+                    + " (%.1f%% of the bytes)%n", spectators, versions, (double) bytes / frames,
+                    (double) snapshotBytes / versions, 100.0 * bytes / (snapshotBytes * (double) spectators));
+            System.out.printf("  %,d frames from %,d encodes; %.0f ns per frame delivered (AI turns included);"
+                    + " %,d mirror checks, %d mismatches%n", frames, encodes, (double) nanos / frames, checks,
+                    mismatches);
+        }
+    }
+
+    private static void join(SpectatorHub hub, int s, List<LocalSpectator> views, List<LossySpectator> lossy) {
+        if (s % 4 == 3) {
+            LossySpectator l = new LossySpectator();
+            lossy.add(l);
+            hub.add(l);
+        } else {
+            LocalSpectator v = new LocalSpectator();
+            views.add(v);
+            hub.add(v);
+        }
+    }
+}
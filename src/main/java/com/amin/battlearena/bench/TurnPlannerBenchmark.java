@@ -0,0 +1,71 @@
+package com.amin.battlearena.bench;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+import com.amin.battlearena.engine.AiEngine;
+import com.amin.battlearena.engine.BattleSnapshot;
+import com.amin.battlearena.engine.GameEngine;
+import com.amin.battlearena.engine.replay.ReplayAction;
+import com.amin.battlearena.engine.replay.TurnPlanner;
+
+/**
+ * Plays AI-vs-AI battles the way the battle screen runs CPU turns: each turn is planned on a
+ * snapshot copy, then its actions are applied one by one to the live engine. Checks that every
+ * planned action applies and that the live state matches the planning copy after each turn,
+ * and reports planning and per-action apply cost (the work one animation step does).
+ * Run with: java -cp target/classes com.amin.battlearena.bench.TurnPlannerBenchmark [battles]
+ */
+public final class TurnPlannerBenchmark {
+    private static final int MAX_TURNS = 200;
+
+    private TurnPlannerBenchmark() {}
+
+    public static void main(String[] args) throws IOException {
+        int battles = args.length > 0 ? Integer.parseInt(args[0]) : 2_000;
+        BenchmarkHarness.loginInMemory("planner_bench");
+
+        AiEngine ai = new AiEngine();
+        long turns = 0;
+        long actions = 0;
+        long planNanos = 0;
+        long applyNanos = 0;
+        int mismatches = 0;
+
+        for (int b = 0; b < battles; b++) {
+            GameEngine live = new GameEngine();
+            live.initLevel(1 + b % 5);
+            while (!live.isGameOver() && live.getTurnCount() <= MAX_TURNS) {
+                boolean side = live.isPlayerTurn();
+                byte[] snapshot = BattleSnapshot.encode(live);
+
+                long start = System.nanoTime();
+                List<ReplayAction> plan = TurnPlanner.plan(snapshot, ai, side);
+                planNanos += System.nanoTime() - start;
+
+                start = System.nanoTime();
+                for (ReplayAction action : plan) {
+                    if (!action.apply(live)) mismatches++;
+                }
+                applyNanos += System.nanoTime() - start;
+
+                // The planning copy, replayed the same way, is the reference for the live state
+                GameEngine reference = BattleSnapshot.decode(snapshot);
+                for (ReplayAction action : plan) action.apply(reference);
+                if (!Arrays.equals(BattleSnapshot.encode(reference), BattleSnapshot.encode(live))) mismatches++;
+
+                live.endTurn();
+                turns++;
+                actions += plan.size();
+            }
+        }
+
+        System.out.printf("%d battles, %,d turns, %,d actions (%.1f per turn)%n",
+                battles, turns, actions, (double) actions / turns);
+        System.out.printf("planning: %.1f us per turn; applying: %.0f ns per action%n",
+                planNanos / 1e3 / turns, (double) applyNanos / actions);
+        System.out.println(mismatches == 0 ? "every plan applied and matched the live state"
+                : mismatches + " MISMATCHES between plans and the live engine");
+    }
+}
@@ -0,0 +1,302 @@
+package com.amin.battlearena.cli;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.amin.battlearena.bench.AccountRepositoryStressBenchmark;
+import com.amin.battlearena.bench.AccountStoreBenchmark;
+import com.amin.battlearena.bench.ActionQueryBenchmark;
+import com.amin.battlearena.bench.LeaderboardBenchmark;
+import com.amin.battlearena.bench.PlayerCacheBenchmark;
+import com.amin.battlearena.bench.PlayerCodecBenchmark;
+import com.amin.battlearena.bench.PvpLoadBenchmark;
+import com.amin.battlearena.bench.ReplayBenchmark;
+import com.amin.battlearena.bench.TurnPlannerBenchmark;
+import com.amin.battlearena.domain.account.AccountRepository;
+import com.amin.battlearena.domain.account.Leaderboard;
+import com.amin.battlearena.domain.account.Player;
+import com.amin.battlearena.domain.campaign.LevelConfig;
+import com.amin.battlearena.engine.AiEngine;
+import com.amin.battlearena.engine.GameEngine;
+import com.amin.battlearena.persistence.AccountStore;
+import com.amin.battlearena.persistence.AccountStores;
+import com.amin.battlearena.net.PvpServer;
+import com.amin.battlearena.persistence.AccountTransfer;
+
+/**
+ * Headless entry point for scripts and servers: AI-vs-AI battles, batch simulations, the
+ * benchmarks that need no UI, account maintenance and the PvP server. Nothing here references
+ * JavaFX, so the toolkit is never loaded and a battle result is printed within a few hundred
+ * milliseconds of JVM start. The account backend is picked with -Dbattlearena.store as for the game.
+ * Run with: java -cp target/classes com.amin.battlearena.cli.BattleCli COMMAND [ARGS]
+ */
+public final class BattleCli {
+    private static final int MAX_TURNS = 200;
+    // PvP server port, overridable with -Dbattlearena.pvpPort=...
+    private static final int DEFAULT_PORT = Integer.getInteger("battlearena.pvpPort", 7777);
+    private static final String USAGE = String.join("\n",
+            "usage: BattleCli COMMAND [ARGS]",
+            "  battle [LEVEL] [NICKNAME]                 one AI-vs-AI battle, prints the result",
+            "  simulate BATTLES [LEVEL|all] [THREADS] [NICKNAME]",
+            "                                            many battles, prints win rates and throughput",
+            "  bench NAME [ARGS]                         runs a headless benchmark: " + String.join(", ", benchmarks()),
+            "  account list|show NICKNAME|top [COUNT] [victories|gold|campaign_progress]",
+            "  account export|import FILE text|binary [THREADS]",
+            "  server [PORT] [LOOPS]                     runs the PvP battle server until killed",
+            "Battles use the given existing account's upgrades, read-only, or a fresh in-memory player if none is given.");
+
+    private BattleCli() {}
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 0) {
+            System.err.println(USAGE);
+            System.exit(2);
+        }
+        String[] rest = Arrays.copyOfRange(args, 1, args.length);
+        try {
+            switch (args[0]) {
+                case "battle":
+                    battle(rest);
+                    break;
+                case "simulate":
+                    simulate(rest);
+                    break;
+                case "bench":
+                    bench(rest);
+                    break;
+                case "account":
+                    account(rest);
+                    break;
+                case "server":
+                    server(rest);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown command: " + args[0]);
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            System.exit(2);
+        }
+    }
+
+    private static void battle(String[] args) throws IOException {
+        int level = args.length > 0 ? level(args[0]) : 1;
+        Player player = account(args.length > 1 ? args[1] : null);
+
+        long start = System.nanoTime();
+        Result result = play(new AiEngine(), level, player);
+        double ms = (System.nanoTime() - start) / 1e6;
+        System.out.printf("level %d: %s after %d turns (%.1f ms)%n", level, result.outcome(), result.turns, ms);
+    }
+
+    private static void simulate(String[] args) throws Exception {
+        if (args.length < 1) throw new IllegalArgumentException("simulate needs a number of battles");
+        int battles = Integer.parseInt(args[0]);
+        // 0 cycles through every level
+        int level = args.length > 1 && !args[1].equals("all") ? level(args[1]) : 0;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        if (battles < 1 || threads < 1) throw new IllegalArgumentException("battles and threads must be positive");
+        Player player = account(args.length > 3 ? args[3] : null);
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "battle-simulation");
+            t.setDaemon(true);
+            return t;
+        });
+        long start = System.nanoTime();
+        List<Future<long[]>> parts = new ArrayList<>(threads);
+        for (int p = 0; p < threads; p++) {
+            int first = p;
+            // Each worker plays every threads-th battle: player wins, CPU wins, unfinished, turns
+            parts.add(pool.submit(() -> {
+                AiEngine ai = new AiEngine();
+                long[] totals = new long[4];
+                for (int b = first; b < battles; b += threads) {
+                    Result r = play(ai, level > 0 ? level : 1 + b % LevelConfig.getLevelCount(), player);
+                    totals[r.finished ? (r.playerWon ? 0 : 1) : 2]++;
+                    totals[3] += r.turns;
+                }
+                return totals;
+            }));
+        }
+        long[] totals = new long[4];
+        for (Future<long[]> part : parts) {
+            long[] t = part.get();
+            for (int i = 0; i < totals.length; i++) totals[i] += t[i];
+        }
+        pool.shutdown();
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("%,d battles on %d threads in %.2f s (%,.0f battles/s)%n",
+                battles, threads, seconds, battles / seconds);
+        System.out.printf("player won %.1f%%, CPU won %.1f%%, unfinished after %d turns %.1f%%; %.1f turns on average%n",
+                100.0 * totals[0] / battles, 100.0 * totals[1] / battles, MAX_TURNS, 100.0 * totals[2] / battles,
+                (double) totals[3] / battles);
+    }
+
+    private static final class Result {
+        final boolean finished;
+        final boolean playerWon;
+        final int turns;
+
+        Result(boolean finished, boolean playerWon, int turns) {
+            this.finished = finished;
+            this.playerWon = playerWon;
+            this.turns = turns;
+        }
+
+        String outcome() {
+            if (!finished) return "unfinished";
+            return playerWon ? "player won" : "CPU won";
+        }
+    }
+
+    // Battles only read the player, so one instance serves every simulation thread
+    private static Result play(AiEngine ai, int level, Player player) {
+        GameEngine engine = new GameEngine();
+        engine.initLevel(level, player);
+        while (!engine.isGameOver() && engine.getTurnCount() <= MAX_TURNS) {
+            ai.performTurn(engine, engine.isPlayerTurn());
+            engine.endTurn();
+        }
+        return new Result(engine.isGameOver(), engine.didPlayerWin(), engine.getTurnCount());
+    }
+
+    private static int level(String arg) {
+        int level = Integer.parseInt(arg);
+        if (!LevelConfig.isLevelValid(level)) throw new IllegalArgumentException("No such level: " + arg);
+        return level;
+    }
+
+    // The account whose upgrades the player team uses; read-only, so a mistyped name is an error, not a new account
+    private static Player account(String nickname) throws IOException {
+        // A throwaway player never touches the account files
+        if (nickname == null) return new Player("cli");
+        try (AccountStore store = AccountStores.fromSystemProperties()) {
+            Player player = store.load(nickname);
+            if (player == null) throw new IllegalArgumentException("No account named " + nickname);
+            return player;
+        }
+    }
+
+    private static void server(String[] args) throws IOException, InterruptedException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        int loops = args.length > 1 ? Integer.parseInt(args[1]) : PvpServer.DEFAULT_LOOPS;
+        PvpServer server = new PvpServer(new InetSocketAddress(port), loops, AccountRepository.getInstance());
+        server.start();
+        System.out.println("PvP server on port " + server.getPort() + " with " + loops + " loops");
+        for (Thread loop : server.getLoopThreads()) loop.join();
+    }
+
+    private static List<String> benchmarks() {
+        return List.of("accounts", "account-stress", "actions", "leaderboard", "player-cache", "player-codec",
+                "pvp-load", "replay", "turn-planner");
+    }
+
+    // The board, canvas and log benchmarks need JavaFX and stay out of this list
+    private static void bench(String[] args) throws Exception {
+        if (args.length < 1) throw new IllegalArgumentException("bench needs a benchmark name");
+        String[] rest = Arrays.copyOfRange(args, 1, args.length);
+        switch (args[0]) {
+            case "accounts":
+                AccountStoreBenchmark.main(rest);
+                break;
+            case "account-stress":
+                AccountRepositoryStressBenchmark.main(rest);
+                break;
+            case "actions":
+                ActionQueryBenchmark.main(rest);
+                break;
+            case "leaderboard":
+                LeaderboardBenchmark.main(rest);
+                break;
+            case "player-cache":
+                PlayerCacheBenchmark.main(rest);
+                break;
+            case "player-codec":
+                PlayerCodecBenchmark.main(rest);
+                break;
+            case "pvp-load":
+                PvpLoadBenchmark.main(rest);
+                break;
+            case "replay":
+                ReplayBenchmark.main(rest);
+                break;
+            case "turn-planner":
+                TurnPlannerBenchmark.main(rest);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown benchmark: " + args[0]);
+        }
+    }
+
+    // Works on the store directly, without the repository's cache and background writer
+    private static void account(String[] args) throws IOException {
+        if (args.length < 1) throw new IllegalArgumentException("account needs a subcommand");
+        try (AccountStore store = AccountStores.fromSystemProperties()) {
+            switch (args[0]) {
+                case "list":
+                    store.forEach(p -> System.out.println(describe(p)));
+                    System.out.println(store.size() + " accounts");
+                    break;
+                case "show": {
+                    if (args.length < 2) throw new IllegalArgumentException("account show needs a nickname");
+                    Player player = store.load(args[1]);
+                    if (player == null) {
+                        System.out.println("No account named " + args[1]);
+                        System.exit(1);
+                    }
+                    System.out.println(describe(player));
+                    System.out.println("  upgrades " + Arrays.toString(upgrades(player))
+                            + ", inventory " + player.getInventory());
+                    break;
+                }
+                case "top": {
+                    int count = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+                    Leaderboard.Metric metric = args.length > 2
+                            ? Leaderboard.Metric.valueOf(args[2].toUpperCase(Locale.ROOT))
+                            : Leaderboard.Metric.VICTORIES;
+                    Leaderboard leaderboard = new Leaderboard();
+                    store.forEachScore(leaderboard::update);
+                    leaderboard.top(metric, count).forEach(System.out::println);
+                    break;
+                }
+                case "export":
+                case "import": {
+                    if (args.length < 3) throw new IllegalArgumentException("account " + args[0] + " needs FILE and FORMAT");
+                    Path file = Paths.get(args[1]);
+                    AccountTransfer.Format format = AccountTransfer.Format.valueOf(args[2].toUpperCase(Locale.ROOT));
+                    int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+                    AccountTransfer.Stats stats = args[0].equals("export")
+                            ? AccountTransfer.exportFile(store, file, format, threads)
+                            : AccountTransfer.importFile(file, format, store, threads);
+                    System.out.println(args[0] + " " + file + ": " + stats);
+                    break;
+                }
+                default:
+                    throw new IllegalArgumentException("Unknown account command: " + args[0]);
+            }
+        }
+    }
+
+    private static String describe(Player p) {
+        return p.getNickname() + ": level " + p.getLevel() + ", " + p.getGold() + " gold, " + p.getVictories()
+                + " victories, campaign " + p.getCampaignProgress();
+    }
+
+    private static int[] upgrades(Player p) {
+        int[] levels = new int[Player.UPGRADE_TYPES];
+        for (int i = 0; i < levels.length; i++) levels[i] = p.getUpgradeLevel(i);
+        return levels;
+    }
+}
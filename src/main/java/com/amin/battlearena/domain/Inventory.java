@@ -1,14 +1,15 @@
 package com.amin.battlearena.domain;
 
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.TreeMap;
 
 public final class Inventory {
+    // Sorted, so every machine lists and encodes the same inventory in the same order
     private final Map<String, Integer> items;
     
     public Inventory() {
-        this.items = new HashMap<>();
+        this.items = new TreeMap<>();
     }
     
     public void addItem(String itemName) {
@@ -22,6 +22,7 @@ public abstract class Ability implements AbilityInterface {
     public int getCooldown() { return cooldown; }
     public int getRange() { return range; }
     public int getCurrentCooldown() { return currentCooldown; }
+    public void setCurrentCooldown(int currentCooldown) { this.currentCooldown = currentCooldown; }
 
     public boolean isReady() { return currentCooldown == 0; }
     
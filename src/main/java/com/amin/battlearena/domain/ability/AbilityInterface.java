@@ -8,6 +8,7 @@ public interface AbilityInterface {
     int getCooldown();
     int getRange();
     int getCurrentCooldown();
+    void setCurrentCooldown(int currentCooldown);
     boolean isReady();
     void reduceCooldown();
     void putOnCooldown();
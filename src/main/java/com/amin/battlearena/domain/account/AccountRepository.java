@@ -1,155 +1,308 @@
 package com.amin.battlearena.domain.account;
 
-import java.io.BufferedReader;
-import java.io.File;
-import java.io.FileReader;
-import java.io.FileWriter;
 import java.io.IOException;
-import java.io.PrintWriter;
-import java.util.HashMap;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
 
+import com.amin.battlearena.infra.Debouncer;
+import com.amin.battlearena.persistence.AccountStore;
+import com.amin.battlearena.persistence.AccountStores;
+
+/**
+ * Accounts for any number of concurrent sessions. Work on one nickname is serialized by a
+ * striped lock, so different players never wait on each other, and saves never touch the disk:
+ * they queue a copy of the changed player, and a debounced background writer turns each burst
+ * of saves into one store batch.
+ */
 public final class AccountRepository {
-    private static AccountRepository instance;
-    private Player currentUser;
-    private final String SAVE_FILE = "savegame.dat";
+    // Quiet time before a burst of saves is written, and the most a save may wait, overridable with
+    // -Dbattlearena.saveDebounceMs=... and -Dbattlearena.flushIntervalMs=...
+    private static final long SAVE_DEBOUNCE_MS = Long.getLong("battlearena.saveDebounceMs", 250L);
+    private static final long FLUSH_INTERVAL_MS = Long.getLong("battlearena.flushIntervalMs", 2000L);
+    private static final int STRIPES = 64;
+    // Cache bound and policy, overridable with -Dbattlearena.cacheSize=... -Dbattlearena.cachePolicy=lru|lfu
+    private static final int DEFAULT_CACHE_SIZE = 10_000;
+
+    private static final class Holder {
+        // Class initialization is lazy and thread-safe, so no locking on getInstance
+        static final AccountRepository INSTANCE = new AccountRepository(openDefaultStore());
+    }
 
-    private AccountRepository() {}
+    private volatile Player currentUser;
+    private final AccountStore store;
 
-    public static AccountRepository getInstance() {
-        if (instance == null) {
-            instance = new AccountRepository();
+    // Hot players; a miss falls back to the pending copy, then to the store
+    private final PlayerCache cache;
+    // Latest detached copy per dirty player; repeated saves overwrite each other until flushed
+    private final Map<String, Player> pending = new ConcurrentHashMap<>();
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    private final LongAdder dirtyEvictions = new LongAdder();
+    private final Object[] stripes = new Object[STRIPES];
+    private final Leaderboard leaderboard = new Leaderboard();
+    private final Object leaderboardInit = new Object();
+    // Saves feed the leaderboard only once someone asked for it
+    private volatile boolean leaderboardTracking;
+    private volatile boolean leaderboardReady;
+    private final ScheduledExecutorService writer;
+    private final Debouncer saves;
+    private boolean shutDown;
+
+    // Standalone instance over its own store, for tools and benchmarks; the game uses getInstance()
+    public AccountRepository(AccountStore store) {
+        this.store = store;
+        this.cache = new PlayerCache(Integer.getInteger("battlearena.cacheSize", DEFAULT_CACHE_SIZE),
+                PlayerCache.Policy.valueOf(System.getProperty("battlearena.cachePolicy", "lru").toUpperCase(Locale.ROOT)),
+                this::onEvicted);
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Object();
         }
-        return instance;
+
+        writer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "account-writer");
+            t.setDaemon(true);
+            return t;
+        });
+        saves = new Debouncer(writer, this::flush, Math.min(SAVE_DEBOUNCE_MS, FLUSH_INTERVAL_MS), FLUSH_INTERVAL_MS);
+        Runtime.getRuntime().addShutdownHook(new Thread(this::shutdown, "account-shutdown"));
     }
 
-    public Player login(String nickname) {
-        // Try to load existing player
-        Player player = loadPlayer(nickname);
-        if (player == null) {
-            // Create new player
-            player = new Player(nickname);
-            savePlayer(player);
+    private static AccountStore openDefaultStore() {
+        try {
+            return AccountStores.fromSystemProperties();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open account store", e);
         }
+    }
+
+    public static AccountRepository getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    public Player login(String nickname) {
+        Player player = loadOrCreate(nickname);
         currentUser = player;
         return player;
     }
 
+    /**
+     * The account, created if new, without making it the current user; for servers and tools.
+     * Throws UncheckedIOException when the store cannot be read, rather than guessing "new".
+     */
+    public Player loadOrCreate(String nickname) {
+        synchronized (stripeFor(nickname)) {
+            // Try to load existing player
+            Player player = loadPlayer(nickname);
+            if (player == null) {
+                // Create new player
+                player = new Player(nickname);
+                savePlayer(player);
+            }
+            return player;
+        }
+    }
+
     public Player getCurrentUser() {
         return currentUser;
     }
 
     public void logout() {
-        if (currentUser != null) {
-            savePlayer(currentUser);
+        Player user = currentUser;
+        if (user != null) {
+            savePlayer(user);
             currentUser = null;
+            flushAsync();
         }
     }
 
+    /**
+     * Queues the player's changes for the background writer and returns at once. Calls for a
+     * player with no changes since its last save cost nothing. A player shared between threads
+     * must be changed and saved under the caller's own lock.
+     */
     public void savePlayer(Player player) {
-        // Simple implementation: Read all, update/add one, write back
-        // For simplicity in this project, we might just append or rewrite.
-        // Since we want to avoid complexity, let's just use a Map in memory and dump to file.
-        
-        Map<String, String> allData = loadAllData();
-        allData.put(player.getNickname(), serialize(player));
-        
-        try (PrintWriter out = new PrintWriter(new FileWriter(SAVE_FILE))) {
-            for (String line : allData.values()) {
-                out.println(line);
+        if (!player.isDirty()) return;
+
+        // The stripe keeps copy and publish atomic, so an older copy never replaces a newer one
+        String nickname = player.getNickname();
+        synchronized (stripeFor(nickname)) {
+            player.clearDirty();
+            Player copy = player.copy();
+            cache.put(nickname, player);
+            pending.put(nickname, copy);
+            if (leaderboardTracking) leaderboard.update(copy);
+        }
+        saves.trigger();
+    }
+
+    /**
+     * Barrier for scene switches and similar hand-offs: starts writing everything saved so far
+     * without waiting. The future completes once those saves are durable, or exceptionally if
+     * the write failed; the saves then stay queued and are retried.
+     */
+    public CompletableFuture<Void> flushAsync() {
+        return saves.runNow();
+    }
+
+    /** Rankings over every account; built on first use, then kept current by savePlayer. */
+    public Leaderboard getLeaderboard() {
+        if (!leaderboardReady) {
+            synchronized (leaderboardInit) {
+                if (!leaderboardReady) {
+                    // Start tracking first: a save that missed the flag is still in pending or,
+                    // once flushed, in the store, and both are read below. Saves that see the flag
+                    // are newer than either, so the back-fill only fills gaps.
+                    leaderboardTracking = true;
+                    pending.values().forEach(leaderboard::updateIfAbsent);
+                    try {
+                        store.forEachScore(leaderboard::updateIfAbsent);
+                    } catch (IOException e) {
+                        e.printStackTrace();
+                    }
+                    leaderboardReady = true;
+                }
             }
+        }
+        return leaderboard;
+    }
+
+    public PlayerCache getCache() {
+        return cache;
+    }
+
+    /** Evicted players that still had unwritten changes; each one triggers an early flush. */
+    public long getDirtyEvictions() {
+        return dirtyEvictions.sum();
+    }
+
+    /** Commits every pending player to the store; blocks until done. */
+    public void shutdown() {
+        synchronized (this) {
+            if (shutDown) return;
+            shutDown = true;
+        }
+        writer.shutdown();
+        try {
+            writer.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            flush();
+        } catch (UncheckedIOException e) {
+            e.printStackTrace();
+        }
+        try {
+            store.close();
         } catch (IOException e) {
             e.printStackTrace();
         }
     }
 
-    private Player loadPlayer(String nickname) {
-        Map<String, String> allData = loadAllData();
-        if (allData.containsKey(nickname)) {
-            return deserialize(allData.get(nickname));
+    /** Writes everything pending and waits for it; throws UncheckedIOException if the write failed. */
+    public void flushNow() {
+        try {
+            flushAsync().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+            throw new IllegalStateException("Flush failed", e.getCause());
         }
-        return null;
     }
 
-    private Map<String, String> loadAllData() {
-        Map<String, String> data = new HashMap<>();
-        File file = new File(SAVE_FILE);
-        if (!file.exists()) return data;
+    // Runs on the writer thread only (or after it stopped), so batches never overlap
+    private void flush() {
+        List<Player> batch = new ArrayList<>(pending.values());
+        if (batch.isEmpty()) return;
 
-        try (BufferedReader br = new BufferedReader(new FileReader(file))) {
-            String line;
-            while ((line = br.readLine()) != null) {
-                String[] parts = line.split("\\|");
-                if (parts.length > 0) {
-                    data.put(parts[0], line);
-                }
-            }
+        try {
+            // One backend batch (a single fsync for the journal) per flush
+            store.saveAll(batch);
         } catch (IOException e) {
-            e.printStackTrace();
+            // Everything stays queued; retry once the flush interval has passed
+            retryFlush();
+            throw new UncheckedIOException("Saving " + batch.size() + " accounts failed", e);
         }
-        return data;
-    }
-
-    private String serialize(Player p) {
-        StringBuilder sb = new StringBuilder();
-        sb.append(p.getNickname()).append("|");
-        sb.append(p.getGold()).append("|");
-        sb.append(p.getLevel()).append("|");
-        sb.append(p.getVictories()).append("|");
-        sb.append(p.getCampaignProgress()).append("|");
-        
-        // Upgrades
-        for (int i = 0; i < 9; i++) {
-            sb.append(p.getUpgradeLevel(i));
-            if (i < 8) sb.append(",");
-        }
-        sb.append("|");
-        
-        // Inventory
-        Map<String, Integer> inv = p.getInventory();
-        if (inv.isEmpty()) {
-            sb.append("EMPTY");
-        } else {
-            int count = 0;
-            for (Map.Entry<String, Integer> entry : inv.entrySet()) {
-                sb.append(entry.getKey()).append(":").append(entry.getValue());
-                count++;
-                if (count < inv.size()) sb.append(",");
-            }
+        // Only now drop the copies, so a reload never falls between pending and the store.
+        // Conditional remove: a copy published during the write stays queued.
+        for (Player p : batch) {
+            pending.remove(p.getNickname(), p);
         }
-        
-        return sb.toString();
     }
 
-    private Player deserialize(String line) {
-        String[] parts = line.split("\\|");
-        if (parts.length < 7) return null;
+    private void retryFlush() {
+        try {
+            writer.schedule(saves::trigger, FLUSH_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // Shutting down: shutdown() makes the last attempt itself
+        }
+    }
 
-        Player p = new Player(parts[0]);
-        p.setGold(Integer.parseInt(parts[1]));
-        p.setLevel(Integer.parseInt(parts[2]));
-        p.setVictories(Integer.parseInt(parts[3]));
-        p.setCampaignProgress(Integer.parseInt(parts[4]));
+    // Caller holds the nickname's stripe
+    private Player loadPlayer(String nickname) {
+        Player user = currentUser;
+        if (user != null && user.getNickname().equals(nickname)) return user;
 
-        // Upgrades
-        String[] ups = parts[5].split(",");
-        int[] upgrades = new int[9];
-        for (int i = 0; i < ups.length && i < 9; i++) {
-            upgrades[i] = Integer.parseInt(ups[i]);
-        }
-        p.setUpgrades(upgrades);
+        Player player = cache.get(nickname);
+        if (player != null) return player;
 
-        // Inventory
-        if (!parts[6].equals("EMPTY")) {
-            Map<String, Integer> inv = new HashMap<>();
-            String[] items = parts[6].split(",");
-            for (String item : items) {
-                String[] pair = item.split(":");
-                inv.put(pair[0], Integer.parseInt(pair[1]));
+        // Evicted before its last save was flushed: the pending copy is newer than the store
+        Player unsaved = pending.get(nickname);
+        if (unsaved != null) {
+            player = unsaved.copy();
+        } else {
+            try {
+                player = store.load(nickname);
+            } catch (IOException e) {
+                // Not the same as "no such account": creating one here would overwrite the real one
+                throw new UncheckedIOException("Cannot load account " + nickname, e);
             }
-            p.setInventory(inv);
+            if (player == null) return null;
+        }
+        player.clearDirty();
+        cache.put(nickname, player);
+        return player;
+    }
+
+    private void onEvicted(String nickname, Player player) {
+        // The pending copy keeps the data safe; flushing early keeps the queue as bounded as the cache
+        if (pending.containsKey(nickname)) {
+            dirtyEvictions.increment();
+            requestFlush();
         }
+    }
+
+    private void requestFlush() {
+        if (!flushRequested.compareAndSet(false, true)) return;
+        try {
+            writer.execute(() -> {
+                flushRequested.set(false);
+                try {
+                    flush();
+                } catch (UncheckedIOException e) {
+                    e.printStackTrace();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Shutting down: the final flush picks everything up
+            flushRequested.set(false);
+        }
+    }
 
-        return p;
+    private Object stripeFor(String nickname) {
+        int h = nickname.hashCode();
+        return stripes[(h ^ (h >>> 16)) & (STRIPES - 1)];
     }
 }
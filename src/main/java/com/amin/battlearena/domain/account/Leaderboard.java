@@ -0,0 +1,135 @@
+package com.amin.battlearena.domain.account;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToIntFunction;
+
+/**
+ * Rankings of every known account by victories, gold and campaign progress. Kept up to date
+ * one player at a time, so top-K and rank queries never scan the accounts.
+ */
+public final class Leaderboard {
+    public enum Metric {
+        VICTORIES(Player::getVictories),
+        GOLD(Player::getGold),
+        CAMPAIGN_PROGRESS(Player::getCampaignProgress);
+
+        private final ToIntFunction<Player> score;
+
+        Metric(ToIntFunction<Player> score) {
+            this.score = score;
+        }
+
+        public int scoreOf(Player player) {
+            return score.applyAsInt(player);
+        }
+    }
+
+    public static final class Entry {
+        private final int rank;
+        private final String nickname;
+        private final int score;
+
+        Entry(int rank, String nickname, int score) {
+            this.rank = rank;
+            this.nickname = nickname;
+            this.score = score;
+        }
+
+        public int getRank() { return rank; }
+        public String getNickname() { return nickname; }
+        public int getScore() { return score; }
+
+        @Override
+        public String toString() {
+            return rank + ". " + nickname + " (" + score + ")";
+        }
+    }
+
+    private static final Metric[] METRICS = Metric.values();
+
+    // Current score per metric for each player, needed to find the old skip list entry
+    private final Map<String, int[]> scores = new HashMap<>();
+    private final RankedSkipList[] rankings = new RankedSkipList[METRICS.length];
+
+    public Leaderboard() {
+        for (int i = 0; i < rankings.length; i++) {
+            rankings[i] = new RankedSkipList();
+        }
+    }
+
+    public void update(Player player) {
+        int[] values = new int[METRICS.length];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = METRICS[i].scoreOf(player);
+        }
+        update(player.getNickname(), values);
+    }
+
+    /** Adds the player only if it is not ranked yet, e.g. when back-filling from storage. */
+    public synchronized void updateIfAbsent(Player player) {
+        if (!scores.containsKey(player.getNickname())) update(player);
+    }
+
+    /** Like updateIfAbsent(Player), with scores in {@link Metric} declaration order. */
+    public synchronized void updateIfAbsent(String nickname, int... values) {
+        if (!scores.containsKey(nickname)) update(nickname, values);
+    }
+
+    /** Scores in {@link Metric} declaration order. */
+    public synchronized void update(String nickname, int... values) {
+        if (values.length != METRICS.length) {
+            throw new IllegalArgumentException("Expected " + METRICS.length + " scores, got " + values.length);
+        }
+
+        int[] old = scores.get(nickname);
+        for (int i = 0; i < values.length; i++) {
+            if (old != null) {
+                if (old[i] == values[i]) continue;
+                rankings[i].remove(nickname, old[i]);
+            }
+            rankings[i].insert(nickname, values[i]);
+        }
+        scores.put(nickname, values.clone());
+    }
+
+    public synchronized void remove(String nickname) {
+        int[] old = scores.remove(nickname);
+        if (old == null) return;
+        for (int i = 0; i < old.length; i++) {
+            rankings[i].remove(nickname, old[i]);
+        }
+    }
+
+    public List<Entry> top(Metric metric, int count) {
+        return page(metric, 1, count);
+    }
+
+    /** Up to {@code count} entries starting at the 1-based {@code fromRank}; ties are broken by nickname. */
+    public synchronized List<Entry> page(Metric metric, int fromRank, int count) {
+        List<String> names = new ArrayList<>();
+        List<Integer> values = new ArrayList<>();
+        rankings[metric.ordinal()].range(fromRank, count, names, values);
+        if (names.isEmpty()) return Collections.emptyList();
+
+        List<Entry> entries = new ArrayList<>(names.size());
+        for (int i = 0; i < names.size(); i++) {
+            entries.add(new Entry(fromRank + i, names.get(i), values.get(i)));
+        }
+        return entries;
+    }
+
+    /** 1-based rank of the player, or 0 if the player is not on the leaderboard. */
+    public synchronized int rankOf(Metric metric, String nickname) {
+        int[] current = scores.get(nickname);
+        if (current == null) return 0;
+        return rankings[metric.ordinal()].rank(nickname, current[metric.ordinal()]);
+    }
+
+    public synchronized int size() {
+        return scores.size();
+    }
+}
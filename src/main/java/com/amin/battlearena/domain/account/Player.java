@@ -5,6 +5,8 @@ import java.util.Map;
 import com.amin.battlearena.domain.Inventory;
 
 public final class Player {
+    public static final int UPGRADE_TYPES = 9;
+
     private String nickname;
     private int gold;
     private int level;
@@ -17,14 +19,41 @@ public final class Player {
     // Inventory
     private Inventory inventory;
 
+    // Changed since the last save; stores always write the whole record
+    private boolean dirty;
+
     public Player(String nickname) {
         this.nickname = nickname;
         this.gold = 1000;
         this.level = 1;
         this.victories = 0;
         this.campaignProgress = 1;
-        this.upgrades = new int[9];
+        this.upgrades = new int[UPGRADE_TYPES];
         this.inventory = new Inventory();
+        // Never saved yet
+        this.dirty = true;
+    }
+
+    // Detached copy, safe to hand to another thread while this one keeps changing
+    public Player copy() {
+        Player p = new Player(nickname);
+        p.gold = gold;
+        p.level = level;
+        p.victories = victories;
+        p.campaignProgress = campaignProgress;
+        p.upgrades = upgrades.clone();
+        p.inventory.setItems(inventory.getAllItems());
+        p.dirty = dirty;
+        return p;
+    }
+
+    public boolean isDirty() {
+        return dirty;
+    }
+
+    /** Marks the player as saved. */
+    public void clearDirty() {
+        dirty = false;
     }
 
     public String getNickname() {
@@ -37,11 +66,13 @@ public final class Player {
 
     public void addGold(int amount) {
         this.gold += amount;
+        dirty = true;
     }
 
     public void spendGold(int amount) {
         if (this.gold >= amount) {
             this.gold -= amount;
+            dirty = true;
         }
     }
 
@@ -51,6 +82,7 @@ public final class Player {
 
     public void levelUp() {
         this.level++;
+        dirty = true;
     }
 
     public int getVictories() {
@@ -59,6 +91,7 @@ public final class Player {
 
     public void addVictory() {
         this.victories++;
+        dirty = true;
     }
 
     public int getCampaignProgress() {
@@ -67,6 +100,7 @@ public final class Player {
 
     public void unlockNextLevel() {
         this.campaignProgress++;
+        dirty = true;
     }
 
     public int getUpgradeLevel(int type) {
@@ -76,20 +110,34 @@ public final class Player {
         return 0;
     }
 
+    public int getUpgradeCount() {
+        return upgrades.length;
+    }
+
     public void incrementUpgrade(int type) {
         if (type >= 0 && type < upgrades.length) {
             upgrades[type]++;
+            dirty = true;
         }
     }
 
     public void upgrade(int type) {
         if (type >= 0 && type < upgrades.length) {
             upgrades[type]++;
+            dirty = true;
         }
     }
 
     public void addItem(String itemName) {
         inventory.addItem(itemName);
+        dirty = true;
+    }
+
+    public void addItems(String itemName, int quantity) {
+        if (quantity > 0) {
+            inventory.addItems(itemName, quantity);
+            dirty = true;
+        }
     }
 
     public boolean hasItem(String itemName) {
@@ -97,7 +145,10 @@ public final class Player {
     }
 
     public void useItem(String itemName) {
-        inventory.removeItem(itemName);
+        if (inventory.hasItem(itemName)) {
+            inventory.removeItem(itemName);
+            dirty = true;
+        }
     }
     
     public Map<String, Integer> getInventory() {
@@ -105,12 +156,13 @@ public final class Player {
     }
 
     // Setters for loading from file
-    public void setGold(int gold) { this.gold = gold; }
-    public void setLevel(int level) { this.level = level; }
-    public void setVictories(int victories) { this.victories = victories; }
-    public void setCampaignProgress(int campaignProgress) { this.campaignProgress = campaignProgress; }
-    public void setUpgrades(int[] upgrades) { this.upgrades = upgrades; }
+    public void setGold(int gold) { this.gold = gold; dirty = true; }
+    public void setLevel(int level) { this.level = level; dirty = true; }
+    public void setVictories(int victories) { this.victories = victories; dirty = true; }
+    public void setCampaignProgress(int campaignProgress) { this.campaignProgress = campaignProgress; dirty = true; }
+    public void setUpgrades(int[] upgrades) { this.upgrades = upgrades; dirty = true; }
     public void setInventory(Map<String, Integer> inventoryItems) { 
         this.inventory.setItems(inventoryItems); 
+        dirty = true;
     }
 }
@@ -0,0 +1,229 @@
+package com.amin.battlearena.domain.account;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Size-bounded cache of live Player objects. Keys are spread over independently locked
+ * segments, each evicting by its own LRU or LFU order, so the bound holds per segment and
+ * threads working on different players rarely meet on the same lock.
+ */
+public final class PlayerCache {
+    public enum Policy { LRU, LFU }
+
+    /** Told about every entry the cache drops; runs under a segment lock, so keep it short. */
+    public interface EvictionListener {
+        void evicted(String nickname, Player player);
+    }
+
+    private static final int SEGMENTS = 16;
+
+    private final Segment[] segments = new Segment[SEGMENTS];
+    private final int capacity;
+    private final Policy policy;
+    private final EvictionListener listener;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public PlayerCache(int capacity, Policy policy, EvictionListener listener) {
+        if (capacity < SEGMENTS) {
+            throw new IllegalArgumentException("Cache capacity must be at least " + SEGMENTS);
+        }
+        this.capacity = capacity;
+        this.policy = policy;
+        this.listener = listener;
+        int perSegment = (capacity + SEGMENTS - 1) / SEGMENTS;
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = policy == Policy.LRU ? new LruSegment(perSegment) : new LfuSegment(perSegment);
+        }
+    }
+
+    public Player get(String nickname) {
+        Segment segment = segmentFor(nickname);
+        Player player;
+        synchronized (segment) {
+            player = segment.get(nickname);
+        }
+        if (player != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+        }
+        return player;
+    }
+
+    public void put(String nickname, Player player) {
+        Segment segment = segmentFor(nickname);
+        synchronized (segment) {
+            segment.put(nickname, player);
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public Policy getPolicy() {
+        return policy;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    public double getHitRate() {
+        long h = hits.sum();
+        long total = h + misses.sum();
+        return total == 0 ? 0 : (double) h / total;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "%s cache %d/%d, hit rate %.1f%% (%d hits, %d misses), %d evictions",
+                policy, size(), capacity, getHitRate() * 100, getHits(), getMisses(), getEvictions());
+    }
+
+    private Segment segmentFor(String nickname) {
+        int h = nickname.hashCode();
+        return segments[(h ^ (h >>> 16)) & (SEGMENTS - 1)];
+    }
+
+    private void onEvict(String nickname, Player player) {
+        evictions.increment();
+        if (listener != null) listener.evicted(nickname, player);
+    }
+
+    private abstract static class Segment {
+        final int capacity;
+
+        Segment(int capacity) {
+            this.capacity = capacity;
+        }
+
+        abstract Player get(String nickname);
+
+        abstract void put(String nickname, Player player);
+
+        abstract int size();
+    }
+
+    private final class LruSegment extends Segment {
+        // Access-ordered: the eldest entry is the least recently used
+        private final LinkedHashMap<String, Player> map = new LinkedHashMap<>(16, 0.75f, true);
+
+        LruSegment(int capacity) {
+            super(capacity);
+        }
+
+        @Override
+        Player get(String nickname) {
+            return map.get(nickname);
+        }
+
+        @Override
+        void put(String nickname, Player player) {
+            map.put(nickname, player);
+            if (map.size() > capacity) {
+                Iterator<Map.Entry<String, Player>> eldest = map.entrySet().iterator();
+                Map.Entry<String, Player> victim = eldest.next();
+                eldest.remove();
+                onEvict(victim.getKey(), victim.getValue());
+            }
+        }
+
+        @Override
+        int size() {
+            return map.size();
+        }
+    }
+
+    private final class LfuSegment extends Segment {
+        private final class Entry {
+            Player player;
+            int frequency = 1;
+
+            Entry(Player player) {
+                this.player = player;
+            }
+        }
+
+        private final Map<String, Entry> entries = new HashMap<>();
+        // Keys per use count, oldest first, so ties among the least used evict the oldest
+        private final Map<Integer, LinkedHashSet<String>> buckets = new HashMap<>();
+        private int minFrequency;
+
+        LfuSegment(int capacity) {
+            super(capacity);
+        }
+
+        @Override
+        Player get(String nickname) {
+            Entry entry = entries.get(nickname);
+            if (entry == null) return null;
+            touch(nickname, entry);
+            return entry.player;
+        }
+
+        @Override
+        void put(String nickname, Player player) {
+            Entry entry = entries.get(nickname);
+            if (entry != null) {
+                entry.player = player;
+                touch(nickname, entry);
+                return;
+            }
+
+            if (entries.size() >= capacity) {
+                LinkedHashSet<String> least = buckets.get(minFrequency);
+                Iterator<String> oldest = least.iterator();
+                String victim = oldest.next();
+                oldest.remove();
+                if (least.isEmpty()) buckets.remove(minFrequency);
+                onEvict(victim, entries.remove(victim).player);
+            }
+            entries.put(nickname, new Entry(player));
+            buckets.computeIfAbsent(1, f -> new LinkedHashSet<>()).add(nickname);
+            minFrequency = 1;
+        }
+
+        private void touch(String nickname, Entry entry) {
+            LinkedHashSet<String> bucket = buckets.get(entry.frequency);
+            bucket.remove(nickname);
+            if (bucket.isEmpty()) {
+                buckets.remove(entry.frequency);
+                if (minFrequency == entry.frequency) minFrequency++;
+            }
+            entry.frequency++;
+            buckets.computeIfAbsent(entry.frequency, f -> new LinkedHashSet<>()).add(nickname);
+        }
+
+        @Override
+        int size() {
+            return entries.size();
+        }
+    }
+}
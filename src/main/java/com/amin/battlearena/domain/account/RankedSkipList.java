@@ -0,0 +1,147 @@
+package com.amin.battlearena.domain.account;
+
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Indexable skip list of (nickname, score) ordered by score descending, then nickname.
+ * Every forward link records how many entries it skips, so insert, remove, rank and
+ * lookup by rank all run in expected O(log n). Not thread-safe.
+ */
+final class RankedSkipList {
+    private static final int MAX_LEVEL = 32;
+
+    private static final class Node {
+        final String name;
+        final int score;
+        final Node[] next;
+        final int[] span;
+
+        Node(String name, int score, int levels) {
+            this.name = name;
+            this.score = score;
+            this.next = new Node[levels];
+            this.span = new int[levels];
+        }
+    }
+
+    private final Node head = new Node(null, 0, MAX_LEVEL);
+    // Fixed seed: tower heights only affect speed, and a seed keeps runs comparable
+    private final Random random = new Random(0x5EED);
+    // Search paths reused across calls; the list is single-threaded anyway
+    private final Node[] update = new Node[MAX_LEVEL];
+    private final int[] rank = new int[MAX_LEVEL];
+    private int level = 1;
+    private int size;
+
+    int size() {
+        return size;
+    }
+
+    void insert(String name, int score) {
+        Node x = head;
+        for (int i = level - 1; i >= 0; i--) {
+            rank[i] = i == level - 1 ? 0 : rank[i + 1];
+            while (x.next[i] != null && before(x.next[i], name, score)) {
+                rank[i] += x.span[i];
+                x = x.next[i];
+            }
+            update[i] = x;
+        }
+
+        int levels = randomLevel();
+        if (levels > level) {
+            for (int i = level; i < levels; i++) {
+                rank[i] = 0;
+                update[i] = head;
+                head.span[i] = size;
+            }
+            level = levels;
+        }
+
+        Node node = new Node(name, score, levels);
+        for (int i = 0; i < levels; i++) {
+            node.next[i] = update[i].next[i];
+            update[i].next[i] = node;
+            node.span[i] = update[i].span[i] - (rank[0] - rank[i]);
+            update[i].span[i] = rank[0] - rank[i] + 1;
+        }
+        for (int i = levels; i < level; i++) {
+            update[i].span[i]++;
+        }
+        size++;
+    }
+
+    boolean remove(String name, int score) {
+        Node x = head;
+        for (int i = level - 1; i >= 0; i--) {
+            while (x.next[i] != null && before(x.next[i], name, score)) {
+                x = x.next[i];
+            }
+            update[i] = x;
+        }
+
+        Node target = x.next[0];
+        if (target == null || target.score != score || !target.name.equals(name)) return false;
+
+        for (int i = 0; i < level; i++) {
+            if (update[i].next[i] == target) {
+                update[i].span[i] += target.span[i] - 1;
+                update[i].next[i] = target.next[i];
+            } else {
+                update[i].span[i]--;
+            }
+        }
+        while (level > 1 && head.next[level - 1] == null) {
+            level--;
+        }
+        size--;
+        return true;
+    }
+
+    /** 1-based position of the entry, or 0 when it is not in the list. */
+    int rank(String name, int score) {
+        int rank = 0;
+        Node x = head;
+        for (int i = level - 1; i >= 0; i--) {
+            while (x.next[i] != null && (before(x.next[i], name, score)
+                    || (x.next[i].score == score && x.next[i].name.equals(name)))) {
+                rank += x.span[i];
+                x = x.next[i];
+            }
+            if (x != head && x.score == score && x.name.equals(name)) return rank;
+        }
+        return 0;
+    }
+
+    /** Up to {@code count} entries starting at the 1-based position {@code fromRank}. */
+    void range(int fromRank, int count, List<String> names, List<Integer> scores) {
+        if (fromRank < 1 || fromRank > size || count <= 0) return;
+
+        int traversed = 0;
+        Node x = head;
+        for (int i = level - 1; i >= 0; i--) {
+            while (x.next[i] != null && traversed + x.span[i] < fromRank) {
+                traversed += x.span[i];
+                x = x.next[i];
+            }
+        }
+        x = x.next[0];
+        for (int n = 0; n < count && x != null; n++, x = x.next[0]) {
+            names.add(x.name);
+            scores.add(x.score);
+        }
+    }
+
+    private static boolean before(Node node, String name, int score) {
+        if (node.score != score) return node.score > score;
+        return node.name.compareTo(name) < 0;
+    }
+
+    private int randomLevel() {
+        // p = 1/4 per extra level, as in Redis sorted sets
+        int levels = 1;
+        while (levels < MAX_LEVEL && (random.nextInt() & 3) == 0) levels++;
+        return levels;
+    }
+}
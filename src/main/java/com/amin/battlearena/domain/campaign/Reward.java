@@ -1,8 +1,8 @@
 package com.amin.battlearena.domain.campaign;
 
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.TreeMap;
 
 public final class Reward {
     private final int goldAmount;
@@ -10,11 +10,11 @@ public final class Reward {
     
     public Reward(int goldAmount, Map<String, Integer> consumables) {
         this.goldAmount = goldAmount;
-        this.consumables = new HashMap<>(consumables);
+        this.consumables = new TreeMap<>(consumables);
     }
     
     public Reward(int goldAmount) {
-        this(goldAmount, new HashMap<>());
+        this(goldAmount, new TreeMap<>());
     }
     
     public int getGoldAmount() {
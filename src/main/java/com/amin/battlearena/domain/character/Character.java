@@ -60,6 +60,11 @@ public abstract class Character implements CharacterInterface {
         return currentHp;
     }
 
+    @Override
+    public void setCurrentHp(int currentHp) {
+        this.currentHp = currentHp;
+    }
+
     @Override
     public int getMaxMana() {
         return maxMana;
@@ -70,6 +75,11 @@ public abstract class Character implements CharacterInterface {
         return currentMana;
     }
 
+    @Override
+    public void setCurrentMana(int currentMana) {
+        this.currentMana = currentMana;
+    }
+
     @Override
     public int getAttack() {
         return attack;
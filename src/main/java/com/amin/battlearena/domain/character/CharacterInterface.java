@@ -10,8 +10,10 @@ public interface CharacterInterface {
     String getType();
     int getMaxHp();
     int getCurrentHp();
+    void setCurrentHp(int currentHp);
     int getMaxMana();
     int getCurrentMana();
+    void setCurrentMana(int currentMana);
     int getAttack();
     int getDefense();
     int getRange();
@@ -1,11 +1,13 @@
 package com.amin.battlearena.domain.consumable;
 
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
 import java.util.function.Supplier;
 
 public final class ConsumableFactory {
-    private static final Map<String, Supplier<Consumable>> ITEMS = new HashMap<>();
+    private static final Map<String, Supplier<Consumable>> ITEMS = new TreeMap<>();
     
     static {
         ITEMS.put("HealthPotion", () -> new HealthPotion(50));
@@ -15,6 +17,10 @@ public final class ConsumableFactory {
     
     private ConsumableFactory() {}
     
+    public static Set<String> getItemNames() {
+        return Collections.unmodifiableSet(ITEMS.keySet());
+    }
+    
     public static Consumable createItem(String itemName) {
         Supplier<Consumable> supplier = ITEMS.get(itemName);
         if (supplier != null) {
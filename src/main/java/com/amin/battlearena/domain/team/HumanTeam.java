@@ -18,13 +18,22 @@ public final class HumanTeam extends Team {
         {10, 2, 1, 1, 1, 5, 20, 8, 1}     // Mage
     };
     
+    // Null means the logged-in account, looked up in initialize()
+    private final Player owner;
+
     public HumanTeam() {
-        super(true);
+        this(null, true);
+    }
+
+    // A team built from any account, on either side; PvP puts the second player on the enemy side
+    public HumanTeam(Player owner, boolean isPlayerTeam) {
+        super(isPlayerTeam);
+        this.owner = owner;
     }
     
     @Override
     public void initialize() {
-        Player player = AccountRepository.getInstance().getCurrentUser();
+        Player player = owner != null ? owner : AccountRepository.getInstance().getCurrentUser();
         if (player == null) return;
         
         addMember(createCharacter(0, "Warrior", player));
@@ -41,7 +50,7 @@ public final class HumanTeam extends Team {
         int range = BASE_STATS[baseIdx + 4] + applyUpgrades(3, typeIndex, player);
         int spd = BASE_STATS[baseIdx + 5] + applyUpgrades(4, typeIndex, player);
         
-        return CharacterFactory.create(type, hp, mana, atk, def, range, spd, true);
+        return CharacterFactory.create(type, hp, mana, atk, def, range, spd, isPlayerTeam());
     }
     
     private int applyUpgrades(int upgradeType, int typeIndex, Player player) {
@@ -0,0 +1,19 @@
+package com.amin.battlearena.domain.team;
+
+import java.util.List;
+
+import com.amin.battlearena.domain.character.Character;
+
+public final class RestoredTeam extends Team {
+    // Members come from a saved battle instead of the player profile or level config
+    public RestoredTeam(boolean isPlayerTeam, List<Character> members) {
+        super(isPlayerTeam);
+        for (Character c : members) {
+            addMember(c);
+        }
+    }
+
+    @Override
+    public void initialize() {
+    }
+}
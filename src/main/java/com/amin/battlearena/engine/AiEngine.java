@@ -8,9 +8,14 @@ import com.amin.battlearena.domain.character.Character;
 public final class AiEngine {
     
     public void performTurn(GameEngine engine) {
+        performTurn(engine, false);
+    }
+
+    // Plays one side's units; the player side is used for simulations and self-play
+    public void performTurn(GameEngine engine, boolean playerTeam) {
         List<Character> chars = engine.getAllCharacters();
         for (Character c : chars) {
-            if (!c.isPlayerTeam() && c.isAlive()) {
+            if (c.isPlayerTeam() == playerTeam && c.isAlive()) {
                 performAction(engine, c);
             }
         }
@@ -21,7 +26,7 @@ public final class AiEngine {
         if (target == null) return;
 
         // Try to attack first
-        if (isInRange(ai, target)) {
+        if (isInRange(engine, ai, target)) {
             engine.attackCharacter(ai, target, null); // Basic attack
             return;
         }
@@ -33,7 +38,7 @@ public final class AiEngine {
         engine.moveCharacter(ai, moveTarget);
         
         // Try to attack after move
-        if (isInRange(ai, target)) {
+        if (isInRange(engine, ai, target)) {
             engine.attackCharacter(ai, target, null);
         }
     }
@@ -43,7 +48,7 @@ public final class AiEngine {
         int minDist = Integer.MAX_VALUE;
         
         for (Character c : engine.getAllCharacters()) {
-            if (c.isPlayerTeam() && c.isAlive()) {
+            if (c.isPlayerTeam() != ai.isPlayerTeam() && c.isAlive()) {
                 int dist = getDistance(ai.getPosition(), c.getPosition());
                 if (dist < minDist) {
                     minDist = dist;
@@ -55,37 +60,27 @@ public final class AiEngine {
     }
 
     private Tile findMoveTarget(GameEngine engine, Character ai, Character target) {
-        // Simple logic: move to a tile that minimizes distance to target
-        // but is within movement range and not occupied
-        Tile bestTile = null;
+        // Simple logic: move to a reachable tile that minimizes distance to target,
+        // preferring the lowest x, then the lowest y, among equally close tiles
+        TileSet reachable = engine.getReachableTiles(ai);
+        int best = -1;
         int minDist = Integer.MAX_VALUE;
         
-        int startX = ai.getPosition().getX();
-        int startY = ai.getPosition().getY();
-        int range = ai.getSpeed();
-        
-        for (int x = startX - range; x <= startX + range; x++) {
-            for (int y = startY - range; y <= startY + range; y++) {
-                if (!engine.getBoard().isValid(x, y)) continue;
-                
-                Tile t = engine.getBoard().getTile(x, y);
-                if (t.isOccupied()) continue;
-
-                int distToTarget = getDistance(t, target.getPosition());
-                int distFromStart = Math.abs(x - startX) + Math.abs(y - startY);
-                
-                if (distFromStart > range) continue;
-                if (distToTarget >= minDist) continue;
-
+        for (int i = 0; i < reachable.size(); i++) {
+            int x = reachable.xAt(i);
+            int y = reachable.yAt(i);
+            int distToTarget = Math.abs(x - target.getPosition().getX()) + Math.abs(y - target.getPosition().getY());
+            if (distToTarget < minDist
+                    || (distToTarget == minDist && x < reachable.xAt(best))) {
                 minDist = distToTarget;
-                bestTile = t;
+                best = i;
             }
         }
-        return bestTile;
+        return best < 0 ? null : engine.getBoard().getTile(reachable.xAt(best), reachable.yAt(best));
     }
 
-    private boolean isInRange(Character attacker, Character target) {
-        return getDistance(attacker.getPosition(), target.getPosition()) <= attacker.getRange();
+    private boolean isInRange(GameEngine engine, Character attacker, Character target) {
+        return engine.getAttackTargets(attacker, null).contains(target.getPosition());
     }
 
     private int getDistance(Tile t1, Tile t2) {
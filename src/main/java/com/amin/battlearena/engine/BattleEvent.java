@@ -0,0 +1,73 @@
+package com.amin.battlearena.engine;
+
+import com.amin.battlearena.domain.Tile;
+import com.amin.battlearena.domain.character.Character;
+
+/**
+ * Something that happened in a battle, published by GameEngine after the state changed.
+ * MOVE, ATTACK, ITEM and END_TURN are the actions; DAMAGE and DEATH are their consequences.
+ */
+public final class BattleEvent {
+    public enum Type { MOVE, ATTACK, DAMAGE, DEATH, ITEM, END_TURN }
+
+    private final Type type;
+    private final Character actor;
+    private final Character target;
+    private final Tile from;
+    private final Tile to;
+    private final int amount;
+    private final String item;
+
+    private BattleEvent(Type type, Character actor, Character target, Tile from, Tile to, int amount, String item) {
+        this.type = type;
+        this.actor = actor;
+        this.target = target;
+        this.from = from;
+        this.to = to;
+        this.amount = amount;
+        this.item = item;
+    }
+
+    static BattleEvent move(Character unit, Tile from, Tile to) {
+        return new BattleEvent(Type.MOVE, unit, null, from, to, 0, null);
+    }
+
+    // abilityIndex is -1 for a basic attack
+    static BattleEvent attack(Character attacker, Character target, int abilityIndex) {
+        return new BattleEvent(Type.ATTACK, attacker, target, attacker.getPosition(), target.getPosition(),
+                abilityIndex, null);
+    }
+
+    static BattleEvent damage(Character attacker, Character target, int amount) {
+        return new BattleEvent(Type.DAMAGE, attacker, target, null, target.getPosition(), amount, null);
+    }
+
+    static BattleEvent death(Character unit, Tile where) {
+        return new BattleEvent(Type.DEATH, null, unit, null, where, 0, null);
+    }
+
+    static BattleEvent item(Character target, String itemName) {
+        return new BattleEvent(Type.ITEM, null, target, null, target.getPosition(), 0, itemName);
+    }
+
+    static BattleEvent endTurn(int turn) {
+        return new BattleEvent(Type.END_TURN, null, null, null, null, turn, null);
+    }
+
+    public Type getType() { return type; }
+    /** The unit acting: mover or attacker. */
+    public Character getActor() { return actor; }
+    /** The unit acted upon: attack, damage, death and item target. */
+    public Character getTarget() { return target; }
+    public Tile getFrom() { return from; }
+    public Tile getTo() { return to; }
+    /** Damage dealt, ability index of an attack (-1 = basic), or the new turn number. */
+    public int getAmount() { return amount; }
+    public String getItem() { return item; }
+
+    @Override
+    public String toString() {
+        return type + (actor != null ? " " + actor.getName() : "") + (target != null ? " -> " + target.getName() : "")
+                + (item != null ? " " + item : "") + " " + amount;
+    }
+}
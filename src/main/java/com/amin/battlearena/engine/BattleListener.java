@@ -0,0 +1,6 @@
+package com.amin.battlearena.engine;
+
+/** Receives every BattleEvent of the engine it is registered with, on the engine's thread. */
+public interface BattleListener {
+    void onBattleEvent(BattleEvent event);
+}
@@ -0,0 +1,157 @@
+package com.amin.battlearena.engine;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import com.amin.battlearena.domain.Board;
+import com.amin.battlearena.domain.ability.AbilityInterface;
+import com.amin.battlearena.domain.character.Character;
+import com.amin.battlearena.domain.character.CharacterFactory;
+import com.amin.battlearena.infra.Varints;
+
+/**
+ * Compact binary image of an in-progress battle. Units are written in tile order with
+ * delta-coded positions, and live stats are stored as varint deltas from their maximums,
+ * so a typical battle fits in well under a hundred bytes.
+ */
+public final class BattleSnapshot {
+    private static final int VERSION = 1;
+    private static final String[] TYPES = {"Warrior", "Archer", "Mage"};
+    private static final int PLAYER_TEAM_BIT = 0x80;
+
+    private BattleSnapshot() {}
+
+    public static byte[] encode(GameEngine engine) {
+        Board board = engine.getBoard();
+        int width = board.getWidth();
+
+        List<Character> units = new ArrayList<>();
+        for (Character c : engine.getAllCharacters()) {
+            if (c.isAlive()) units.add(c);
+        }
+        units.sort(Comparator.comparingInt(c -> tileIndex(c, width)));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(64 + units.size() * 16);
+        out.write(VERSION);
+        Varints.write(out, engine.getLevelId());
+        Varints.write(out, width);
+        Varints.write(out, board.getHeight());
+        Varints.write(out, engine.getTurnCount());
+        out.write(engine.isPlayerTurn() ? 1 : 0);
+        Varints.write(out, units.size());
+
+        int lastTile = 0;
+        for (Character c : units) {
+            int tile = tileIndex(c, width);
+            Varints.write(out, tile - lastTile);
+            lastTile = tile;
+
+            out.write(typeCode(c.getType()) | (c.isPlayerTeam() ? PLAYER_TEAM_BIT : 0));
+            Varints.write(out, c.getMaxHp());
+            Varints.write(out, c.getMaxMana());
+            Varints.write(out, c.getAttack());
+            Varints.write(out, c.getDefense());
+            Varints.write(out, c.getRange());
+            Varints.write(out, c.getSpeed());
+
+            // Live values relative to their usual level: zero for a fresh unit
+            Varints.writeSigned(out, c.getMaxHp() - c.getCurrentHp());
+            Varints.writeSigned(out, c.getMaxMana() - c.getCurrentMana());
+            Varints.writeSigned(out, c.getMovesLeft() - c.getSpeed());
+            Varints.writeSigned(out, c.getAttacksLeft() - 1);
+
+            List<AbilityInterface> abilities = c.getAbilities();
+            Varints.write(out, abilities.size());
+            for (AbilityInterface a : abilities) {
+                Varints.write(out, a.getCurrentCooldown());
+            }
+        }
+        return out.toByteArray();
+    }
+
+    /** CRC-32 of the encoded battle: equal on two engines exactly when their snapshots are. */
+    public static int checksum(GameEngine engine) {
+        CRC32 crc = new CRC32();
+        crc.update(encode(engine));
+        return (int) crc.getValue();
+    }
+
+    public static GameEngine decode(byte[] data) throws IOException {
+        try {
+            ByteBuffer in = ByteBuffer.wrap(data);
+            int version = in.get();
+            if (version != VERSION) {
+                throw new IOException("Unsupported battle snapshot version " + version);
+            }
+
+            int levelId = Varints.read(in);
+            int width = Varints.read(in);
+            int height = Varints.read(in);
+            int turnCount = Varints.read(in);
+            boolean isPlayerTurn = in.get() != 0;
+            int count = Varints.read(in);
+
+            Board board = new Board(width, height);
+            List<Character> units = new ArrayList<>(count);
+            int tile = 0;
+            for (int i = 0; i < count; i++) {
+                tile += Varints.read(in);
+                int flags = in.get() & 0xFF;
+                int typeCode = flags & ~PLAYER_TEAM_BIT;
+                if (typeCode >= TYPES.length) {
+                    throw new IOException("Unknown unit type " + typeCode);
+                }
+
+                int maxHp = Varints.read(in);
+                int maxMana = Varints.read(in);
+                int attack = Varints.read(in);
+                int defense = Varints.read(in);
+                int range = Varints.read(in);
+                int speed = Varints.read(in);
+                Character c = CharacterFactory.create(TYPES[typeCode], maxHp, maxMana, attack, defense, range, speed,
+                        (flags & PLAYER_TEAM_BIT) != 0);
+
+                c.setCurrentHp(maxHp - Varints.readSigned(in));
+                c.setCurrentMana(maxMana - Varints.readSigned(in));
+                c.setMovesLeft(speed + Varints.readSigned(in));
+                c.setAttacksLeft(1 + Varints.readSigned(in));
+
+                int abilityCount = Varints.read(in);
+                List<AbilityInterface> abilities = c.getAbilities();
+                for (int a = 0; a < abilityCount; a++) {
+                    int cooldown = Varints.read(in);
+                    if (a < abilities.size()) abilities.get(a).setCurrentCooldown(cooldown);
+                }
+
+                c.setPosition(board.getTile(tile % width, tile / width));
+                if (c.getPosition() == null) {
+                    throw new IOException("Unit outside the board at tile " + tile);
+                }
+                units.add(c);
+            }
+
+            GameEngine engine = new GameEngine();
+            engine.restore(levelId, board, units, turnCount, isPlayerTurn);
+            return engine;
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Truncated battle snapshot", e);
+        }
+    }
+
+    private static int tileIndex(Character c, int width) {
+        return c.getPosition().getY() * width + c.getPosition().getX();
+    }
+
+    private static int typeCode(String type) {
+        for (int i = 0; i < TYPES.length; i++) {
+            if (TYPES[i].equals(type)) return i;
+        }
+        throw new IllegalArgumentException("Unknown character type: " + type);
+    }
+}
@@ -1,19 +1,28 @@
 package com.amin.battlearena.engine;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
 
 import com.amin.battlearena.domain.Board;
 import com.amin.battlearena.domain.Tile;
 import com.amin.battlearena.domain.ability.AbilityInterface;
+import com.amin.battlearena.domain.account.Player;
 import com.amin.battlearena.domain.character.Character;
+import com.amin.battlearena.domain.consumable.ConsumableFactory;
 import com.amin.battlearena.domain.team.EnemyTeam;
 import com.amin.battlearena.domain.team.HumanTeam;
+import com.amin.battlearena.domain.team.RestoredTeam;
 import com.amin.battlearena.domain.team.Team;
 
 public final class GameEngine {
     private Board board;
+    private int levelId;
     private List<Character> allCharacters;
     private Team humanTeam;
     private Team enemyTeam;
@@ -21,6 +30,19 @@ public final class GameEngine {
     private boolean isPlayerTurn;
     private boolean isGameOver;
     private boolean playerWon;
+    // Drives spawn positions; two engines with the same seed and commands stay identical
+    private long seed;
+    // Copy-on-write: listeners may unregister themselves while being notified
+    private final List<BattleListener> listeners = new CopyOnWriteArrayList<>();
+    // Answers of the action queries per unit, dropped on every state change
+    private final Map<Character, UnitActions> actionCache = new IdentityHashMap<>();
+    private int[] scratch = new int[64];
+
+    private static final class UnitActions {
+        TileSet reachable;
+        // Index 0 is the basic attack, then one slot per ability
+        TileSet[] targets;
+    }
 
     public GameEngine() {
         this.allCharacters = new ArrayList<>();
@@ -30,27 +52,53 @@ public final class GameEngine {
     }
 
     public void initLevel(int levelId) {
+        initLevel(levelId, ThreadLocalRandom.current().nextLong());
+    }
+
+    public void initLevel(int levelId, long seed) {
+        init(levelId, seed, new HumanTeam(), new EnemyTeam(levelId));
+    }
+
+    /** A campaign level played with the given account rather than the logged-in one. */
+    public void initLevel(int levelId, Player player) {
+        init(levelId, ThreadLocalRandom.current().nextLong(), new HumanTeam(player, true), new EnemyTeam(levelId));
+    }
+
+    /** A PvP battle: the first account plays the player side, the second the enemy side. Level id 0. */
+    public void initMatch(Player first, Player second) {
+        initMatch(first, second, ThreadLocalRandom.current().nextLong());
+    }
+
+    public void initMatch(Player first, Player second, long seed) {
+        init(0, seed, new HumanTeam(first, true), new HumanTeam(second, false));
+    }
+
+    private void init(int levelId, long seed, Team human, Team enemy) {
         // Create board
         int width = 15;
         int height = 10;
         this.board = new Board(width, height);
+        this.levelId = levelId;
+        this.seed = seed;
         this.allCharacters.clear();
         this.turnCount = 1;
         this.isPlayerTurn = true;
         this.isGameOver = false;
+        actionCache.clear();
 
         // Create teams
-        humanTeam = new HumanTeam();
+        humanTeam = human;
         humanTeam.initialize();
         
-        enemyTeam = new EnemyTeam(levelId);
+        enemyTeam = enemy;
         enemyTeam.initialize();
 
+        Random rand = new Random(seed);
         // Spawn Human Team
-        spawnTeam(humanTeam, 1, 2);
+        spawnTeam(humanTeam, 1, 2, rand);
         
         // Spawn Enemy Team
-        spawnTeam(enemyTeam, width - 2, height / 2);
+        spawnTeam(enemyTeam, width - 2, height / 2, rand);
     }
 
     private void spawnCharacter(Character c, int x, int y) {
@@ -62,8 +110,7 @@ public final class GameEngine {
         }
     }
     
-    private void spawnTeam(Team team, int startX, int startY) {
-        Random rand = new Random();
+    private void spawnTeam(Team team, int startX, int startY, Random rand) {
         for (Character member : team.getMembers()) {
             int x = startX + rand.nextInt(3) - 1;
             int y = startY + rand.nextInt(3) - 1;
@@ -73,7 +120,44 @@ public final class GameEngine {
         }
     }
 
+    // Puts the engine back into a state decoded by BattleSnapshot
+    void restore(int levelId, Board board, List<Character> characters, int turnCount, boolean isPlayerTurn) {
+        this.board = board;
+        this.levelId = levelId;
+        this.allCharacters.clear();
+        this.turnCount = turnCount;
+        this.isPlayerTurn = isPlayerTurn;
+        this.isGameOver = false;
+        actionCache.clear();
+
+        List<Character> humans = new ArrayList<>();
+        List<Character> enemies = new ArrayList<>();
+        for (Character c : characters) {
+            board.getTile(c.getPosition().getX(), c.getPosition().getY()).setOccupant(c);
+            allCharacters.add(c);
+            if (c.isPlayerTeam()) humans.add(c);
+            else enemies.add(c);
+        }
+        humanTeam = new RestoredTeam(true, humans);
+        enemyTeam = new RestoredTeam(false, enemies);
+        checkGameOver();
+    }
+
+    /**
+     * For mirrors that write unit state straight into their characters (spectator views): sets
+     * turn and side without running end-of-turn effects, drops dead units and re-checks the end.
+     */
+    public void applySyncedState(int turnCount, boolean isPlayerTurn) {
+        this.turnCount = turnCount;
+        this.isPlayerTurn = isPlayerTurn;
+        allCharacters.removeIf(c -> !c.isAlive());
+        actionCache.clear();
+        checkGameOver();
+    }
+
     public Board getBoard() { return board; }
+    public int getLevelId() { return levelId; }
+    public long getSeed() { return seed; }
     public List<Character> getAllCharacters() { return allCharacters; }
     public Team getHumanTeam() { return humanTeam; }
     public Team getEnemyTeam() { return enemyTeam; }
@@ -82,39 +166,121 @@ public final class GameEngine {
     public boolean isGameOver() { return isGameOver; }
     public boolean didPlayerWin() { return playerWon; }
 
+    public void addListener(BattleListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(BattleListener listener) {
+        listeners.remove(listener);
+    }
+
+    private void publish(BattleEvent event) {
+        for (BattleListener listener : listeners) {
+            listener.onBattleEvent(event);
+        }
+    }
+
+    /**
+     * Empty tiles the unit may move to now: within its speed (Manhattan distance) while it has
+     * moves left. Cached until the next state change, so UI highlighting, the AI and the
+     * legality check in moveCharacter share one computation.
+     */
+    public TileSet getReachableTiles(Character c) {
+        UnitActions actions = actionsOf(c);
+        if (actions.reachable == null) {
+            int range = c.getMovesLeft() > 0 && c.getPosition() != null ? c.getSpeed() : -1;
+            actions.reachable = collect(c, range, false);
+        }
+        return actions.reachable;
+    }
+
+    /**
+     * Living enemy units the attacker may hit now with the ability (null for a basic attack):
+     * within range while it has attacks left and, for an ability, is ready with enough mana.
+     * Cached like getReachableTiles; this is also the legality check of attackCharacter.
+     */
+    public TileSet getAttackTargets(Character attacker, AbilityInterface ability) {
+        int slot = 0;
+        if (ability != null) {
+            slot = attacker.getAbilities().indexOf(ability) + 1;
+            if (slot == 0) return collect(attacker, -1, true);
+        }
+        UnitActions actions = actionsOf(attacker);
+        if (actions.targets == null) actions.targets = new TileSet[attacker.getAbilities().size() + 1];
+        if (actions.targets[slot] == null) {
+            int range = -1;
+            if (attacker.getAttacksLeft() > 0 && attacker.getPosition() != null) {
+                if (ability == null) {
+                    range = attacker.getRange();
+                } else if (ability.isReady() && attacker.getCurrentMana() >= ability.getManaCost()) {
+                    range = ability.getRange();
+                }
+            }
+            actions.targets[slot] = collect(attacker, range, true);
+        }
+        return actions.targets[slot];
+    }
+
+    private UnitActions actionsOf(Character c) {
+        return actionCache.computeIfAbsent(c, k -> new UnitActions());
+    }
+
+    // Tiles within Manhattan distance 1..range of the unit: empty ones, or living enemies.
+    // Only the range diamond clipped to the board is visited
+    private TileSet collect(Character unit, int range, boolean enemies) {
+        int width = board.getWidth();
+        int count = 0;
+        if (range > 0) {
+            int cx = unit.getPosition().getX();
+            int cy = unit.getPosition().getY();
+            for (int dx = Math.max(-range, -cx); dx <= Math.min(range, width - 1 - cx); dx++) {
+                int reach = range - Math.abs(dx);
+                for (int dy = Math.max(-reach, -cy); dy <= Math.min(reach, board.getHeight() - 1 - cy); dy++) {
+                    if (dx == 0 && dy == 0) continue;
+                    Character occupant = board.getTile(cx + dx, cy + dy).getOccupant();
+                    boolean match = enemies
+                            ? occupant != null && occupant.isAlive() && occupant.isPlayerTeam() != unit.isPlayerTeam()
+                            : occupant == null;
+                    if (!match) continue;
+                    if (count == scratch.length) scratch = Arrays.copyOf(scratch, count * 2);
+                    scratch[count++] = (cy + dy) * width + cx + dx;
+                }
+            }
+        }
+        return new TileSet(width, scratch, count);
+    }
+
     public boolean moveCharacter(Character c, Tile target) {
-        if (c.getMovesLeft() <= 0) return false;
-        if (target.isOccupied()) return false;
-        
-        // Simple distance check (Manhattan distance)
-        int dist = Math.abs(c.getPosition().getX() - target.getX()) +
-                    Math.abs(c.getPosition().getY() - target.getY());
-        
-        if (dist > c.getSpeed()) return false;
+        if (!getReachableTiles(c).contains(target)) return false;
 
-        c.getPosition().setOccupant(null);
+        Tile from = c.getPosition();
+        from.setOccupant(null);
         target.setOccupant(c);
         c.setPosition(target);
         c.useMove();
+        actionCache.clear();
+        publish(BattleEvent.move(c, from, target));
         return true;
     }
 
     public boolean attackCharacter(Character attacker, Character target, AbilityInterface ability) {
-        if (attacker.getAttacksLeft() <= 0) return false;
-        if (ability != null && !ability.isReady()) return false;
-        if (ability != null && attacker.getCurrentMana() < ability.getManaCost()) return false;
-
-        int range = (ability != null) ? ability.getRange() : attacker.getRange();
-        int dist = Math.abs(attacker.getPosition().getX() - target.getPosition().getX()) + 
-                   Math.abs(attacker.getPosition().getY() - target.getPosition().getY());
-
-        if (dist > range) return false;
+        if (!getAttackTargets(attacker, ability).contains(target.getPosition())) return false;
 
+        if (!listeners.isEmpty()) {
+            publish(BattleEvent.attack(attacker, target, ability != null ? attacker.getAbilities().indexOf(ability) : -1));
+        }
+        int hpBefore = target.getCurrentHp();
         performAttack(attacker, target, ability);
         attacker.useAttack();
+        actionCache.clear();
+        if (!listeners.isEmpty()) {
+            publish(BattleEvent.damage(attacker, target, hpBefore - target.getCurrentHp()));
+        }
         
         if (!target.isAlive()) {
-            target.getPosition().setOccupant(null);
+            Tile where = target.getPosition();
+            where.setOccupant(null);
+            publish(BattleEvent.death(target, where));
         }
         return true;
     }
@@ -130,6 +296,14 @@ public final class GameEngine {
         target.takeDamage(damage);
     }
 
+    public boolean useConsumable(Character target, String itemName) {
+        if (target == null || !target.isAlive()) return false;
+        ConsumableFactory.createItem(itemName).use(target);
+        actionCache.clear();
+        publish(BattleEvent.item(target, itemName));
+        return true;
+    }
+
     public void endTurn() {
         isPlayerTurn = !isPlayerTurn;
         if (isPlayerTurn) {
@@ -143,8 +317,10 @@ public final class GameEngine {
         
         // Clean up dead characters
         allCharacters.removeIf(c -> !c.isAlive());
+        actionCache.clear();
         
         checkGameOver();
+        publish(BattleEvent.endTurn(turnCount));
     }
 
     private void checkGameOver() {
@@ -0,0 +1,59 @@
+package com.amin.battlearena.engine;
+
+import java.util.Arrays;
+
+import com.amin.battlearena.domain.Tile;
+
+/**
+ * Immutable set of board tiles stored as sorted indices (y * width + x), as returned by the
+ * GameEngine action queries. Membership is a binary search over a handful of ints.
+ */
+public final class TileSet {
+    private final int width;
+    private final int[] indices;
+
+    TileSet(int width, int[] indices, int count) {
+        this.width = width;
+        this.indices = Arrays.copyOf(indices, count);
+        Arrays.sort(this.indices);
+    }
+
+    public int size() {
+        return indices.length;
+    }
+
+    public boolean isEmpty() {
+        return indices.length == 0;
+    }
+
+    public boolean contains(int x, int y) {
+        return x >= 0 && x < width && Arrays.binarySearch(indices, y * width + x) >= 0;
+    }
+
+    public boolean contains(Tile tile) {
+        return tile != null && contains(tile.getX(), tile.getY());
+    }
+
+    /** The i-th tile index, in ascending order. */
+    public int indexAt(int i) {
+        return indices[i];
+    }
+
+    public int xAt(int i) {
+        return indices[i] % width;
+    }
+
+    public int yAt(int i) {
+        return indices[i] / width;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < indices.length; i++) {
+            if (i > 0) sb.append(", ");
+            sb.append('(').append(xAt(i)).append(',').append(yAt(i)).append(')');
+        }
+        return sb.append(']').toString();
+    }
+}
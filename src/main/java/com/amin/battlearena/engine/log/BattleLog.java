@@ -0,0 +1,212 @@
+package com.amin.battlearena.engine.log;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.amin.battlearena.domain.ability.AbilityInterface;
+import com.amin.battlearena.domain.character.Character;
+import com.amin.battlearena.engine.BattleEvent;
+import com.amin.battlearena.engine.GameEngine;
+
+/**
+ * The battle log: a fixed-capacity ring of LogEntry, so appending costs the same after ten lines
+ * or ten million and the oldest entries simply fall off. Safe to append on one thread while
+ * another exports.
+ */
+public final class BattleLog {
+    // Entries kept per battle, overridable with -Dbattlearena.logCapacity=...
+    public static final int DEFAULT_CAPACITY = Integer.getInteger("battlearena.logCapacity", 5000);
+
+    private static final int EXPORT_BUFFER = 64 * 1024;
+    private static final ExecutorService EXPORTER = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "battle-log-export");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final LogEntry[] ring;
+    private int head;
+    private int size;
+    private long nextSequence;
+
+    public BattleLog() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public BattleLog(int capacity) {
+        if (capacity < 1) throw new IllegalArgumentException("Log capacity must be positive");
+        this.ring = new LogEntry[capacity];
+    }
+
+    public synchronized LogEntry append(int turn, LogEntry.Action action, String actor, String target,
+            int amount, String detail) {
+        LogEntry entry = new LogEntry(nextSequence++, turn, action, actor, target, amount, detail);
+        if (size == ring.length) {
+            ring[head] = entry;
+            head = (head + 1) % ring.length;
+        } else {
+            ring[(head + size) % ring.length] = entry;
+            size++;
+        }
+        return entry;
+    }
+
+    public LogEntry info(int turn, String message) {
+        return append(turn, LogEntry.Action.INFO, null, null, 0, message);
+    }
+
+    /** Logs an engine event; returns null for events that are not worth a line. */
+    public LogEntry record(BattleEvent event, GameEngine engine) {
+        int turn = engine.getTurnCount();
+        switch (event.getType()) {
+            case MOVE:
+                return append(turn, LogEntry.Action.MOVE, event.getActor().getName(), null, 0,
+                        "(" + event.getTo().getX() + "," + event.getTo().getY() + ")");
+            case ATTACK:
+                return append(turn, LogEntry.Action.ATTACK, event.getActor().getName(), event.getTarget().getName(),
+                        0, abilityName(event.getActor(), event.getAmount()));
+            case DAMAGE:
+                return append(turn, LogEntry.Action.DAMAGE, event.getActor().getName(), event.getTarget().getName(),
+                        event.getAmount(), null);
+            case DEATH:
+                return append(turn, LogEntry.Action.DEATH, null, event.getTarget().getName(), 0, null);
+            case ITEM:
+                return append(turn, LogEntry.Action.ITEM, null, event.getTarget().getName(), 0, event.getItem());
+            case END_TURN:
+                if (engine.isGameOver()) return null;
+                return append(turn, LogEntry.Action.TURN, null, null, 0, engine.isPlayerTurn() ? "Player" : "CPU");
+            default:
+                return null;
+        }
+    }
+
+    private static String abilityName(Character attacker, int abilityIndex) {
+        if (abilityIndex < 0) return null;
+        AbilityInterface ability = attacker.getAbilities().get(abilityIndex);
+        return ability.getName();
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return ring.length;
+    }
+
+    /** The i-th retained entry, oldest first. */
+    public synchronized LogEntry get(int index) {
+        if (index < 0 || index >= size) throw new IndexOutOfBoundsException("Index " + index + ", size " + size);
+        return ring[(head + index) % ring.length];
+    }
+
+    /** Entries ever appended, including those already dropped. */
+    public synchronized long getTotal() {
+        return nextSequence;
+    }
+
+    public synchronized void clear() {
+        for (int i = 0; i < size; i++) ring[(head + i) % ring.length] = null;
+        head = 0;
+        size = 0;
+    }
+
+    private synchronized LogEntry[] snapshot() {
+        LogEntry[] copy = new LogEntry[size];
+        int firstRun = Math.min(size, ring.length - head);
+        System.arraycopy(ring, head, copy, 0, firstRun);
+        System.arraycopy(ring, 0, copy, firstRun, size - firstRun);
+        return copy;
+    }
+
+    /**
+     * Writes the retained entries to a tab-separated file on the export thread. The lock is only
+     * held to copy the entry references; lines are encoded into one reused buffer that is written
+     * through a FileChannel whenever it fills, and the file replaces the target atomically.
+     */
+    public CompletableFuture<Integer> exportAsync(Path file) {
+        LogEntry[] entries = snapshot();
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                export(entries, file);
+                return entries.length;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, EXPORTER);
+    }
+
+    public int export(Path file) throws IOException {
+        LogEntry[] entries = snapshot();
+        export(entries, file);
+        return entries.length;
+    }
+
+    private static void export(LogEntry[] entries, Path file) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) Files.createDirectories(parent);
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+        ByteBuffer out = ByteBuffer.allocateDirect(EXPORT_BUFFER);
+        StringBuilder line = new StringBuilder(128);
+
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            line.append("sequence\tturn\taction\tactor\ttarget\tamount\tdetail\n");
+            encode(encoder, line, out, channel);
+            for (LogEntry e : entries) {
+                line.setLength(0);
+                line.append(e.getSequence()).append('\t').append(e.getTurn()).append('\t').append(e.getAction())
+                        .append('\t');
+                field(line, e.getActor()).append('\t');
+                field(line, e.getTarget()).append('\t').append(e.getAmount()).append('\t');
+                field(line, e.getDetail()).append('\n');
+                encode(encoder, line, out, channel);
+            }
+            out.flip();
+            while (out.hasRemaining()) channel.write(out);
+            channel.force(false);
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // Tabs and line breaks inside a field would break the columns
+    private static StringBuilder field(StringBuilder line, String value) {
+        if (value == null) return line;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            line.append(c == '\t' || c == '\n' || c == '\r' ? ' ' : c);
+        }
+        return line;
+    }
+
+    private static void encode(CharsetEncoder encoder, CharSequence line, ByteBuffer out, FileChannel channel)
+            throws IOException {
+        CharBuffer chars = CharBuffer.wrap(line);
+        while (true) {
+            CoderResult result = encoder.encode(chars, out, true);
+            if (result.isOverflow()) {
+                out.flip();
+                while (out.hasRemaining()) channel.write(out);
+                out.clear();
+            } else {
+                if (result.isError()) result.throwException();
+                break;
+            }
+        }
+        encoder.reset();
+    }
+}
@@ -0,0 +1,62 @@
+package com.amin.battlearena.engine.log;
+
+/**
+ * One battle log line as data: the text is only formatted when a visible row or an export asks
+ * for it, so recording an entry is a handful of field stores.
+ */
+public final class LogEntry {
+    public enum Action { INFO, MOVE, ATTACK, DAMAGE, DEATH, ITEM, TURN }
+
+    private final long sequence;
+    private final int turn;
+    private final Action action;
+    private final String actor;
+    private final String target;
+    private final int amount;
+    private final String detail;
+
+    LogEntry(long sequence, int turn, Action action, String actor, String target, int amount, String detail) {
+        this.sequence = sequence;
+        this.turn = turn;
+        this.action = action;
+        this.actor = actor;
+        this.target = target;
+        this.amount = amount;
+        this.detail = detail;
+    }
+
+    /** Position in the session, counting entries the ring buffer has already dropped. */
+    public long getSequence() { return sequence; }
+    public int getTurn() { return turn; }
+    public Action getAction() { return action; }
+    public String getActor() { return actor; }
+    public String getTarget() { return target; }
+    /** Damage dealt; 0 for actions without an amount. */
+    public int getAmount() { return amount; }
+    /** Message, ability, item, destination or side, depending on the action. */
+    public String getDetail() { return detail; }
+
+    public String getMessage() {
+        switch (action) {
+            case MOVE:
+                return actor + " moved to " + detail;
+            case ATTACK:
+                return actor + " attacked " + target + (detail != null ? " with " + detail : "");
+            case DAMAGE:
+                return target + " took " + amount + " damage";
+            case DEATH:
+                return target + " was defeated";
+            case ITEM:
+                return detail + " used on " + target;
+            case TURN:
+                return detail + " turn";
+            default:
+                return detail;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "[T" + turn + "] " + getMessage();
+    }
+}
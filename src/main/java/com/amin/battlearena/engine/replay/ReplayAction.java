@@ -0,0 +1,118 @@
+package com.amin.battlearena.engine.replay;
+
+import com.amin.battlearena.domain.Board;
+import com.amin.battlearena.domain.Tile;
+import com.amin.battlearena.domain.ability.AbilityInterface;
+import com.amin.battlearena.domain.character.Character;
+import com.amin.battlearena.engine.BattleEvent;
+import com.amin.battlearena.engine.GameEngine;
+
+/**
+ * One recorded player or CPU action. Units are identified by the tile they stand on when the
+ * action starts, which is unique and needs no id table in the file.
+ */
+public final class ReplayAction {
+    public enum Type { MOVE, ATTACK, ITEM, END_TURN }
+
+    private final Type type;
+    private final int fromTile;
+    private final int toTile;
+    private final int ability;
+    private final String item;
+
+    ReplayAction(Type type, int fromTile, int toTile, int ability, String item) {
+        this.type = type;
+        this.fromTile = fromTile;
+        this.toTile = toTile;
+        this.ability = ability;
+        this.item = item;
+    }
+
+    // Tile indices are y * width + x, as everywhere in this package
+    public static ReplayAction move(int fromTile, int toTile) {
+        return new ReplayAction(Type.MOVE, fromTile, toTile, -1, null);
+    }
+
+    public static ReplayAction attack(int fromTile, int toTile, int ability) {
+        return new ReplayAction(Type.ATTACK, fromTile, toTile, ability, null);
+    }
+
+    public static ReplayAction item(int tile, String item) {
+        return new ReplayAction(Type.ITEM, tile, tile, -1, item);
+    }
+
+    public static ReplayAction endTurn() {
+        return new ReplayAction(Type.END_TURN, 0, 0, -1, null);
+    }
+
+    /** The action behind an engine event; null for DAMAGE and DEATH, which follow from actions. */
+    public static ReplayAction from(BattleEvent event, int width) {
+        switch (event.getType()) {
+            case MOVE:
+                return new ReplayAction(Type.MOVE, ReplayFormat.tileIndex(event.getFrom(), width),
+                        ReplayFormat.tileIndex(event.getTo(), width), -1, null);
+            case ATTACK:
+                return new ReplayAction(Type.ATTACK, ReplayFormat.tileIndex(event.getFrom(), width),
+                        ReplayFormat.tileIndex(event.getTo(), width), event.getAmount(), null);
+            case ITEM:
+                int tile = ReplayFormat.tileIndex(event.getTo(), width);
+                return new ReplayAction(Type.ITEM, tile, tile, -1, event.getItem());
+            case END_TURN:
+                return new ReplayAction(Type.END_TURN, 0, 0, -1, null);
+            default:
+                return null;
+        }
+    }
+
+    public Type getType() { return type; }
+    /** Tile index (y * width + x) of the acting unit; the item target for ITEM. */
+    public int getFromTile() { return fromTile; }
+    /** Destination tile for MOVE, target's tile for ATTACK. */
+    public int getToTile() { return toTile; }
+    /** Ability index for ATTACK, -1 for a basic attack. */
+    public int getAbility() { return ability; }
+    public String getItem() { return item; }
+
+    /** Replays the action on an engine that is in the recorded state; false if it does not apply. */
+    public boolean apply(GameEngine engine) {
+        Board board = engine.getBoard();
+        Character unit = occupant(board, fromTile);
+        switch (type) {
+            case MOVE:
+                Tile to = tile(board, toTile);
+                return unit != null && to != null && engine.moveCharacter(unit, to);
+            case ATTACK:
+                Character target = occupant(board, toTile);
+                if (unit == null || target == null) return false;
+                AbilityInterface a = ability >= 0 && ability < unit.getAbilities().size()
+                        ? unit.getAbilities().get(ability) : null;
+                return engine.attackCharacter(unit, target, a);
+            case ITEM:
+                return engine.useConsumable(unit, item);
+            case END_TURN:
+                engine.endTurn();
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private static Tile tile(Board board, int index) {
+        return board.getTile(index % board.getWidth(), index / board.getWidth());
+    }
+
+    private static Character occupant(Board board, int index) {
+        Tile t = tile(board, index);
+        return t != null ? t.getOccupant() : null;
+    }
+
+    @Override
+    public String toString() {
+        switch (type) {
+            case MOVE: return "MOVE " + fromTile + " -> " + toTile;
+            case ATTACK: return "ATTACK " + fromTile + " -> " + toTile + (ability >= 0 ? " ability " + ability : "");
+            case ITEM: return "ITEM " + item + " on " + fromTile;
+            default: return "END_TURN";
+        }
+    }
+}
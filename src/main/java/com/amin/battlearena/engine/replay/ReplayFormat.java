@@ -0,0 +1,43 @@
+package com.amin.battlearena.engine.replay;
+
+import java.util.TreeSet;
+
+import com.amin.battlearena.domain.Tile;
+import com.amin.battlearena.domain.consumable.ConsumableFactory;
+
+/**
+ * Replay file layout shared by the recorder and the reader.
+ *
+ * File: int magic "BARP", byte version, then one block per turn until EOF.
+ * Block header: varint turn, byte side the block starts on (1 = player), varint compressed
+ * length, varint raw length.
+ * Block body (raw deflate on its own, so any block can be read without its predecessors):
+ * varint keyframe length, BattleSnapshot keyframe, then actions. Each action is an opcode byte
+ * and zigzag tile deltas: the actor relative to the previous action's unit, the destination or
+ * target relative to the actor. A turn's END_TURN actions close each side's half of it.
+ */
+final class ReplayFormat {
+    static final int MAGIC = 0x42415250; // "BARP"
+    static final int VERSION = 1;
+
+    static final int OP_MOVE = 0;
+    static final int OP_ATTACK = 1;
+    static final int OP_ITEM = 2;
+    static final int OP_END_TURN = 3;
+
+    // Items by index in name order, fixed for a given VERSION
+    static final String[] ITEMS = new TreeSet<>(ConsumableFactory.getItemNames()).toArray(new String[0]);
+
+    private ReplayFormat() {}
+
+    static int tileIndex(Tile t, int width) {
+        return t.getY() * width + t.getX();
+    }
+
+    static int itemCode(String name) {
+        for (int i = 0; i < ITEMS.length; i++) {
+            if (ITEMS[i].equals(name)) return i;
+        }
+        throw new IllegalArgumentException("Unknown item: " + name);
+    }
+}
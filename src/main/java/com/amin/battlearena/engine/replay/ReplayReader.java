@@ -0,0 +1,192 @@
+package com.amin.battlearena.engine.replay;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+import com.amin.battlearena.engine.BattleSnapshot;
+import com.amin.battlearena.engine.GameEngine;
+import com.amin.battlearena.infra.Varints;
+
+/**
+ * Forward-only streaming reader for replay files. Only the current block is held in memory,
+ * and seeking skips whole blocks by their header without inflating them.
+ */
+public final class ReplayReader implements Closeable {
+    private final DataInputStream in;
+    private final Inflater inflater = new Inflater(true);
+    private byte[] compressed = new byte[512];
+    private byte[] raw = new byte[1024];
+    private ByteBuffer body;
+    private byte[] keyframe;
+    private int width;
+    private int turn;
+    private boolean playerSide;
+    private int lastTile;
+
+    public ReplayReader(InputStream source) throws IOException {
+        this.in = new DataInputStream(new BufferedInputStream(source));
+        try {
+            if (in.readInt() != ReplayFormat.MAGIC) throw new IOException("Not a replay file");
+        } catch (EOFException e) {
+            throw new IOException("Not a replay file", e);
+        }
+        int version = in.readUnsignedByte();
+        if (version != ReplayFormat.VERSION) throw new IOException("Unsupported replay version " + version);
+    }
+
+    public ReplayReader(Path file) throws IOException {
+        this(Files.newInputStream(file));
+    }
+
+    /** Turn number of the current block. */
+    public int getTurn() { return turn; }
+
+    /** Whether the current block starts on the player's side (false only for resumed battles). */
+    public boolean isPlayerSide() { return playerSide; }
+
+    /** Moves to the next block; false at the end of the file. */
+    public boolean nextBlock() throws IOException {
+        if (!readHeader()) return false;
+        readBody();
+        return true;
+    }
+
+    /**
+     * Skips forward to the first block of the given turn (or the next one recorded) and returns
+     * its keyframe, ready for the block's actions; null if the replay ends before that.
+     */
+    public GameEngine seek(int targetTurn) throws IOException {
+        while (true) {
+            if (!readHeader()) return null;
+            if (turn >= targetTurn) {
+                readBody();
+                return keyframe();
+            }
+            int compressedLength = Varints.read(in);
+            Varints.read(in);
+            in.skipNBytes(compressedLength);
+        }
+    }
+
+    /** The state at the start of the current block. */
+    public GameEngine keyframe() throws IOException {
+        if (keyframe == null) throw new IllegalStateException("No current block");
+        return BattleSnapshot.decode(keyframe);
+    }
+
+    /** Next action of the current block, or null once the block is exhausted. */
+    public ReplayAction nextAction() throws IOException {
+        if (body == null || !body.hasRemaining()) return null;
+        try {
+            int op = body.get();
+            switch (op) {
+                case ReplayFormat.OP_MOVE:
+                case ReplayFormat.OP_ATTACK: {
+                    int from = lastTile + Varints.readSigned(body);
+                    int to = from + Varints.readSigned(body);
+                    if (op == ReplayFormat.OP_MOVE) {
+                        lastTile = to;
+                        return new ReplayAction(ReplayAction.Type.MOVE, from, to, -1, null);
+                    }
+                    lastTile = from;
+                    return new ReplayAction(ReplayAction.Type.ATTACK, from, to, Varints.read(body) - 1, null);
+                }
+                case ReplayFormat.OP_ITEM: {
+                    int tile = lastTile + Varints.readSigned(body);
+                    int item = Varints.read(body);
+                    if (item >= ReplayFormat.ITEMS.length) throw new IOException("Unknown item code " + item);
+                    lastTile = tile;
+                    return new ReplayAction(ReplayAction.Type.ITEM, tile, tile, -1, ReplayFormat.ITEMS[item]);
+                }
+                case ReplayFormat.OP_END_TURN:
+                    return new ReplayAction(ReplayAction.Type.END_TURN, 0, 0, -1, null);
+                default:
+                    throw new IOException("Unknown replay opcode " + op);
+            }
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Truncated replay block at turn " + turn, e);
+        }
+    }
+
+    /** Next action of the whole replay, crossing block boundaries; null at the end of the file. */
+    public ReplayAction next() throws IOException {
+        ReplayAction action = nextAction();
+        while (action == null) {
+            if (!nextBlock()) return null;
+            action = nextAction();
+        }
+        return action;
+    }
+
+    /** Board width of the current block, for turning tile indexes back into coordinates. */
+    public int getWidth() { return width; }
+
+    @Override
+    public void close() throws IOException {
+        inflater.end();
+        in.close();
+    }
+
+    private boolean readHeader() throws IOException {
+        // A clean end of file may only fall between blocks
+        in.mark(1);
+        if (in.read() < 0) return false;
+        in.reset();
+        turn = Varints.read(in);
+        int side = in.read();
+        if (side < 0) throw new EOFException("Truncated replay block header");
+        playerSide = side == 1;
+        return true;
+    }
+
+    private void readBody() throws IOException {
+        int compressedLength = Varints.read(in);
+        int rawLength = Varints.read(in);
+        if (compressed.length < compressedLength) compressed = new byte[compressedLength];
+        if (raw.length < rawLength) raw = new byte[rawLength];
+        in.readFully(compressed, 0, compressedLength);
+
+        inflater.reset();
+        inflater.setInput(compressed, 0, compressedLength);
+        try {
+            if (inflater.inflate(raw, 0, rawLength) != rawLength || !inflater.finished()) {
+                throw new IOException("Corrupt replay block at turn " + turn);
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt replay block at turn " + turn, e);
+        }
+
+        body = ByteBuffer.wrap(raw, 0, rawLength);
+        try {
+            int keyframeLength = Varints.read(body);
+            keyframe = Arrays.copyOfRange(raw, body.position(), body.position() + keyframeLength);
+            body.position(body.position() + keyframeLength);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+            throw new IOException("Corrupt replay block at turn " + turn, e);
+        }
+        width = keyframeWidth(keyframe);
+        lastTile = 0;
+    }
+
+    private static int keyframeWidth(byte[] keyframe) throws IOException {
+        ByteBuffer b = ByteBuffer.wrap(keyframe);
+        try {
+            b.get(); // version
+            Varints.read(b); // level
+            return Varints.read(b);
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Truncated keyframe", e);
+        }
+    }
+}
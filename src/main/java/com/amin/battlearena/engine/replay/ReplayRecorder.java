@@ -0,0 +1,221 @@
+package com.amin.battlearena.engine.replay;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.Deflater;
+
+import com.amin.battlearena.engine.BattleEvent;
+import com.amin.battlearena.engine.BattleListener;
+import com.amin.battlearena.engine.BattleSnapshot;
+import com.amin.battlearena.engine.GameEngine;
+import com.amin.battlearena.infra.Varints;
+
+/**
+ * Records a battle's action stream as it is played. Each turn becomes one block: a keyframe
+ * of the state at its start plus the delta-coded actions, deflated independently. The game
+ * thread only collects a turn's bytes; deflating and writing happen on a background writer.
+ * A recording failure stops the recording, never the battle.
+ */
+public final class ReplayRecorder implements BattleListener, Closeable {
+    // Where battles are archived, overridable with -Dbattlearena.replayDir=...
+    private static final String REPLAY_DIR = System.getProperty("battlearena.replayDir", "replays");
+    private static final DateTimeFormatter STAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+    // One thread for every recorder, so each recorder's blocks reach its file in order
+    private static final ExecutorService WRITER = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "replay-writer");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final GameEngine engine;
+    private final int width;
+    private final ByteArrayOutputStream block = new ByteArrayOutputStream(512);
+    // Touched only by the writer once the header is written
+    private final DataOutputStream out;
+    private final Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION, true);
+    private final byte[] deflateBuffer = new byte[4096];
+    private final ByteArrayOutputStream compressed = new ByteArrayOutputStream(512);
+    // Set by the writer when a block could not be written; the next event stops the recording
+    private volatile Exception failure;
+    private int blockTurn;
+    private boolean blockPlayerSide;
+    private int lastTile;
+    private boolean closed;
+
+    public ReplayRecorder(GameEngine engine, OutputStream target) throws IOException {
+        this.engine = engine;
+        this.width = engine.getBoard().getWidth();
+        this.out = new DataOutputStream(new BufferedOutputStream(target));
+        out.writeInt(ReplayFormat.MAGIC);
+        out.writeByte(ReplayFormat.VERSION);
+        startBlock();
+        engine.addListener(this);
+    }
+
+    /** Starts archiving the battle under the replay directory; null if that is not possible. */
+    public static ReplayRecorder forBattle(GameEngine engine, String nickname) {
+        try {
+            Path dir = Paths.get(REPLAY_DIR);
+            Files.createDirectories(dir);
+            String name = nickname.replaceAll("[^A-Za-z0-9_-]", "_") + "_L" + engine.getLevelId() + "_"
+                    + LocalDateTime.now().format(STAMP) + ".rpl";
+            return new ReplayRecorder(engine, Files.newOutputStream(dir.resolve(name)));
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    @Override
+    public void onBattleEvent(BattleEvent event) {
+        if (closed) return;
+        if (failure != null) {
+            failure.printStackTrace();
+            abandon();
+            return;
+        }
+        try {
+            switch (event.getType()) {
+                case MOVE:
+                    action(ReplayFormat.OP_MOVE, ReplayFormat.tileIndex(event.getFrom(), width),
+                            ReplayFormat.tileIndex(event.getTo(), width));
+                    break;
+                case ATTACK:
+                    action(ReplayFormat.OP_ATTACK, ReplayFormat.tileIndex(event.getFrom(), width),
+                            ReplayFormat.tileIndex(event.getTo(), width));
+                    Varints.write(block, event.getAmount() + 1);
+                    break;
+                case ITEM:
+                    int tile = ReplayFormat.tileIndex(event.getTo(), width);
+                    block.write(ReplayFormat.OP_ITEM);
+                    Varints.writeSigned(block, tile - lastTile);
+                    Varints.write(block, ReplayFormat.itemCode(event.getItem()));
+                    lastTile = tile;
+                    break;
+                case END_TURN:
+                    block.write(ReplayFormat.OP_END_TURN);
+                    // A new turn starts when play returns to the player's side
+                    if (engine.isPlayerTurn()) {
+                        writeBlock();
+                        startBlock();
+                    }
+                    break;
+                default:
+                    // DAMAGE and DEATH follow from the actions on replay
+                    break;
+            }
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+            abandon();
+        }
+    }
+
+    private void action(int op, int from, int to) {
+        block.write(op);
+        Varints.writeSigned(block, from - lastTile);
+        Varints.writeSigned(block, to - from);
+        // The acting unit ends up on 'to' after a move, and stays on 'from' after an attack
+        lastTile = op == ReplayFormat.OP_MOVE ? to : from;
+    }
+
+    private void startBlock() {
+        block.reset();
+        blockTurn = engine.getTurnCount();
+        blockPlayerSide = engine.isPlayerTurn();
+        lastTile = 0;
+        byte[] keyframe = BattleSnapshot.encode(engine);
+        Varints.write(block, keyframe.length);
+        block.write(keyframe, 0, keyframe.length);
+    }
+
+    // Hands the finished block to the writer; the game thread never deflates or touches the file
+    private void writeBlock() {
+        byte[] raw = block.toByteArray();
+        int turn = blockTurn;
+        boolean playerSide = blockPlayerSide;
+        WRITER.execute(() -> {
+            if (failure != null) return;
+            try {
+                deflateAndWrite(raw, turn, playerSide);
+            } catch (IOException | RuntimeException e) {
+                failure = e;
+            }
+        });
+    }
+
+    private void deflateAndWrite(byte[] raw, int turn, boolean playerSide) throws IOException {
+        deflater.reset();
+        deflater.setInput(raw);
+        deflater.finish();
+        compressed.reset();
+        while (!deflater.finished()) {
+            int n = deflater.deflate(deflateBuffer);
+            compressed.write(deflateBuffer, 0, n);
+        }
+
+        ByteArrayOutputStream header = new ByteArrayOutputStream(16);
+        Varints.write(header, turn);
+        header.write(playerSide ? 1 : 0);
+        Varints.write(header, compressed.size());
+        Varints.write(header, raw.length);
+        header.writeTo(out);
+        compressed.writeTo(out);
+    }
+
+    /**
+     * Writes the unfinished last block and closes the file. Waits for the writer, so the file
+     * is complete on return; that is one block's work, once per battle.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) return;
+        closed = true;
+        engine.removeListener(this);
+        // A block with no actions only repeats the final state; keep it so the outcome is visible
+        writeBlock();
+        Future<?> done = WRITER.submit(() -> {
+            release();
+            return null;
+        });
+        try {
+            done.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while finishing the replay", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Cannot close the replay", e.getCause());
+        }
+        if (failure != null) throw new IOException("Replay could not be written", failure);
+    }
+
+    private void abandon() {
+        closed = true;
+        engine.removeListener(this);
+        WRITER.execute(() -> {
+            try {
+                release();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        });
+    }
+
+    // Writer thread, after every block this recorder queued
+    private void release() throws IOException {
+        deflater.end();
+        out.close();
+    }
+}
@@ -0,0 +1,32 @@
+package com.amin.battlearena.engine.replay;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.amin.battlearena.engine.AiEngine;
+import com.amin.battlearena.engine.BattleSnapshot;
+import com.amin.battlearena.engine.GameEngine;
+
+/**
+ * Runs an AI turn at full speed on a private copy of the battle and returns the actions it took,
+ * so they can be applied to the live engine one by one at whatever pace the UI wants. The copy
+ * comes from a BattleSnapshot, which is all state the AI and the actions depend on, so the plan
+ * replays exactly; ReplayAction.apply() returning false would mean the two have drifted apart.
+ */
+public final class TurnPlanner {
+    private TurnPlanner() {}
+
+    /** Plans on a snapshot taken with BattleSnapshot.encode(); safe to call off the FX thread. */
+    public static List<ReplayAction> plan(byte[] snapshot, AiEngine ai, boolean playerTeam) throws IOException {
+        GameEngine copy = BattleSnapshot.decode(snapshot);
+        int width = copy.getBoard().getWidth();
+        List<ReplayAction> actions = new ArrayList<>();
+        copy.addListener(event -> {
+            ReplayAction action = ReplayAction.from(event, width);
+            if (action != null) actions.add(action);
+        });
+        ai.performTurn(copy, playerTeam);
+        return actions;
+    }
+}
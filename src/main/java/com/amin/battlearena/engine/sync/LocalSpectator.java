@@ -0,0 +1,30 @@
+package com.amin.battlearena.engine.sync;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+import com.amin.battlearena.engine.GameEngine;
+
+/** An in-process follower: applies each frame to its own mirror and acknowledges it at once. */
+public final class LocalSpectator implements SpectatorHub.Follower {
+    private final StateDecoder decoder = new StateDecoder();
+
+    @Override
+    public int getAckedVersion() {
+        return decoder.getVersion();
+    }
+
+    @Override
+    public void send(byte[] frame) {
+        try {
+            decoder.apply(frame);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** The mirror; a board view can render it like a local battle. */
+    public GameEngine getEngine() {
+        return decoder.getEngine();
+    }
+}
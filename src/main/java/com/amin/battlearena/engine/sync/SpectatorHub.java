@@ -0,0 +1,81 @@
+package com.amin.battlearena.engine.sync;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import com.amin.battlearena.engine.BattleEvent;
+import com.amin.battlearena.engine.BattleListener;
+import com.amin.battlearena.engine.GameEngine;
+
+/**
+ * Fans one battle out to any number of followers. After every engine event that changed state
+ * it captures a new version and hands each follower the frame for the version it acknowledged;
+ * followers at the same version, normally nearly all of them, share a single encoded frame.
+ * Runs on the engine's thread; followers must not block it.
+ */
+public final class SpectatorHub implements BattleListener {
+    /** A spectator view, local or behind a connection. */
+    public interface Follower {
+        /** The last version it applied, -1 for none yet. */
+        int getAckedVersion();
+
+        void send(byte[] frame);
+    }
+
+    private final GameEngine engine;
+    private final StateEncoder encoder;
+    private final List<Follower> followers = new CopyOnWriteArrayList<>();
+    private long framesSent;
+    private long bytesSent;
+
+    public SpectatorHub(GameEngine engine) {
+        this.engine = engine;
+        this.encoder = new StateEncoder(engine);
+        engine.addListener(this);
+    }
+
+    public void detach() {
+        engine.removeListener(this);
+    }
+
+    /** Adds a follower and brings it up to date right away. */
+    public void add(Follower follower) {
+        followers.add(follower);
+        sendTo(follower);
+    }
+
+    public void remove(Follower follower) {
+        followers.remove(follower);
+    }
+
+    public int size() {
+        return followers.size();
+    }
+
+    public StateEncoder getEncoder() {
+        return encoder;
+    }
+
+    public long getFramesSent() { return framesSent; }
+    public long getBytesSent() { return bytesSent; }
+
+    @Override
+    public void onBattleEvent(BattleEvent event) {
+        // ATTACK is published before the damage is dealt; DAMAGE right after carries the result
+        if (event.getType() == BattleEvent.Type.ATTACK) return;
+        if (encoder.capture()) publish();
+    }
+
+    /** Sends every follower that is behind the frame it needs, e.g. to retry unacknowledged ones. */
+    public void publish() {
+        for (Follower follower : followers) sendTo(follower);
+    }
+
+    private void sendTo(Follower follower) {
+        byte[] frame = encoder.encodeFor(follower.getAckedVersion());
+        if (frame == null) return;
+        framesSent++;
+        bytesSent += frame.length;
+        follower.send(frame);
+    }
+}
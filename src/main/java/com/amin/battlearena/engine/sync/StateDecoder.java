@@ -0,0 +1,133 @@
+package com.amin.battlearena.engine.sync;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+
+import com.amin.battlearena.domain.Board;
+import com.amin.battlearena.domain.Tile;
+import com.amin.battlearena.domain.character.Character;
+import com.amin.battlearena.engine.BattleSnapshot;
+import com.amin.battlearena.engine.GameEngine;
+import com.amin.battlearena.infra.Varints;
+
+/**
+ * The follower side of StateEncoder: keeps a mirror GameEngine and applies keyframes and deltas
+ * to it. Acknowledge getVersion() after each frame; a delta from any other base is refused,
+ * since it would leave the mirror half updated.
+ */
+public final class StateDecoder {
+    private GameEngine engine;
+    private Character[] byId = new Character[0];
+    private int version = -1;
+
+    /** The last version applied, -1 before the first keyframe. */
+    public int getVersion() {
+        return version;
+    }
+
+    /** The mirror, null before the first keyframe. */
+    public GameEngine getEngine() {
+        return engine;
+    }
+
+    public void apply(byte[] frame) throws IOException {
+        try {
+            ByteBuffer in = ByteBuffer.wrap(frame);
+            int kind = in.get();
+            if (kind == StateEncoder.KEYFRAME) {
+                applyKeyframe(in);
+            } else if (kind == StateEncoder.DELTA) {
+                applyDelta(in);
+            } else {
+                throw new IOException("Unknown sync frame " + kind);
+            }
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new IOException("Corrupt sync frame", e);
+        }
+    }
+
+    private void applyKeyframe(ByteBuffer in) throws IOException {
+        int frameVersion = Varints.read(in);
+        int count = Varints.read(in);
+        int[] ids = new int[count];
+        int maxId = -1;
+        for (int i = 0; i < count; i++) {
+            ids[i] = Varints.read(in);
+            maxId = Math.max(maxId, ids[i]);
+        }
+        byte[] snapshot = Arrays.copyOfRange(in.array(), in.position(), in.limit());
+        GameEngine decoded = BattleSnapshot.decode(snapshot);
+        List<Character> units = decoded.getAllCharacters();
+        if (units.size() != count) throw new IOException("Keyframe lists " + count + " units, snapshot has " + units.size());
+
+        Character[] mapped = new Character[maxId + 1];
+        for (int i = 0; i < count; i++) mapped[ids[i]] = units.get(i);
+        engine = decoded;
+        byId = mapped;
+        version = frameVersion;
+    }
+
+    private void applyDelta(ByteBuffer in) throws IOException {
+        int base = Varints.read(in);
+        if (engine == null || base != version) {
+            throw new IOException("Delta from version " + base + " but the mirror is at " + version);
+        }
+        int frameVersion = Varints.read(in);
+        int turn = Varints.read(in);
+        boolean playerTurn = in.get() != 0;
+        int count = Varints.read(in);
+        Board board = engine.getBoard();
+
+        for (int i = 0; i < count; i++) {
+            int id = Varints.read(in);
+            int mask = in.get() & 0xFF;
+            // Died before this follower's keyframe was cut: never seen, only its death can arrive
+            Character c = id < byId.length ? byId[id] : null;
+            if ((mask & StateEncoder.TILE) != 0) {
+                int tile = Varints.read(in);
+                if (c != null) moveTo(c, board.getTile(tile % board.getWidth(), tile / board.getWidth()));
+            }
+            if ((mask & StateEncoder.HP) != 0) {
+                int hp = Varints.read(in);
+                if (c != null) c.setCurrentHp(hp);
+            }
+            if ((mask & StateEncoder.MANA) != 0) {
+                int mana = Varints.readSigned(in);
+                if (c != null) c.setCurrentMana(mana);
+            }
+            if ((mask & StateEncoder.ACTIONS) != 0) {
+                int moves = Varints.readSigned(in);
+                int attacks = Varints.readSigned(in);
+                if (c != null) {
+                    c.setMovesLeft(moves);
+                    c.setAttacksLeft(attacks);
+                }
+            }
+            if ((mask & StateEncoder.COOLDOWNS) != 0) {
+                int n = Varints.read(in);
+                for (int a = 0; a < n; a++) {
+                    int cooldown = Varints.read(in);
+                    if (c != null && a < c.getAbilities().size()) c.getAbilities().get(a).setCurrentCooldown(cooldown);
+                }
+            }
+            if ((mask & StateEncoder.DEATH) != 0 && c != null) {
+                Tile where = c.getPosition();
+                if (where != null && where.getOccupant() == c) where.setOccupant(null);
+            }
+        }
+        engine.applySyncedState(turn, playerTurn);
+        version = frameVersion;
+    }
+
+    // Another unit may already have moved onto the old tile in the same delta
+    private static void moveTo(Character c, Tile to) throws IOException {
+        if (to == null) throw new IOException("Unit moved off the board");
+        Tile from = c.getPosition();
+        if (from != null && from.getOccupant() == c) from.setOccupant(null);
+        to.setOccupant(c);
+        c.setPosition(to);
+    }
+}
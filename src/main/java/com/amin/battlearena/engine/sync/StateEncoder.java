@@ -0,0 +1,208 @@
+package com.amin.battlearena.engine.sync;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.amin.battlearena.domain.ability.AbilityInterface;
+import com.amin.battlearena.domain.character.Character;
+import com.amin.battlearena.engine.BattleSnapshot;
+import com.amin.battlearena.engine.GameEngine;
+import com.amin.battlearena.infra.Varints;
+
+/**
+ * Versioned change tracking over a GameEngine. capture() compares every unit with what it saw
+ * last and stamps each changed field with a new version; encodeFor(acked) then writes only the
+ * fields stamped after the follower's acknowledged version, however far back that is. Followers
+ * with no version, or one older than the current keyframe, get a keyframe instead; a keyframe is
+ * cut every KEYFRAME_INTERVAL versions so no follower ever replays a long history. Frames are
+ * cached per base version, so followers that acknowledged the same version share one encoding.
+ * Use on the engine's thread.
+ *
+ * Keyframe: byte KEYFRAME, varint version, varint unit count, varint unit id per unit in
+ * snapshot order, then a BattleSnapshot.
+ * Delta: byte DELTA, varint base version, varint version, varint turn, byte player turn, varint
+ * unit count, then per unit varint id, byte field mask and the masked fields in bit order:
+ * tile, hp, mana, moves and attacks left (zigzag varints), ability cooldowns (varint count,
+ * varints); DEATH has no payload and comes with nothing but HP.
+ */
+public final class StateEncoder {
+    // Versions between keyframes, overridable with -Dbattlearena.keyframeInterval=...
+    public static final int KEYFRAME_INTERVAL = Math.max(1, Integer.getInteger("battlearena.keyframeInterval", 64));
+
+    static final int KEYFRAME = 0;
+    static final int DELTA = 1;
+
+    static final int TILE = 1;
+    static final int HP = 1 << 1;
+    static final int MANA = 1 << 2;
+    static final int ACTIONS = 1 << 3;
+    static final int COOLDOWNS = 1 << 4;
+    static final int DEATH = 1 << 5;
+    // Field slots of the per-unit arrays, in mask bit order
+    private static final int FIELDS = 6;
+
+    private final GameEngine engine;
+    private final int width;
+    // Unit id is the index here; units are never removed, the dead just stop changing
+    private final List<Character> units;
+    private final Map<Character, Integer> ids = new IdentityHashMap<>();
+    private final int[][] seen;
+    private final int[][] stamps;
+    private int version;
+    private int seenTurn;
+    private boolean seenPlayerTurn;
+    private int keyframeVersion;
+    private byte[] keyframe;
+    private final Map<Integer, byte[]> deltas = new HashMap<>();
+    private long encodes;
+
+    public StateEncoder(GameEngine engine) {
+        this.engine = engine;
+        this.width = engine.getBoard().getWidth();
+        this.units = new ArrayList<>(engine.getAllCharacters());
+        seen = new int[units.size()][];
+        stamps = new int[units.size()][FIELDS];
+        for (int id = 0; id < units.size(); id++) {
+            ids.put(units.get(id), id);
+            seen[id] = read(units.get(id));
+        }
+        seenTurn = engine.getTurnCount();
+        seenPlayerTurn = engine.isPlayerTurn();
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    /** Frames actually encoded; the rest of the frames handed out came from the cache. */
+    public long getEncodes() {
+        return encodes;
+    }
+
+    /** Picks up changes since the last capture; returns true if that made a new version. */
+    public boolean capture() {
+        int next = version + 1;
+        boolean changed = false;
+        for (int id = 0; id < units.size(); id++) {
+            int[] now = read(units.get(id));
+            int[] before = seen[id];
+            if (Arrays.equals(now, before)) continue;
+            if (now[0] != before[0]) stamps[id][0] = next;
+            if (now[1] != before[1]) stamps[id][1] = next;
+            if (now[2] != before[2]) stamps[id][2] = next;
+            if (now[3] != before[3] || now[4] != before[4]) stamps[id][3] = next;
+            if (!Arrays.equals(now, 6, now.length, before, 6, before.length)) stamps[id][4] = next;
+            if (now[5] != before[5]) stamps[id][5] = next;
+            seen[id] = now;
+            changed = true;
+        }
+        if (engine.getTurnCount() != seenTurn || engine.isPlayerTurn() != seenPlayerTurn) {
+            seenTurn = engine.getTurnCount();
+            seenPlayerTurn = engine.isPlayerTurn();
+            changed = true;
+        }
+        if (!changed) return false;
+
+        version = next;
+        deltas.clear();
+        if (version - keyframeVersion >= KEYFRAME_INTERVAL) {
+            keyframeVersion = version;
+            keyframe = null;
+        }
+        return true;
+    }
+
+    /** The frame that brings a follower at ackedVersion (-1 for a new one) up to date; null if it is. */
+    public byte[] encodeFor(int ackedVersion) {
+        if (ackedVersion == version) return null;
+        if (ackedVersion < keyframeVersion || ackedVersion > version) {
+            if (keyframe == null) keyframe = encodeKeyframe();
+            return keyframe;
+        }
+        return deltas.computeIfAbsent(ackedVersion, this::encodeDelta);
+    }
+
+    // tile, hp, mana, moves left, attacks left, alive, then one slot per ability cooldown
+    private int[] read(Character c) {
+        List<AbilityInterface> abilities = c.getAbilities();
+        int[] state = new int[6 + abilities.size()];
+        state[0] = c.getPosition().getY() * width + c.getPosition().getX();
+        state[1] = c.getCurrentHp();
+        state[2] = c.getCurrentMana();
+        state[3] = c.getMovesLeft();
+        state[4] = c.getAttacksLeft();
+        state[5] = c.isAlive() ? 1 : 0;
+        for (int i = 0; i < abilities.size(); i++) state[6 + i] = abilities.get(i).getCurrentCooldown();
+        return state;
+    }
+
+    private byte[] encodeKeyframe() {
+        encodes++;
+        List<Character> alive = new ArrayList<>();
+        for (Character c : units) {
+            if (c.isAlive()) alive.add(c);
+        }
+        // The order BattleSnapshot writes and decodes units in
+        alive.sort(Comparator.comparingInt(c -> c.getPosition().getY() * width + c.getPosition().getX()));
+        byte[] snapshot = BattleSnapshot.encode(engine);
+
+        ByteBuffer out = ByteBuffer.allocate(16 + alive.size() * 5 + snapshot.length);
+        out.put((byte) KEYFRAME);
+        Varints.write(out, version);
+        Varints.write(out, alive.size());
+        for (Character c : alive) Varints.write(out, ids.get(c));
+        out.put(snapshot);
+        return Arrays.copyOf(out.array(), out.position());
+    }
+
+    private byte[] encodeDelta(int base) {
+        encodes++;
+        int[] masks = new int[units.size()];
+        int count = 0;
+        int capacity = 32;
+        for (int id = 0; id < units.size(); id++) {
+            for (int f = 0; f < FIELDS; f++) {
+                if (stamps[id][f] > base) masks[id] |= 1 << f;
+            }
+            // A unit that died needs nothing but its last hp
+            if (masks[id] != 0 && seen[id][5] == 0) masks[id] = DEATH | HP;
+            if (masks[id] != 0) {
+                count++;
+                capacity += 5 * (1 + seen[id].length) + 1;
+            }
+        }
+
+        ByteBuffer out = ByteBuffer.allocate(capacity);
+        out.put((byte) DELTA);
+        Varints.write(out, base);
+        Varints.write(out, version);
+        Varints.write(out, seenTurn);
+        out.put((byte) (seenPlayerTurn ? 1 : 0));
+        Varints.write(out, count);
+        for (int id = 0; id < units.size(); id++) {
+            int mask = masks[id];
+            if (mask == 0) continue;
+            int[] s = seen[id];
+            Varints.write(out, id);
+            out.put((byte) mask);
+            if ((mask & TILE) != 0) Varints.write(out, s[0]);
+            if ((mask & HP) != 0) Varints.write(out, s[1]);
+            if ((mask & MANA) != 0) Varints.writeSigned(out, s[2]);
+            if ((mask & ACTIONS) != 0) {
+                Varints.writeSigned(out, s[3]);
+                Varints.writeSigned(out, s[4]);
+            }
+            if ((mask & COOLDOWNS) != 0) {
+                Varints.write(out, s.length - 6);
+                for (int i = 6; i < s.length; i++) Varints.write(out, s[i]);
+            }
+        }
+        return Arrays.copyOf(out.array(), out.position());
+    }
+}
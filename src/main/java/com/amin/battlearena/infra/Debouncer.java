@@ -0,0 +1,85 @@
+package com.amin.battlearena.infra;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Runs a task on an executor once triggers have been quiet for a while, but never later than
+ * a maximum delay after the first trigger of a burst. Triggering is lock-free and cheap enough
+ * to call on every change.
+ */
+public final class Debouncer {
+    private final ScheduledExecutorService executor;
+    private final Runnable task;
+    private final long quietNanos;
+    private final long maxDelayNanos;
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private volatile long firstTrigger;
+    private volatile long lastTrigger;
+
+    public Debouncer(ScheduledExecutorService executor, Runnable task, long quietMs, long maxDelayMs) {
+        if (quietMs < 0 || maxDelayMs < quietMs) {
+            throw new IllegalArgumentException("Need 0 <= quiet <= max delay");
+        }
+        this.executor = executor;
+        this.task = task;
+        this.quietNanos = TimeUnit.MILLISECONDS.toNanos(quietMs);
+        this.maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(maxDelayMs);
+    }
+
+    public void trigger() {
+        long now = System.nanoTime();
+        lastTrigger = now;
+        if (scheduled.compareAndSet(false, true)) {
+            firstTrigger = now;
+            schedule(quietNanos);
+        }
+    }
+
+    /** Runs the task as soon as the executor is free; the future completes when it has run. */
+    public CompletableFuture<Void> runNow() {
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                try {
+                    task.run();
+                    done.complete(null);
+                } catch (RuntimeException e) {
+                    done.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            done.completeExceptionally(e);
+        }
+        return done;
+    }
+
+    private void fire() {
+        // Later triggers push the run back instead of rescheduling on every call
+        long deadline = Math.min(lastTrigger + quietNanos, firstTrigger + maxDelayNanos);
+        long remaining = deadline - System.nanoTime();
+        if (remaining > 0) {
+            schedule(remaining);
+            return;
+        }
+        scheduled.set(false);
+        try {
+            task.run();
+        } catch (RuntimeException e) {
+            // Nobody waits on a debounced run; the task reschedules itself if it needs a retry
+            e.printStackTrace();
+        }
+    }
+
+    private void schedule(long delayNanos) {
+        try {
+            executor.schedule(this::fire, delayNanos, TimeUnit.NANOSECONDS);
+        } catch (RejectedExecutionException e) {
+            // Executor shut down; whoever stopped it is responsible for a final run
+            scheduled.set(false);
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.amin.battlearena.infra;
+
+/**
+ * Implemented by controllers whose screen SceneManager may keep loaded and show again. Such a
+ * controller can be created by a preload on a background thread, so initialize() should only
+ * set up what never changes; everything that depends on the current account or on an earlier
+ * visit belongs in onShow().
+ */
+public interface ReusableScene {
+    /** Runs on the FX thread every time the screen is shown, the first time included. */
+    void onShow();
+
+    /** Runs on the FX thread when another screen replaces this one. */
+    default void onHide() {}
+}
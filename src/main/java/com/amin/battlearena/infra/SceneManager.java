@@ -2,15 +2,66 @@ package com.amin.battlearena.infra;
 
 import java.io.IOException;
 import java.net.URL;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.amin.battlearena.domain.account.AccountRepository;
 
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.stage.Stage;
 
+/**
+ * Switches the stage between FXML screens. Screens whose controller implements ReusableScene
+ * are kept loaded in a small LRU cache and shown again by swapping the root of one shared Scene,
+ * and the screens usually opened next are parsed on a background thread ahead of time, so menu
+ * navigation does not re-parse FXML. Other screens (the battle) are loaded fresh every time.
+ * Use on the FX thread.
+ */
 public final class SceneManager {
+    // Reusable screens kept loaded, overridable with -Dbattlearena.sceneCache=...
+    private static final int CACHE_SIZE = Math.max(1, Integer.getInteger("battlearena.sceneCache", 4));
+    // Reusable screens that usually follow each screen; the battle is never preloaded
+    private static final Map<String, List<String>> LIKELY_NEXT = Map.of(
+            "/uifx/signin.fxml", List.of("/uifx/main_menu.fxml"),
+            "/uifx/main_menu.fxml", List.of("/uifx/campaign.fxml", "/uifx/shop.fxml", "/uifx/help.fxml"),
+            "/uifx/campaign.fxml", List.of("/uifx/main_menu.fxml"),
+            "/uifx/shop.fxml", List.of("/uifx/main_menu.fxml"),
+            "/uifx/help.fxml", List.of("/uifx/main_menu.fxml"),
+            "/uifx/game.fxml", List.of("/uifx/campaign.fxml", "/uifx/main_menu.fxml"));
+
     private static SceneManager instance;
     private Stage stage;
+    private Scene scene;
+    private String currentPath;
+    private Object currentController;
+
+    // Access-ordered, so the first entry is the least recently shown screen
+    private final LinkedHashMap<String, LoadedScreen> cache = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, Future<LoadedScreen>> preloads = new HashMap<>();
+    private final ExecutorService preloader = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "scene-preloader");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private static final class LoadedScreen {
+        final Parent root;
+        final Object controller;
+
+        LoadedScreen(Parent root, Object controller) {
+            this.root = root;
+            this.controller = controller;
+        }
+    }
 
     private SceneManager() {}
 
@@ -26,20 +77,85 @@ public final class SceneManager {
     }
 
     public void switchScene(String fxmlPath) {
+        // Flush barrier: whatever the old scene saved is written in the background, never on this thread
+        AccountRepository.getInstance().flushAsync();
         try {
-            URL resource = getClass().getResource(fxmlPath);
-            if (resource == null) {
+            LoadedScreen next = obtain(fxmlPath);
+            if (next == null) {
                 System.out.println("Resource not found: " + fxmlPath);
                 return;
             }
-            FXMLLoader loader = new FXMLLoader(resource);
-            Parent root = loader.load();
-            Scene scene = new Scene(root);
-            stage.setScene(scene);
+            if (currentController instanceof ReusableScene) {
+                ((ReusableScene) currentController).onHide();
+            }
+            if (next.controller instanceof ReusableScene) {
+                cache.put(fxmlPath, next);
+            }
+            if (scene == null) {
+                scene = new Scene(next.root);
+                stage.setScene(scene);
+            } else {
+                scene.setRoot(next.root);
+            }
+            currentPath = fxmlPath;
+            currentController = next.controller;
+            evict();
+            if (next.controller instanceof ReusableScene) {
+                ((ReusableScene) next.controller).onShow();
+            }
             stage.setFullScreen(true);
             stage.show();
+            preload(LIKELY_NEXT.getOrDefault(fxmlPath, List.of()));
         } catch (IOException e) {
             e.printStackTrace();
         }
     }
+
+    private LoadedScreen obtain(String fxmlPath) throws IOException {
+        LoadedScreen cached = cache.get(fxmlPath);
+        if (cached != null) return cached;
+        Future<LoadedScreen> pending = preloads.remove(fxmlPath);
+        if (pending != null) {
+            try {
+                LoadedScreen loaded = pending.get();
+                if (loaded != null) return loaded;
+            } catch (ExecutionException e) {
+                // Some controls insist on the FX thread, so a failed preload is retried here
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return load(fxmlPath);
+    }
+
+    private LoadedScreen load(String fxmlPath) throws IOException {
+        URL resource = getClass().getResource(fxmlPath);
+        if (resource == null) return null;
+        FXMLLoader loader = new FXMLLoader(resource);
+        Parent root = loader.load();
+        return new LoadedScreen(root, loader.getController());
+    }
+
+    // Keeps preloads for the screens likely from here and drops the rest, so they cannot pile up
+    private void preload(List<String> paths) {
+        for (Iterator<Map.Entry<String, Future<LoadedScreen>>> it = preloads.entrySet().iterator(); it.hasNext();) {
+            Map.Entry<String, Future<LoadedScreen>> entry = it.next();
+            if (!paths.contains(entry.getKey())) {
+                entry.getValue().cancel(false);
+                it.remove();
+            }
+        }
+        for (String path : paths) {
+            if (cache.containsKey(path) || preloads.containsKey(path)) continue;
+            preloads.put(path, preloader.submit(() -> load(path)));
+        }
+    }
+
+    private void evict() {
+        Iterator<Map.Entry<String, LoadedScreen>> it = cache.entrySet().iterator();
+        while (cache.size() > CACHE_SIZE && it.hasNext()) {
+            Map.Entry<String, LoadedScreen> eldest = it.next();
+            if (!eldest.getKey().equals(currentPath)) it.remove();
+        }
+    }
 }
@@ -0,0 +1,61 @@
+package com.amin.battlearena.matchmaking;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.amin.battlearena.domain.account.Player;
+
+/** One player waiting in a Matchmaker; the opponent future completes when a match is found. */
+public final class MatchTicket {
+    static final int WAITING = 0;
+    // Held by the sweeper while it looks for an opponent for this ticket
+    static final int CLAIMING = 1;
+    static final int MATCHED = 2;
+    static final int CANCELLED = 3;
+
+    private final Player player;
+    private final int rating;
+    private final int power;
+    final int ratingBucket;
+    final int powerBucket;
+    private final long enqueuedAt;
+    private volatile long matchedAt;
+    final AtomicInteger state = new AtomicInteger(WAITING);
+    private final CompletableFuture<MatchTicket> opponent = new CompletableFuture<>();
+
+    MatchTicket(Player player, int rating, int power, int ratingBucket, int powerBucket, long enqueuedAt) {
+        this.player = player;
+        this.rating = rating;
+        this.power = power;
+        this.ratingBucket = ratingBucket;
+        this.powerBucket = powerBucket;
+        this.enqueuedAt = enqueuedAt;
+    }
+
+    public Player getPlayer() { return player; }
+    public int getRating() { return rating; }
+    public int getPower() { return power; }
+    /** System.nanoTime() when the ticket was queued. */
+    public long getEnqueuedAt() { return enqueuedAt; }
+    /** System.nanoTime() when it was matched, 0 before. */
+    public long getMatchedAt() { return matchedAt; }
+
+    public CompletableFuture<MatchTicket> getOpponent() {
+        return opponent;
+    }
+
+    boolean isWaiting() {
+        return state.get() == WAITING;
+    }
+
+    // Stale entries the queues drop when they reach the head
+    boolean isDone() {
+        int s = state.get();
+        return s == MATCHED || s == CANCELLED;
+    }
+
+    void complete(MatchTicket other, long now) {
+        matchedAt = now;
+        opponent.complete(other);
+    }
+}
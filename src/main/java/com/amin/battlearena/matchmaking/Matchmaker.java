@@ -0,0 +1,219 @@
+package com.amin.battlearena.matchmaking;
+
+import java.io.Closeable;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.amin.battlearena.domain.account.Player;
+
+/**
+ * Pairs waiting players by rating (from victories) and upgrade power (total upgrade levels),
+ * for PvP battles and async challenges alike. Tickets wait in a fixed grid of buckets, RATING_BUCKET
+ * rating points by POWER_BUCKET upgrade levels, each a lock-free FIFO queue. A new ticket takes
+ * the oldest waiting ticket of its own bucket if there is one, so a busy queue matches on the
+ * caller's thread in a few queue operations however many players are waiting. Tickets left
+ * waiting are revisited by a sweeper that widens their search by one ring of neighbouring
+ * buckets every WIDEN_MS, up to MAX_RING, so players at the edges of the population still get a
+ * game. Tickets claim each other with a CAS on their state; nothing here takes a lock.
+ *
+ * The opponent futures complete on the enqueuing thread or the sweeper, so their callbacks
+ * should hand real work elsewhere.
+ */
+public final class Matchmaker implements Closeable {
+    // Bucket sizes, overridable with -Dbattlearena.mmRatingBucket=... and -Dbattlearena.mmPowerBucket=...
+    public static final int RATING_BUCKET = Math.max(1, Integer.getInteger("battlearena.mmRatingBucket", 50));
+    public static final int POWER_BUCKET = Math.max(1, Integer.getInteger("battlearena.mmPowerBucket", 3));
+    // Wait per extra ring of buckets and the widest ring, overridable with -Dbattlearena.mmWidenMs=...
+    // and -Dbattlearena.mmMaxRing=...
+    public static final long WIDEN_MS = Math.max(1L, Long.getLong("battlearena.mmWidenMs", 1000L));
+    public static final int MAX_RING = Integer.getInteger("battlearena.mmMaxRing", 6);
+    // Sweeper period, overridable with -Dbattlearena.mmSweepMs=...
+    private static final long SWEEP_MS = Math.max(1L, Long.getLong("battlearena.mmSweepMs", 50L));
+
+    private static final int BASE_RATING = 1000;
+    private static final int RATING_PER_VICTORY = 10;
+    // Everything past the last bucket shares it
+    private static final int RATING_BUCKETS = 64;
+    private static final int POWER_BUCKETS = 32;
+
+    private final Queue<MatchTicket>[][] queues;
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final LongAdder matches = new LongAdder();
+    private final LongAdder enqueues = new LongAdder();
+    private final LongAdder enqueueNanos = new LongAdder();
+    private final ScheduledExecutorService sweeper;
+    private long sweeps;
+    private long sweepNanos;
+
+    public Matchmaker() {
+        // Generic arrays can only be made raw; every slot is filled with a typed queue below
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        Queue<MatchTicket>[][] grid = new Queue[RATING_BUCKETS][POWER_BUCKETS];
+        queues = grid;
+        for (int r = 0; r < RATING_BUCKETS; r++) {
+            for (int p = 0; p < POWER_BUCKETS; p++) queues[r][p] = new ConcurrentLinkedQueue<>();
+        }
+        sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "matchmaker-sweeper");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    public void start() {
+        sweeper.scheduleWithFixedDelay(this::sweep, SWEEP_MS, SWEEP_MS, TimeUnit.MILLISECONDS);
+    }
+
+    public static int ratingOf(Player p) {
+        return BASE_RATING + RATING_PER_VICTORY * p.getVictories();
+    }
+
+    public static int powerOf(Player p) {
+        int power = 0;
+        for (int i = 0; i < p.getUpgradeCount(); i++) power += p.getUpgradeLevel(i);
+        return power;
+    }
+
+    /** Queues a player; the ticket's opponent future may already be complete on return. */
+    public MatchTicket enqueue(Player player) {
+        long start = System.nanoTime();
+        int rating = ratingOf(player);
+        int power = powerOf(player);
+        MatchTicket ticket = new MatchTicket(player, rating, power,
+                bucket((rating - BASE_RATING) / RATING_BUCKET, RATING_BUCKETS),
+                bucket(power / POWER_BUCKET, POWER_BUCKETS), start);
+
+        Queue<MatchTicket> queue = queues[ticket.ratingBucket][ticket.powerBucket];
+        MatchTicket other = take(queue, null);
+        if (other != null) {
+            ticket.state.set(MatchTicket.MATCHED);
+            waiting.decrementAndGet();
+            pair(other, ticket, System.nanoTime());
+        } else {
+            // Two tickets racing into an empty bucket both land here; the next sweep pairs them
+            waiting.incrementAndGet();
+            queue.add(ticket);
+        }
+        enqueues.increment();
+        enqueueNanos.add(System.nanoTime() - start);
+        return ticket;
+    }
+
+    /** Takes a waiting ticket out of the queue; false if it was matched first. */
+    public boolean cancel(MatchTicket ticket) {
+        while (true) {
+            if (ticket.state.compareAndSet(MatchTicket.WAITING, MatchTicket.CANCELLED)) {
+                queues[ticket.ratingBucket][ticket.powerBucket].remove(ticket);
+                waiting.decrementAndGet();
+                ticket.getOpponent().cancel(false);
+                return true;
+            }
+            if (ticket.isDone()) return false;
+            // The sweeper holds it for a moment while it searches
+            Thread.onSpinWait();
+        }
+    }
+
+    public int getWaiting() { return waiting.get(); }
+    public long getMatches() { return matches.sum(); }
+    public long getEnqueues() { return enqueues.sum(); }
+    /** Time spent inside enqueue(), matching included. */
+    public long getEnqueueNanos() { return enqueueNanos.sum(); }
+    public synchronized long getSweeps() { return sweeps; }
+    public synchronized long getSweepNanos() { return sweepNanos; }
+
+    private void sweep() {
+        try {
+            long start = System.nanoTime();
+            for (Queue<MatchTicket>[] row : queues) {
+                for (Queue<MatchTicket> queue : row) {
+                    if (!queue.isEmpty()) sweep(queue, start);
+                }
+            }
+            synchronized (this) {
+                sweeps++;
+                sweepNanos += System.nanoTime() - start;
+            }
+        } catch (RuntimeException e) {
+            // An exception would cancel every later sweep
+            e.printStackTrace();
+        }
+    }
+
+    // Matches the bucket's oldest tickets while they find opponents within their current ring
+    private void sweep(Queue<MatchTicket> queue, long now) {
+        while (true) {
+            MatchTicket head = queue.peek();
+            if (head == null) return;
+            if (head.isDone()) {
+                queue.remove(head);
+                continue;
+            }
+            if (!head.state.compareAndSet(MatchTicket.WAITING, MatchTicket.CLAIMING)) continue;
+
+            int ring = (int) Math.min(MAX_RING, TimeUnit.NANOSECONDS.toMillis(now - head.getEnqueuedAt()) / WIDEN_MS);
+            MatchTicket other = search(head, ring);
+            if (other == null) {
+                // The oldest ticket has the widest ring: nobody behind it can match either
+                head.state.set(MatchTicket.WAITING);
+                return;
+            }
+            head.state.set(MatchTicket.MATCHED);
+            queue.remove(head);
+            waiting.addAndGet(-2);
+            pair(head, other, System.nanoTime());
+        }
+    }
+
+    // Nearest buckets first: ring d holds the buckets d steps away in rating, power or both
+    private MatchTicket search(MatchTicket ticket, int ring) {
+        for (int d = 0; d <= ring; d++) {
+            for (int r = ticket.ratingBucket - d; r <= ticket.ratingBucket + d; r++) {
+                if (r < 0 || r >= RATING_BUCKETS) continue;
+                boolean edge = Math.abs(r - ticket.ratingBucket) == d;
+                for (int p = ticket.powerBucket - d; p <= ticket.powerBucket + d; p += edge ? 1 : 2 * d) {
+                    if (p < 0 || p >= POWER_BUCKETS) continue;
+                    MatchTicket other = take(queues[r][p], ticket);
+                    if (other != null) return other;
+                }
+            }
+        }
+        return null;
+    }
+
+    // Claims the oldest waiting ticket of a queue other than self, dropping stale entries on the way
+    private static MatchTicket take(Queue<MatchTicket> queue, MatchTicket self) {
+        for (Iterator<MatchTicket> it = queue.iterator(); it.hasNext();) {
+            MatchTicket t = it.next();
+            if (t == self) continue;
+            if (t.isDone()) {
+                it.remove();
+            } else if (t.state.compareAndSet(MatchTicket.WAITING, MatchTicket.MATCHED)) {
+                it.remove();
+                return t;
+            }
+        }
+        return null;
+    }
+
+    private void pair(MatchTicket a, MatchTicket b, long now) {
+        matches.increment();
+        a.complete(b, now);
+        b.complete(a, now);
+    }
+
+    private static int bucket(int index, int count) {
+        return Math.max(0, Math.min(count - 1, index));
+    }
+
+    @Override
+    public void close() {
+        sweeper.shutdownNow();
+    }
+}
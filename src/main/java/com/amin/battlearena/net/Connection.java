@@ -0,0 +1,213 @@
+package com.amin.battlearena.net;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+
+import com.amin.battlearena.engine.replay.ReplayAction;
+
+/**
+ * One client socket of the PvP server, owned by a single selector loop. Inbound bytes are cut
+ * into frames and handed to the match; outbound frames collect in one buffer that the loop
+ * writes once per select round, so a broadcast to both players costs one write each. A client
+ * that lets more than MAX_OUTBOUND bytes pile up is disconnected rather than buffered for.
+ */
+final class Connection {
+    // Clients only ever send HELLO and COMMAND, both tiny
+    private static final int MAX_INBOUND = 256;
+    // Unsent bytes a client may fall behind by, overridable with -Dbattlearena.pvpMaxOutbound=...
+    // Must hold at least one MATCH_START frame.
+    private static final int MAX_OUTBOUND = Math.max(Protocol.HEADER + Protocol.MAX_FRAME,
+            Integer.getInteger("battlearena.pvpMaxOutbound", 256 * 1024));
+
+    final SocketChannel channel;
+    final Match match;
+    final int side;
+    private final PvpServer.Loop loop;
+    private SelectionKey key;
+    private final ByteBuffer in = ByteBuffer.allocate(MAX_INBOUND);
+    private ByteBuffer out = ByteBuffer.allocate(1024);
+    private boolean queued;
+    private boolean closeWhenFlushed;
+    // Fell too far behind: frames are dropped and the next flush disconnects
+    private boolean overrun;
+    private boolean closed;
+
+    Connection(SocketChannel channel, PvpServer.Loop loop, Match match, int side) {
+        this.channel = channel;
+        this.loop = loop;
+        this.match = match;
+        this.side = side;
+    }
+
+    void register(SelectionKey key) {
+        this.key = key;
+    }
+
+    boolean isClosed() {
+        return closed;
+    }
+
+    void onReadable() {
+        int n;
+        try {
+            n = channel.read(in);
+        } catch (IOException e) {
+            n = -1;
+        }
+        if (n < 0) {
+            close();
+            return;
+        }
+        in.flip();
+        while (!closed && !closeWhenFlushed && !overrun && in.remaining() >= 2) {
+            int length = in.getShort(in.position()) & 0xFFFF;
+            if (length == 0 || length > MAX_INBOUND - 2) {
+                close();
+                return;
+            }
+            if (in.remaining() < 2 + length) break;
+            int end = in.position() + 2 + length;
+            ByteBuffer frame = in.duplicate();
+            frame.position(in.position() + 2).limit(end);
+            in.position(end);
+            dispatch(frame);
+        }
+        in.compact();
+    }
+
+    private void dispatch(ByteBuffer frame) {
+        byte type = frame.get();
+        switch (type) {
+            case Protocol.HELLO: {
+                int length = frame.hasRemaining() ? frame.get() & 0xFF : 0;
+                if (length == 0 || length > frame.remaining()) {
+                    rejectAndClose();
+                    return;
+                }
+                byte[] name = new byte[length];
+                frame.get(name);
+                match.hello(this, new String(name, StandardCharsets.UTF_8).trim());
+                break;
+            }
+            case Protocol.COMMAND:
+                ReplayAction action;
+                try {
+                    action = Protocol.readAction(frame);
+                } catch (IOException e) {
+                    sendRejected(Protocol.MALFORMED);
+                    return;
+                }
+                match.command(this, action);
+                break;
+            default:
+                rejectAndClose();
+        }
+    }
+
+    void rejectAndClose() {
+        sendRejected(Protocol.MALFORMED);
+        closeWhenFlushed();
+    }
+
+    void sendMatchStart(byte[] snapshot) {
+        if (!ensure(Protocol.HEADER + 1 + snapshot.length)) return;
+        int start = Protocol.beginFrame(out, Protocol.MATCH_START);
+        out.put((byte) side).put(snapshot);
+        Protocol.endFrame(out, start);
+        queue();
+    }
+
+    void sendAction(int actingSide, ReplayAction action) {
+        if (!ensure(Protocol.HEADER + 8)) return;
+        int start = Protocol.beginFrame(out, Protocol.ACTION);
+        out.put((byte) actingSide);
+        Protocol.writeAction(out, action);
+        Protocol.endFrame(out, start);
+        queue();
+    }
+
+    void sendRejected(int reason) {
+        if (!ensure(Protocol.HEADER + 1)) return;
+        int start = Protocol.beginFrame(out, Protocol.REJECTED);
+        out.put((byte) reason);
+        Protocol.endFrame(out, start);
+        queue();
+    }
+
+    void sendGameOver(int winner) {
+        if (!ensure(Protocol.HEADER + 1)) return;
+        int start = Protocol.beginFrame(out, Protocol.GAME_OVER);
+        out.put((byte) winner);
+        Protocol.endFrame(out, start);
+        queue();
+    }
+
+    void closeWhenFlushed() {
+        closeWhenFlushed = true;
+        queue();
+    }
+
+    // False once the client is over its limit; the caller drops the frame
+    private boolean ensure(int bytes) {
+        if (overrun) return false;
+        if (out.remaining() >= bytes) return true;
+        if (out.position() + bytes > MAX_OUTBOUND) {
+            // Closing here would re-enter the match mid-broadcast; the flush does it
+            overrun = true;
+            queue();
+            return false;
+        }
+        ByteBuffer bigger = ByteBuffer.allocate(Math.min(MAX_OUTBOUND, Math.max(out.capacity() * 2, out.position() + bytes)));
+        out.flip();
+        bigger.put(out);
+        out = bigger;
+        return true;
+    }
+
+    private void queue() {
+        if (!queued && !closed) {
+            queued = true;
+            loop.queueFlush(this);
+        }
+    }
+
+    /** Writes what the socket takes now; the rest waits for OP_WRITE. */
+    void flush() {
+        queued = false;
+        if (closed) return;
+        if (overrun) {
+            close();
+            return;
+        }
+        try {
+            out.flip();
+            channel.write(out);
+            out.compact();
+        } catch (IOException e) {
+            close();
+            return;
+        }
+        if (out.position() > 0) {
+            key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+        } else if (closeWhenFlushed) {
+            close();
+        } else {
+            key.interestOps(SelectionKey.OP_READ);
+        }
+    }
+
+    void close() {
+        if (closed) return;
+        closed = true;
+        if (key != null) key.cancel();
+        try {
+            channel.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        match.disconnected(this);
+    }
+}
@@ -0,0 +1,213 @@
+package com.amin.battlearena.net;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+
+import com.amin.battlearena.domain.Board;
+import com.amin.battlearena.domain.Tile;
+import com.amin.battlearena.domain.account.Player;
+import com.amin.battlearena.domain.character.Character;
+import com.amin.battlearena.engine.BattleSnapshot;
+import com.amin.battlearena.engine.GameEngine;
+import com.amin.battlearena.engine.replay.ReplayAction;
+import com.amin.battlearena.persistence.PlayerCodec;
+
+/**
+ * One side of a peer-to-peer lockstep battle. Both peers build the same GameEngine from the
+ * host's spawn seed and both account records, then send each other nothing but commands; each
+ * peer checks and applies the other's commands with the rules Match uses on the server. Every
+ * END_TURN carries a checksum of the sender's battle after the turn, and the first one that
+ * differs from the receiver's own ends the battle on both sides as a desync.
+ *
+ * Blocking, for one thread per peer like PvpClient. Item use spends from the Player objects
+ * (the local account and the copy of the opponent's); saving the local one is up to the caller.
+ */
+public final class LockstepPeer implements Closeable {
+    private final SocketChannel channel;
+    private final ByteBuffer in = ByteBuffer.allocate(Protocol.MAX_FRAME + 2);
+    private final ByteBuffer out = ByteBuffer.allocate(Protocol.MAX_FRAME + 2);
+    private final int side;
+    private final Player[] players = new Player[2];
+    private final GameEngine engine = new GameEngine();
+    private int desyncTurn = -1;
+    private boolean over;
+    private long bytesSent;
+
+    private LockstepPeer(SocketChannel channel, int side, Player me, long seed) throws IOException {
+        this.channel = channel;
+        this.side = side;
+        channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        in.flip();
+
+        int start = Protocol.beginFrame(out, Protocol.PEER_HELLO);
+        out.putLong(seed);
+        out.put(PlayerCodec.encode(me));
+        Protocol.endFrame(out, start);
+        write();
+
+        ByteBuffer hello = nextFrame();
+        if (hello.get() != Protocol.PEER_HELLO) throw new IOException("Peer did not start with PEER_HELLO");
+        long peerSeed;
+        Player opponent;
+        try {
+            peerSeed = hello.getLong();
+            opponent = PlayerCodec.decode(hello);
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            throw new IOException("Bad PEER_HELLO", e);
+        }
+        players[side] = me;
+        players[1 - side] = opponent;
+        // The host (side 0) chooses the spawn positions
+        engine.initMatch(players[0], players[1], side == 0 ? seed : peerSeed);
+    }
+
+    /** Waits for one guest on the listener and starts a battle with this account on side 0. */
+    public static LockstepPeer host(ServerSocketChannel listener, Player me, long seed) throws IOException {
+        SocketChannel channel = listener.accept();
+        try {
+            return new LockstepPeer(channel, 0, me, seed);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /** Connects to a host and plays side 1. */
+    public static LockstepPeer join(InetSocketAddress host, Player me) throws IOException {
+        SocketChannel channel = SocketChannel.open(host);
+        try {
+            return new LockstepPeer(channel, 1, me, 0);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /** 0 for the player team, which moves first, 1 for the enemy team. */
+    public int getSide() { return side; }
+    public GameEngine getEngine() { return engine; }
+    public Player getOpponent() { return players[1 - side]; }
+    public boolean isOver() { return over; }
+    /** Turn whose checksums differed, -1 while the peers agree. */
+    public int getDesyncTurn() { return desyncTurn; }
+    public long getBytesSent() { return bytesSent; }
+
+    public boolean isMyTurn() {
+        return !over && engine.isPlayerTurn() == (side == 0);
+    }
+
+    /** Applies a local command and sends it to the peer; false, and nothing sent, if it is not legal now. */
+    public boolean play(ReplayAction action) throws IOException {
+        if (!isMyTurn() || !execute(side, action)) return false;
+        int start = Protocol.beginFrame(out, Protocol.COMMAND);
+        Protocol.writeAction(out, action);
+        if (action.getType() == ReplayAction.Type.END_TURN) out.putInt(BattleSnapshot.checksum(engine));
+        Protocol.endFrame(out, start);
+        write();
+        if (engine.isGameOver()) over = true;
+        return true;
+    }
+
+    /**
+     * Blocks for the peer's next command and applies it; returns null when the peer reported a
+     * desync instead. A command the rules refuse means the peers already disagree, or the peer
+     * is cheating, and fails with an IOException.
+     */
+    public ReplayAction receive() throws IOException {
+        ByteBuffer frame = nextFrame();
+        byte type = frame.get();
+        try {
+            if (type == Protocol.DESYNC) {
+                desyncTurn = frame.getShort() & 0xFFFF;
+                over = true;
+                return null;
+            }
+            if (type != Protocol.COMMAND) throw new IOException("Unexpected frame type " + type);
+            ReplayAction action = Protocol.readAction(frame);
+            if (over || isMyTurn() || !execute(1 - side, action)) {
+                throw new IOException("Peer command does not apply here: " + action);
+            }
+            if (action.getType() == ReplayAction.Type.END_TURN && frame.getInt() != BattleSnapshot.checksum(engine)) {
+                reportDesync();
+                return action;
+            }
+            if (engine.isGameOver()) over = true;
+            return action;
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Truncated frame from peer", e);
+        }
+    }
+
+    private void reportDesync() throws IOException {
+        desyncTurn = engine.getTurnCount();
+        over = true;
+        int start = Protocol.beginFrame(out, Protocol.DESYNC);
+        out.putShort((short) desyncTurn);
+        Protocol.endFrame(out, start);
+        write();
+    }
+
+    // The server's checks from Match, run by both peers on every command
+    private boolean execute(int actor, ReplayAction action) {
+        if (action.getType() == ReplayAction.Type.END_TURN) return action.apply(engine);
+        Character unit = occupant(action.getFromTile());
+        if (unit == null || unit.isPlayerTeam() != (actor == 0)) return false;
+        if (action.getType() == ReplayAction.Type.ATTACK
+                && (action.getAbility() < -1 || action.getAbility() >= unit.getAbilities().size())) {
+            return false;
+        }
+        if (action.getType() != ReplayAction.Type.ITEM) return action.apply(engine);
+
+        Player player = players[actor];
+        synchronized (player) {
+            if (!player.hasItem(action.getItem()) || !action.apply(engine)) return false;
+            player.useItem(action.getItem());
+        }
+        return true;
+    }
+
+    private Character occupant(int tile) {
+        Board board = engine.getBoard();
+        if (tile >= board.getWidth() * board.getHeight()) return null;
+        Tile t = board.getTile(tile % board.getWidth(), tile / board.getWidth());
+        return t != null ? t.getOccupant() : null;
+    }
+
+    private ByteBuffer nextFrame() throws IOException {
+        while (true) {
+            if (in.remaining() >= 2) {
+                int length = in.getShort(in.position()) & 0xFFFF;
+                if (length == 0) throw new IOException("Empty frame");
+                if (in.remaining() >= 2 + length) {
+                    ByteBuffer frame = in.duplicate();
+                    frame.position(in.position() + 2).limit(in.position() + 2 + length);
+                    in.position(in.position() + 2 + length);
+                    return frame;
+                }
+            }
+            in.compact();
+            int n = channel.read(in);
+            in.flip();
+            if (n < 0) throw new EOFException("Peer closed the connection");
+        }
+    }
+
+    private void write() throws IOException {
+        out.flip();
+        bytesSent += out.remaining();
+        while (out.hasRemaining()) channel.write(out);
+        out.clear();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
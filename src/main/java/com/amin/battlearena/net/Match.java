@@ -0,0 +1,173 @@
+package com.amin.battlearena.net;
+
+import java.io.UncheckedIOException;
+import java.util.concurrent.RejectedExecutionException;
+
+import com.amin.battlearena.domain.Board;
+import com.amin.battlearena.domain.Tile;
+import com.amin.battlearena.domain.account.AccountRepository;
+import com.amin.battlearena.domain.account.Player;
+import com.amin.battlearena.domain.character.Character;
+import com.amin.battlearena.engine.BattleSnapshot;
+import com.amin.battlearena.engine.GameEngine;
+import com.amin.battlearena.engine.replay.ReplayAction;
+
+/**
+ * One PvP battle on the server: the authoritative GameEngine and its two players. Commands are
+ * checked for turn and ownership here and then applied through ReplayAction.apply(), which goes
+ * through moveCharacter/attackCharacter and so through exactly the rules of a local battle.
+ * Only the owning selector loop touches a match, so nothing here is synchronized except the
+ * shared account objects; account loads run on the server's loader threads and hand their
+ * result back to the loop.
+ */
+final class Match {
+    private final PvpServer server;
+    private final PvpServer.Loop loop;
+    private final AccountRepository accounts;
+    private final Connection[] connections = new Connection[2];
+    // Claimed at HELLO; the account itself arrives once its load is done
+    private final String[] nicknames = new String[2];
+    private final Player[] players = new Player[2];
+    private final GameEngine engine = new GameEngine();
+    private boolean started;
+    private boolean over;
+
+    Match(PvpServer server, PvpServer.Loop loop, AccountRepository accounts) {
+        this.server = server;
+        this.loop = loop;
+        this.accounts = accounts;
+    }
+
+    void attach(Connection connection) {
+        connections[connection.side] = connection;
+    }
+
+    void hello(Connection from, String nickname) {
+        int side = from.side;
+        // One account per side: the same player on both would share one inventory and victory count
+        if (nickname.isEmpty() || nicknames[side] != null || nickname.equals(nicknames[1 - side])) {
+            from.rejectAndClose();
+            return;
+        }
+        nicknames[side] = nickname;
+        // A first-time player costs a store lookup, which must not stall every match on this loop
+        try {
+            server.accountLoader().execute(() -> {
+                Player player;
+                try {
+                    player = accounts.loadOrCreate(nickname);
+                } catch (UncheckedIOException e) {
+                    e.printStackTrace();
+                    player = null;
+                }
+                Player loaded = player;
+                loop.submit(() -> accountLoaded(from, loaded));
+            });
+        } catch (RejectedExecutionException e) {
+            // Server shutting down
+            from.rejectAndClose();
+        }
+    }
+
+    // Back on the loop
+    private void accountLoaded(Connection from, Player player) {
+        if (over || from.isClosed()) return;
+        if (player == null) {
+            from.rejectAndClose();
+            return;
+        }
+        players[from.side] = player;
+        if (players[0] == null || players[1] == null) return;
+
+        engine.initMatch(players[0], players[1]);
+        started = true;
+        server.matchStarted();
+        byte[] snapshot = BattleSnapshot.encode(engine);
+        for (Connection c : connections) c.sendMatchStart(snapshot);
+    }
+
+    void command(Connection from, ReplayAction action) {
+        int reason = check(from.side, action);
+        if (reason == 0) reason = apply(from.side, action);
+        server.commandHandled();
+        if (reason != 0) {
+            from.sendRejected(reason);
+            return;
+        }
+        for (Connection c : connections) {
+            if (!c.isClosed()) c.sendAction(from.side, action);
+        }
+        if (engine.isGameOver()) finish(engine.didPlayerWin() ? 0 : 1);
+    }
+
+    private int check(int side, ReplayAction action) {
+        if (!started || over) return Protocol.NOT_STARTED;
+        if (engine.isPlayerTurn() != (side == 0)) return Protocol.NOT_YOUR_TURN;
+        if (action.getType() == ReplayAction.Type.END_TURN) return 0;
+
+        Character unit = occupant(action.getFromTile());
+        if (unit == null || unit.isPlayerTeam() != (side == 0)) return Protocol.NOT_YOUR_UNIT;
+        // ReplayAction.apply() reads an unknown ability index as a basic attack
+        if (action.getType() == ReplayAction.Type.ATTACK
+                && (action.getAbility() < -1 || action.getAbility() >= unit.getAbilities().size())) {
+            return Protocol.ILLEGAL;
+        }
+        return 0;
+    }
+
+    private int apply(int side, ReplayAction action) {
+        if (action.getType() != ReplayAction.Type.ITEM) {
+            return action.apply(engine) ? 0 : Protocol.ILLEGAL;
+        }
+        // Items come out of the account's inventory, as in a campaign battle
+        Player player = players[side];
+        synchronized (player) {
+            if (!player.hasItem(action.getItem())) return Protocol.NO_ITEM;
+            if (!action.apply(engine)) return Protocol.ILLEGAL;
+            player.useItem(action.getItem());
+            accounts.savePlayer(player);
+        }
+        return 0;
+    }
+
+    private Character occupant(int tile) {
+        Board board = engine.getBoard();
+        if (tile >= board.getWidth() * board.getHeight()) return null;
+        Tile t = board.getTile(tile % board.getWidth(), tile / board.getWidth());
+        return t != null ? t.getOccupant() : null;
+    }
+
+    private void finish(int winner) {
+        over = true;
+        server.matchEnded();
+        if (winner != Protocol.ABANDONED) {
+            Player player = players[winner];
+            synchronized (player) {
+                player.addVictory();
+                accounts.savePlayer(player);
+            }
+        }
+        for (Connection c : connections) {
+            if (c != null && !c.isClosed()) {
+                c.sendGameOver(winner);
+                c.closeWhenFlushed();
+            }
+        }
+    }
+
+    void disconnected(Connection connection) {
+        if (over) return;
+        if (started) {
+            finish(Protocol.ABANDONED);
+            return;
+        }
+        // Left before the battle began: tell the other player, nothing else to undo
+        over = true;
+        for (Connection c : connections) {
+            if (c != null && !c.isClosed()) {
+                c.sendGameOver(Protocol.ABANDONED);
+                c.closeWhenFlushed();
+            }
+        }
+    }
+}
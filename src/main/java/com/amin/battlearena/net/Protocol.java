@@ -0,0 +1,119 @@
+package com.amin.battlearena.net;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.TreeSet;
+
+import com.amin.battlearena.domain.consumable.ConsumableFactory;
+import com.amin.battlearena.engine.replay.ReplayAction;
+
+/**
+ * Wire format of the PvP server. Every frame is a u16 length (type byte plus payload), a type
+ * byte and the payload; integers are big-endian.
+ *
+ * Client to server: HELLO (u8 length, UTF-8 nickname), COMMAND (action).
+ * Server to client: MATCH_START (u8 side, BattleSnapshot of the new battle), ACTION (u8 side,
+ * action) for every accepted command, sent to both players, REJECTED (u8 reason) to the sender
+ * only, GAME_OVER (u8 winning side, or ABANDONED).
+ * Action: u8 ReplayAction.Type ordinal, then MOVE u16 from, u16 to; ATTACK u16 from, u16 to,
+ * s8 ability (-1 for a basic attack); ITEM u16 tile, u8 item code; END_TURN nothing.
+ * Tiles are y * width + x. Side 0 plays the player team and moves first, side 1 the enemy team.
+ *
+ * Lockstep peers (LockstepPeer) talk to each other directly instead: PEER_HELLO (s64 spawn seed,
+ * used from the host only, then the PlayerCodec record of the sender's account), COMMAND (action,
+ * and after END_TURN the s32 BattleSnapshot checksum of the sender's state), DESYNC (u16 turn).
+ */
+public final class Protocol {
+    public static final int HEADER = 3;
+    public static final int MAX_FRAME = 0xFFFF;
+
+    public static final byte HELLO = 1;
+    public static final byte COMMAND = 2;
+    public static final byte MATCH_START = 16;
+    public static final byte ACTION = 17;
+    public static final byte REJECTED = 18;
+    public static final byte GAME_OVER = 19;
+    public static final byte PEER_HELLO = 32;
+    public static final byte DESYNC = 33;
+
+    // REJECTED reasons
+    public static final int NOT_STARTED = 1;
+    public static final int NOT_YOUR_TURN = 2;
+    public static final int NOT_YOUR_UNIT = 3;
+    public static final int ILLEGAL = 4;
+    public static final int NO_ITEM = 5;
+    public static final int MALFORMED = 6;
+
+    // GAME_OVER winner when a player disconnected
+    public static final int ABANDONED = 2;
+
+    // Items by index in name order, the same table replays use
+    private static final String[] ITEMS = new TreeSet<>(ConsumableFactory.getItemNames()).toArray(new String[0]);
+    private static final ReplayAction.Type[] TYPES = ReplayAction.Type.values();
+
+    private Protocol() {}
+
+    /** Reserves the header of a frame; finish it with endFrame(out, start). */
+    static int beginFrame(ByteBuffer out, byte type) {
+        int start = out.position();
+        out.putShort((short) 0);
+        out.put(type);
+        return start;
+    }
+
+    static void endFrame(ByteBuffer out, int start) {
+        out.putShort(start, (short) (out.position() - start - 2));
+    }
+
+    static void writeAction(ByteBuffer out, ReplayAction action) {
+        out.put((byte) action.getType().ordinal());
+        switch (action.getType()) {
+            case MOVE:
+                out.putShort((short) action.getFromTile());
+                out.putShort((short) action.getToTile());
+                break;
+            case ATTACK:
+                out.putShort((short) action.getFromTile());
+                out.putShort((short) action.getToTile());
+                out.put((byte) action.getAbility());
+                break;
+            case ITEM:
+                out.putShort((short) action.getFromTile());
+                out.put((byte) itemCode(action.getItem()));
+                break;
+            default:
+                break;
+        }
+    }
+
+    static ReplayAction readAction(ByteBuffer in) throws IOException {
+        try {
+            int op = in.get() & 0xFF;
+            if (op >= TYPES.length) throw new IOException("Unknown action " + op);
+            switch (TYPES[op]) {
+                case MOVE:
+                    return ReplayAction.move(in.getShort() & 0xFFFF, in.getShort() & 0xFFFF);
+                case ATTACK:
+                    return ReplayAction.attack(in.getShort() & 0xFFFF, in.getShort() & 0xFFFF, in.get());
+                case ITEM: {
+                    int tile = in.getShort() & 0xFFFF;
+                    int code = in.get() & 0xFF;
+                    if (code >= ITEMS.length) throw new IOException("Unknown item " + code);
+                    return ReplayAction.item(tile, ITEMS[code]);
+                }
+                default:
+                    return ReplayAction.endTurn();
+            }
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Truncated action", e);
+        }
+    }
+
+    private static int itemCode(String name) {
+        for (int i = 0; i < ITEMS.length; i++) {
+            if (ITEMS[i].equals(name)) return i;
+        }
+        throw new IllegalArgumentException("Unknown item: " + name);
+    }
+}
@@ -0,0 +1,141 @@
+package com.amin.battlearena.net;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+
+import com.amin.battlearena.engine.BattleSnapshot;
+import com.amin.battlearena.engine.GameEngine;
+import com.amin.battlearena.engine.replay.ReplayAction;
+
+/**
+ * Blocking client for the PvP server, for tools, tests and the load benchmark. It keeps a mirror
+ * of the battle: MATCH_START decodes the server's snapshot and every ACTION is applied to it, so
+ * the mirror follows the authoritative engine and can be handed to the AI or a board view.
+ */
+public final class PvpClient implements Closeable {
+    /** One frame from the server. */
+    public static final class Message {
+        private final byte type;
+        private final int value;
+        private final ReplayAction action;
+
+        Message(byte type, int value, ReplayAction action) {
+            this.type = type;
+            this.value = value;
+            this.action = action;
+        }
+
+        /** One of the server-to-client Protocol frame types. */
+        public byte getType() { return type; }
+        /** Side for MATCH_START and ACTION, reason for REJECTED, winner for GAME_OVER. */
+        public int getValue() { return value; }
+        public ReplayAction getAction() { return action; }
+    }
+
+    private final SocketChannel channel;
+    private final ByteBuffer in = ByteBuffer.allocate(Protocol.MAX_FRAME + 2);
+    private final ByteBuffer out = ByteBuffer.allocate(256);
+    private GameEngine engine;
+    private int side = -1;
+    private boolean over;
+
+    public PvpClient(InetSocketAddress server, String nickname) throws IOException {
+        byte[] name = nickname.getBytes(StandardCharsets.UTF_8);
+        if (name.length == 0 || name.length > 200) throw new IllegalArgumentException("Bad nickname: " + nickname);
+        channel = SocketChannel.open(server);
+        channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        in.flip();
+        int start = Protocol.beginFrame(out, Protocol.HELLO);
+        out.put((byte) name.length).put(name);
+        Protocol.endFrame(out, start);
+        write();
+    }
+
+    /** Reads until the battle starts; returns false if the opponent left first. */
+    public boolean awaitStart() throws IOException {
+        while (engine == null) {
+            if (read().getType() == Protocol.GAME_OVER) return false;
+        }
+        return true;
+    }
+
+    /** 0 for the player team, which moves first, 1 for the enemy team; -1 before the start. */
+    public int getSide() { return side; }
+    public GameEngine getEngine() { return engine; }
+    public boolean isOver() { return over; }
+
+    public boolean isMyTurn() {
+        return engine != null && !over && engine.isPlayerTurn() == (side == 0);
+    }
+
+    public void send(ReplayAction action) throws IOException {
+        int start = Protocol.beginFrame(out, Protocol.COMMAND);
+        Protocol.writeAction(out, action);
+        Protocol.endFrame(out, start);
+        write();
+    }
+
+    /** Blocks for the next frame; the mirror is already updated when it returns. */
+    public Message read() throws IOException {
+        ByteBuffer frame = nextFrame();
+        byte type = frame.get();
+        switch (type) {
+            case Protocol.MATCH_START: {
+                side = frame.get();
+                byte[] snapshot = new byte[frame.remaining()];
+                frame.get(snapshot);
+                engine = BattleSnapshot.decode(snapshot);
+                return new Message(type, side, null);
+            }
+            case Protocol.ACTION: {
+                int actor = frame.get();
+                ReplayAction action = Protocol.readAction(frame);
+                if (!action.apply(engine)) throw new IOException("Server action does not apply to the mirror: " + action);
+                return new Message(type, actor, action);
+            }
+            case Protocol.REJECTED:
+                return new Message(type, frame.get(), null);
+            case Protocol.GAME_OVER:
+                over = true;
+                return new Message(type, frame.get(), null);
+            default:
+                throw new IOException("Unknown frame type " + type);
+        }
+    }
+
+    private ByteBuffer nextFrame() throws IOException {
+        while (true) {
+            if (in.remaining() >= 2) {
+                int length = in.getShort(in.position()) & 0xFFFF;
+                if (length == 0) throw new IOException("Empty frame");
+                if (in.remaining() >= 2 + length) {
+                    ByteBuffer frame = in.duplicate();
+                    frame.position(in.position() + 2).limit(in.position() + 2 + length);
+                    in.position(in.position() + 2 + length);
+                    return frame;
+                }
+            }
+            in.compact();
+            int n = channel.read(in);
+            in.flip();
+            if (n < 0) throw new EOFException("Server closed the connection");
+        }
+    }
+
+    private void write() throws IOException {
+        out.flip();
+        while (out.hasRemaining()) channel.write(out);
+        out.clear();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,213 @@
+package com.amin.battlearena.net;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.amin.battlearena.domain.account.AccountRepository;
+
+/**
+ * Authoritative PvP battle server. Each selector loop thread owns its matches outright, so a
+ * command is decoded, validated, applied and answered on one thread with no locking; loops
+ * scale across cores. The first loop also accepts, and pairs connections in arrival order:
+ * every two clients become a match on the next loop in turn. See Protocol for the wire format.
+ */
+public final class PvpServer implements Closeable {
+    // Selector threads, overridable with -Dbattlearena.pvpLoops=... (default one per core)
+    public static final int DEFAULT_LOOPS = Integer.getInteger("battlearena.pvpLoops",
+            Runtime.getRuntime().availableProcessors());
+    // Threads for account loads, which may hit the disk, overridable with -Dbattlearena.pvpAccountThreads=...
+    private static final int ACCOUNT_THREADS = Math.max(1, Integer.getInteger("battlearena.pvpAccountThreads", 2));
+
+    private final ServerSocketChannel server;
+    private final AccountRepository accounts;
+    private final Loop[] loops;
+    // Keeps blocking store reads off the selector loops
+    private final ExecutorService accountLoader;
+    private final AtomicInteger activeMatches = new AtomicInteger();
+    private final LongAdder startedMatches = new LongAdder();
+    private final LongAdder commands = new LongAdder();
+    // Accepting loop only: a client still waiting for an opponent
+    private SocketChannel waiting;
+    private int nextLoop;
+    private volatile boolean running;
+
+    public PvpServer(InetSocketAddress address, int loopCount, AccountRepository accounts) throws IOException {
+        if (loopCount < 1) throw new IllegalArgumentException("Need at least one loop");
+        this.accounts = accounts;
+        this.server = ServerSocketChannel.open();
+        server.bind(address, 1024);
+        server.configureBlocking(false);
+        loops = new Loop[loopCount];
+        for (int i = 0; i < loopCount; i++) loops[i] = new Loop(i);
+        AtomicInteger loaderIndex = new AtomicInteger();
+        accountLoader = Executors.newFixedThreadPool(ACCOUNT_THREADS, r -> {
+            Thread t = new Thread(r, "pvp-accounts-" + loaderIndex.getAndIncrement());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    public int getPort() throws IOException {
+        return ((InetSocketAddress) server.getLocalAddress()).getPort();
+    }
+
+    public void start() throws IOException {
+        running = true;
+        server.register(loops[0].selector, SelectionKey.OP_ACCEPT);
+        for (Loop loop : loops) loop.thread.start();
+    }
+
+    public int getActiveMatches() { return activeMatches.get(); }
+    public long getStartedMatches() { return startedMatches.sum(); }
+    public long getCommands() { return commands.sum(); }
+
+    /** The selector threads, e.g. to read their CPU time. */
+    public List<Thread> getLoopThreads() {
+        List<Thread> threads = new ArrayList<>(loops.length);
+        for (Loop loop : loops) threads.add(loop.thread);
+        return threads;
+    }
+
+    ExecutorService accountLoader() {
+        return accountLoader;
+    }
+
+    void matchStarted() {
+        startedMatches.increment();
+        activeMatches.incrementAndGet();
+    }
+
+    void matchEnded() {
+        activeMatches.decrementAndGet();
+    }
+
+    void commandHandled() {
+        commands.increment();
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel;
+        while ((channel = server.accept()) != null) {
+            channel.configureBlocking(false);
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            if (waiting == null || !waiting.isOpen()) {
+                waiting = channel;
+                continue;
+            }
+            Loop loop = loops[nextLoop++ % loops.length];
+            Match match = new Match(this, loop, accounts);
+            SocketChannel first = waiting;
+            SocketChannel second = channel;
+            waiting = null;
+            loop.submit(() -> loop.register(match, first, second));
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        running = false;
+        accountLoader.shutdownNow();
+        for (Loop loop : loops) loop.selector.wakeup();
+        for (Loop loop : loops) {
+            try {
+                loop.thread.join(2000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        server.close();
+        if (waiting != null) waiting.close();
+    }
+
+    final class Loop implements Runnable {
+        final Selector selector;
+        final Thread thread;
+        private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+        private final List<Connection> toFlush = new ArrayList<>();
+
+        Loop(int index) throws IOException {
+            selector = Selector.open();
+            thread = new Thread(this, "pvp-loop-" + index);
+        }
+
+        void submit(Runnable task) {
+            tasks.add(task);
+            selector.wakeup();
+        }
+
+        void queueFlush(Connection connection) {
+            toFlush.add(connection);
+        }
+
+        private void register(Match match, SocketChannel first, SocketChannel second) {
+            SocketChannel[] channels = {first, second};
+            for (int side = 0; side < 2; side++) {
+                Connection connection = new Connection(channels[side], this, match, side);
+                match.attach(connection);
+                try {
+                    connection.register(channels[side].register(selector, SelectionKey.OP_READ, connection));
+                } catch (IOException e) {
+                    connection.close();
+                }
+            }
+        }
+
+        @Override
+        public void run() {
+            while (running) {
+                try {
+                    selector.select();
+                } catch (IOException e) {
+                    e.printStackTrace();
+                    break;
+                }
+                Runnable task;
+                while ((task = tasks.poll()) != null) task.run();
+
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) continue;
+                    if (key.isAcceptable()) {
+                        try {
+                            accept();
+                        } catch (IOException e) {
+                            e.printStackTrace();
+                        }
+                        continue;
+                    }
+                    Connection connection = (Connection) key.attachment();
+                    if (key.isReadable()) connection.onReadable();
+                    if (key.isValid() && key.isWritable()) connection.flush();
+                }
+                // One write per connection per round, however many frames it was sent
+                for (int i = 0; i < toFlush.size(); i++) toFlush.get(i).flush();
+                toFlush.clear();
+            }
+            for (SelectionKey key : new ArrayList<>(selector.keys())) {
+                if (key.attachment() instanceof Connection) ((Connection) key.attachment()).close();
+            }
+            try {
+                selector.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+}
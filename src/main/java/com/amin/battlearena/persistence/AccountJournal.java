@@ -0,0 +1,214 @@
+package com.amin.battlearena.persistence;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Append-only store for encoded account records (see PlayerCodec). Every change is appended
+ * to a write-ahead log next to the snapshot file; the snapshot is rewritten in the background
+ * once the log grows as large as the set of live accounts. A snapshot still in the old
+ * one-line-per-player text format is read as is and replaced by the binary form on the
+ * first compaction.
+ */
+public final class AccountJournal implements Closeable {
+    private static final int MIN_COMPACT_RECORDS = 1000;
+    private static final int SNAPSHOT_MAGIC = 0x4241534E; // "BASN"
+
+    private final Path snapshotFile;
+    private final Path journalFile;
+    private final Path compactingFile;
+    private final Path tempFile;
+    private final Map<String, byte[]> index = new HashMap<>();
+    private final ExecutorService compactor;
+
+    private WriteAheadLog journal;
+    private int journalRecords;
+    private boolean compacting;
+
+    public AccountJournal(Path snapshotFile) throws IOException {
+        this.snapshotFile = snapshotFile;
+        this.journalFile = sibling(snapshotFile, ".journal");
+        this.compactingFile = sibling(snapshotFile, ".journal.old");
+        this.tempFile = sibling(snapshotFile, ".tmp");
+        this.compactor = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "account-compactor");
+            t.setDaemon(true);
+            return t;
+        });
+
+        // Snapshot first, then any journal left over from an interrupted compaction, then the live journal
+        replaySnapshot();
+        WriteAheadLog.replay(compactingFile, this::replayRecord);
+        journalRecords = WriteAheadLog.replay(journalFile, this::replayRecord);
+
+        if (Files.exists(compactingFile)) {
+            // Previous run died mid-compaction: fold everything into a fresh snapshot before writing again
+            writeSnapshot(index.values());
+            Files.deleteIfExists(compactingFile);
+            Files.deleteIfExists(journalFile);
+            journalRecords = 0;
+        }
+        journal = new WriteAheadLog(journalFile);
+    }
+
+    public synchronized byte[] get(String key) {
+        return index.get(key);
+    }
+
+    public synchronized int size() {
+        return index.size();
+    }
+
+    public synchronized List<byte[]> records() {
+        return new ArrayList<>(index.values());
+    }
+
+    /**
+     * Queues the records for the next group commit. The returned future completes once all
+     * of them are fsynced; callers should wait on it outside any lock they hold.
+     */
+    public synchronized CompletableFuture<Void> appendAll(Map<String, byte[]> records) throws IOException {
+        List<CompletableFuture<Void>> commits = new ArrayList<>(records.size());
+        for (Map.Entry<String, byte[]> entry : records.entrySet()) {
+            index.put(entry.getKey(), entry.getValue());
+            commits.add(journal.append(entry.getValue()));
+        }
+        journalRecords += records.size();
+
+        if (!compacting && journalRecords >= Math.max(MIN_COMPACT_RECORDS, index.size())) {
+            startCompaction();
+        }
+        return CompletableFuture.allOf(commits.toArray(new CompletableFuture<?>[0]));
+    }
+
+    private void startCompaction() throws IOException {
+        compacting = true;
+        List<byte[]> records = new ArrayList<>(index.values());
+        if (Files.exists(compactingFile)) {
+            // An earlier compaction failed and its rotated journal is not covered by any snapshot
+            // yet: snapshot everything without rotating, and rotate on the next round
+            compactor.execute(() -> compact(records));
+            return;
+        }
+        // Rotate the log so appends keep going while the snapshot is rewritten; close() commits what is queued
+        journal.close();
+        Files.move(journalFile, compactingFile, StandardCopyOption.REPLACE_EXISTING);
+        journal = new WriteAheadLog(journalFile);
+        journalRecords = 0;
+        compactor.execute(() -> compact(records));
+    }
+
+    private void compact(List<byte[]> records) {
+        try {
+            writeSnapshot(records);
+            // Only once the new snapshot is on disk is the rotated journal redundant
+            Files.deleteIfExists(compactingFile);
+            DurableFiles.syncDirectory(compactingFile.toAbsolutePath().getParent());
+        } catch (IOException e) {
+            // Leave the rotated journal in place; it is replayed and folded in on the next start
+            e.printStackTrace();
+        } finally {
+            synchronized (this) {
+                compacting = false;
+            }
+        }
+    }
+
+    private void writeSnapshot(Collection<byte[]> records) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile)))) {
+            out.writeInt(SNAPSHOT_MAGIC);
+            for (byte[] record : records) {
+                out.writeInt(record.length);
+                out.write(record);
+            }
+        }
+        DurableFiles.replace(tempFile, snapshotFile);
+    }
+
+    private void replaySnapshot() throws IOException {
+        if (!Files.exists(snapshotFile)) return;
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshotFile)))) {
+            in.mark(4);
+            int magic;
+            try {
+                magic = in.readInt();
+            } catch (EOFException e) {
+                magic = 0;
+            }
+            if (magic != SNAPSHOT_MAGIC) {
+                in.reset();
+                replayTextSnapshot(in);
+                return;
+            }
+            while (true) {
+                int length;
+                try {
+                    length = in.readInt();
+                } catch (EOFException e) {
+                    break;
+                }
+                byte[] record = new byte[length];
+                in.readFully(record);
+                put(record);
+            }
+        }
+    }
+
+    private void replayTextSnapshot(InputStream in) throws IOException {
+        BufferedReader br = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        String line;
+        while ((line = br.readLine()) != null) {
+            if (!line.isEmpty()) put(line.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private void replayRecord(ByteBuffer payload) {
+        byte[] record = new byte[payload.remaining()];
+        payload.get(record);
+        put(record);
+    }
+
+    private void put(byte[] record) {
+        index.put(PlayerCodec.nickname(ByteBuffer.wrap(record)), record);
+    }
+
+    static boolean isBinarySnapshot(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(file))) {
+            return in.readInt() == SNAPSHOT_MAGIC;
+        } catch (EOFException e) {
+            return false;
+        }
+    }
+
+    private static Path sibling(Path file, String suffix) {
+        return file.resolveSibling(file.getFileName() + suffix);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        compactor.shutdown();
+        journal.close();
+    }
+}
@@ -0,0 +1,37 @@
+package com.amin.battlearena.persistence;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.function.Consumer;
+
+import com.amin.battlearena.domain.account.Player;
+
+/**
+ * Storage backend for player accounts. Players passed in are owned by the store afterwards
+ * (callers hand over copies), and players returned are fresh objects the caller may modify.
+ * Loads may run concurrently with each other and with a saveAll.
+ */
+public interface AccountStore extends Closeable {
+    Player load(String nickname) throws IOException;
+
+    // Durable once this returns; one call is one batch for the backend
+    void saveAll(Collection<Player> players) throws IOException;
+
+    int size();
+
+    void forEach(Consumer<Player> action) throws IOException;
+
+    /** The leaderboard's view of one account. */
+    interface ScoreVisitor {
+        void visit(String nickname, int victories, int gold, int campaignProgress);
+    }
+
+    /**
+     * Visits every account's scores. This default decodes whole players; a store that can read
+     * the scores in place overrides it.
+     */
+    default void forEachScore(ScoreVisitor visitor) throws IOException {
+        forEach(p -> visitor.visit(p.getNickname(), p.getVictories(), p.getGold(), p.getCampaignProgress()));
+    }
+}
@@ -0,0 +1,36 @@
+package com.amin.battlearena.persistence;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Picks the account backend at startup: -Dbattlearena.store=journal|mapped|text|memory
+ * (default journal). Backends keep their own files, so switching one means migrating the
+ * accounts, not just changing the flag.
+ */
+public final class AccountStores {
+    public static final String PROPERTY = "battlearena.store";
+    public static final String[] TYPES = {"journal", "mapped", "text", "memory"};
+
+    private AccountStores() {}
+
+    public static AccountStore fromSystemProperties() throws IOException {
+        return open(System.getProperty(PROPERTY, "journal"), Paths.get("."));
+    }
+
+    public static AccountStore open(String type, Path directory) throws IOException {
+        switch (type) {
+            case "journal":
+                return new JournalAccountStore(directory.resolve("savegame.dat"));
+            case "mapped":
+                return new MappedAccountStore(directory.resolve("savegame.bin"));
+            case "text":
+                return new TextFileAccountStore(directory.resolve("savegame.dat"));
+            case "memory":
+                return new InMemoryAccountStore();
+            default:
+                throw new IllegalArgumentException("Unknown account store: " + type);
+        }
+    }
+}
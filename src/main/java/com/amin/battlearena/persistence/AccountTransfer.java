@@ -0,0 +1,336 @@
+package com.amin.battlearena.persistence;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.amin.battlearena.domain.account.Player;
+import com.amin.battlearena.infra.Varints;
+
+/**
+ * Streams accounts between an AccountStore and a dump file. The file is read in fixed-size
+ * chunks cut at record boundaries, chunks are parsed on a worker pool, and results are applied
+ * in file order with a bounded number of chunks in flight, so memory use does not grow with
+ * the number of accounts. Run the tool while the game is closed:
+ *
+ *   java -cp target/classes com.amin.battlearena.persistence.AccountTransfer
+ *        import|export FILE text|binary [journal|mapped|text|memory] [DIR] [THREADS]
+ */
+public final class AccountTransfer {
+    public enum Format { TEXT, BINARY }
+
+    /** Outcome of one transfer. */
+    public static final class Stats {
+        private final long records;
+        private final long nanos;
+
+        Stats(long records, long nanos) {
+            this.records = records;
+            this.nanos = nanos;
+        }
+
+        public long getRecords() { return records; }
+        public double getSeconds() { return nanos / 1e9; }
+        public double getRecordsPerSecond() { return nanos == 0 ? 0 : records * 1e9 / nanos; }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "%,d records in %.2f s (%,.0f records/s)",
+                    records, getSeconds(), getRecordsPerSecond());
+        }
+    }
+
+    // Binary dumps: "BAEX", a version byte, then [varint length][PlayerCodec record] frames
+    private static final int BINARY_MAGIC = 0x42414558;
+    private static final int BINARY_VERSION = 1;
+    private static final int BINARY_HEADER = 5;
+
+    private static final int CHUNK_BYTES = 1 << 20;
+    private static final int EXPORT_BATCH = 4096;
+
+    private AccountTransfer() {}
+
+    public static Stats importFile(Path file, Format format, AccountStore store, int threads) throws IOException {
+        long start = System.nanoTime();
+        long records = 0;
+        ExecutorService pool = newPool(threads);
+        ArrayDeque<Future<List<Player>>> inFlight = new ArrayDeque<>();
+        int maxInFlight = threads * 2;
+
+        try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (format == Format.BINARY) readBinaryHeader(in, file);
+            long offset = in.position();
+
+            ByteBuffer buf = ByteBuffer.allocate(CHUNK_BYTES);
+            boolean eof = false;
+            while (!eof) {
+                while (buf.hasRemaining()) {
+                    if (in.read(buf) < 0) {
+                        eof = true;
+                        break;
+                    }
+                }
+                buf.flip();
+
+                int cut = eof ? buf.limit() : (format == Format.TEXT ? lastLineEnd(buf) : lastFrameEnd(buf));
+                if (cut == 0 && buf.hasRemaining() && !eof) {
+                    throw new IOException("Record at byte " + offset + " is larger than " + CHUNK_BYTES + " bytes");
+                }
+                if (eof && format == Format.BINARY && lastFrameEnd(buf) != buf.limit()) {
+                    throw new IOException("Truncated record at the end of " + file);
+                }
+
+                if (cut > 0) {
+                    byte[] chunk = new byte[cut];
+                    buf.get(chunk);
+                    long chunkOffset = offset;
+                    offset += cut;
+                    inFlight.add(pool.submit(parseTask(chunk, chunkOffset, format)));
+                    if (inFlight.size() >= maxInFlight) {
+                        records += save(store, await(inFlight.poll()));
+                    }
+                }
+                buf.compact();
+            }
+
+            while (!inFlight.isEmpty()) {
+                records += save(store, await(inFlight.poll()));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        return new Stats(records, System.nanoTime() - start);
+    }
+
+    public static Stats exportFile(AccountStore store, Path file, Format format, int threads) throws IOException {
+        long start = System.nanoTime();
+        long[] records = new long[1];
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        ExecutorService pool = newPool(threads);
+        ArrayDeque<Future<ByteBuffer>> inFlight = new ArrayDeque<>();
+        int maxInFlight = threads * 2;
+
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            if (format == Format.BINARY) {
+                ByteBuffer header = ByteBuffer.allocate(BINARY_HEADER).putInt(BINARY_MAGIC).put((byte) BINARY_VERSION);
+                header.flip();
+                writeFully(out, header);
+            }
+
+            List<List<Player>> batch = new ArrayList<>(1);
+            batch.add(new ArrayList<>(EXPORT_BATCH));
+            try {
+                store.forEach(p -> {
+                    List<Player> current = batch.get(0);
+                    current.add(p);
+                    records[0]++;
+                    if (current.size() == EXPORT_BATCH) {
+                        inFlight.add(pool.submit(encodeTask(current, format)));
+                        batch.set(0, new ArrayList<>(EXPORT_BATCH));
+                        if (inFlight.size() >= maxInFlight) {
+                            try {
+                                writeFully(out, await(inFlight.poll()));
+                            } catch (IOException e) {
+                                throw new UncheckedIOException(e);
+                            }
+                        }
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            if (!batch.get(0).isEmpty()) {
+                inFlight.add(pool.submit(encodeTask(batch.get(0), format)));
+            }
+            while (!inFlight.isEmpty()) {
+                writeFully(out, await(inFlight.poll()));
+            }
+            out.force(false);
+        } finally {
+            pool.shutdownNow();
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return new Stats(records[0], System.nanoTime() - start);
+    }
+
+    private static Callable<List<Player>> parseTask(byte[] chunk, long chunkOffset, Format format) {
+        return () -> {
+            List<Player> players = new ArrayList<>();
+            ByteBuffer in = ByteBuffer.wrap(chunk);
+            int pos = 0;
+            try {
+                while (pos < chunk.length) {
+                    int end;
+                    if (format == Format.TEXT) {
+                        end = pos;
+                        while (end < chunk.length && chunk[end] != '\n') end++;
+                        int lineEnd = end > pos && chunk[end - 1] == '\r' ? end - 1 : end;
+                        if (lineEnd > pos) {
+                            in.limit(lineEnd).position(pos);
+                            players.add(PlayerCodec.decode(in));
+                        }
+                        end++;
+                    } else {
+                        in.limit(chunk.length).position(pos);
+                        int length = Varints.read(in);
+                        end = in.position() + length;
+                        in.limit(end);
+                        players.add(PlayerCodec.decode(in));
+                    }
+                    pos = end;
+                }
+            } catch (IllegalArgumentException | BufferUnderflowException e) {
+                throw new IOException("Bad record at byte " + (chunkOffset + pos), e);
+            }
+            return players;
+        };
+    }
+
+    private static Callable<ByteBuffer> encodeTask(List<Player> players, Format format) {
+        return () -> {
+            if (format == Format.TEXT) {
+                StringBuilder sb = new StringBuilder(players.size() * 64);
+                for (Player p : players) {
+                    PlayerCodec.encodeText(p, sb);
+                    sb.append('\n');
+                }
+                return ByteBuffer.wrap(sb.toString().getBytes(StandardCharsets.UTF_8));
+            }
+
+            ByteBuffer out = ByteBuffer.allocate(players.size() * 96);
+            for (Player p : players) {
+                byte[] record = PlayerCodec.encode(p);
+                if (out.remaining() < 5 + record.length) {
+                    ByteBuffer bigger = ByteBuffer.allocate(out.capacity() * 2 + record.length);
+                    out.flip();
+                    out = bigger.put(out);
+                }
+                Varints.write(out, record.length);
+                out.put(record);
+            }
+            out.flip();
+            return out;
+        };
+    }
+
+    private static void readBinaryHeader(FileChannel in, Path file) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(BINARY_HEADER);
+        while (header.hasRemaining() && in.read(header) >= 0) {
+            // keep reading until the header is complete or the file ends
+        }
+        if (header.hasRemaining() || header.getInt(0) != BINARY_MAGIC) {
+            throw new IOException("Not a binary account dump: " + file);
+        }
+        if (header.get(4) != BINARY_VERSION) {
+            throw new IOException("Unsupported account dump version " + header.get(4));
+        }
+    }
+
+    // Bytes up to and including the last newline
+    private static int lastLineEnd(ByteBuffer buf) {
+        for (int i = buf.limit() - 1; i >= buf.position(); i--) {
+            if (buf.get(i) == '\n') return i + 1 - buf.position();
+        }
+        return 0;
+    }
+
+    // Bytes covered by complete [varint length][record] frames
+    private static int lastFrameEnd(ByteBuffer buf) {
+        int pos = buf.position();
+        int limit = buf.limit();
+        while (pos < limit) {
+            int length = 0;
+            int shift = 0;
+            int p = pos;
+            while (true) {
+                if (p >= limit) return pos - buf.position();
+                int b = buf.get(p++);
+                length |= (b & 0x7F) << shift;
+                if (b >= 0) break;
+                shift += 7;
+            }
+            if (length < 0 || p + (long) length > limit) break;
+            pos = p + length;
+        }
+        return pos - buf.position();
+    }
+
+    private static int save(AccountStore store, List<Player> players) throws IOException {
+        if (!players.isEmpty()) store.saveAll(players);
+        return players.size();
+    }
+
+    private static <T> T await(Future<T> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) throw (IOException) cause;
+            throw new IOException(cause);
+        }
+    }
+
+    private static void writeFully(FileChannel out, ByteBuffer buf) throws IOException {
+        while (buf.hasRemaining()) {
+            out.write(buf);
+        }
+    }
+
+    private static ExecutorService newPool(int threads) {
+        if (threads < 1) throw new IllegalArgumentException("threads must be positive");
+        return Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "account-transfer");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            System.err.println("usage: AccountTransfer import|export FILE text|binary"
+                    + " [journal|mapped|text|memory] [DIR] [THREADS]");
+            System.exit(2);
+        }
+        Path file = Paths.get(args[1]);
+        Format format = Format.valueOf(args[2].toUpperCase(Locale.ROOT));
+        String storeType = args.length > 3 ? args[3] : System.getProperty(AccountStores.PROPERTY, "journal");
+        Path dir = Paths.get(args.length > 4 ? args[4] : ".");
+        int threads = args.length > 5 ? Integer.parseInt(args[5]) : Runtime.getRuntime().availableProcessors();
+
+        try (AccountStore store = AccountStores.open(storeType, dir)) {
+            Stats stats;
+            switch (args[0]) {
+                case "import":
+                    stats = importFile(file, format, store, threads);
+                    break;
+                case "export":
+                    stats = exportFile(store, file, format, threads);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown command: " + args[0]);
+            }
+            System.out.println(args[0] + " " + file + ": " + stats);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.amin.battlearena.persistence;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/** One saved in-progress battle per player, written off the caller's thread. */
+public final class BattleSaveStore {
+    // Queued delete; compared by identity
+    private static final byte[] DELETED = new byte[0];
+
+    private static final class Holder {
+        // Class initialization is lazy and thread-safe, so no locking on getInstance
+        static final BattleSaveStore INSTANCE = new BattleSaveStore();
+    }
+
+    private final Path directory = Paths.get(".");
+    private final ExecutorService writer;
+    // Latest queued save (or DELETED) per player until the writer has applied it
+    private final Map<String, byte[]> queued = new ConcurrentHashMap<>();
+
+    private BattleSaveStore() {
+        writer = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "battle-save-writer");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    public static BattleSaveStore getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    public void saveAsync(String nickname, byte[] snapshot) {
+        queued.put(nickname, snapshot);
+        writer.execute(() -> {
+            Path file = fileFor(nickname);
+            Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+            try {
+                Files.write(temp, snapshot);
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                e.printStackTrace();
+            } finally {
+                queued.remove(nickname, snapshot);
+            }
+        });
+    }
+
+    /**
+     * The saved battle, or null. Never waits on the writer: a save or delete still queued is
+     * answered from memory, anything else is one read of a small file, which is cheap enough
+     * for the FX thread when a battle screen opens.
+     */
+    public byte[] load(String nickname) {
+        byte[] pending = queued.get(nickname);
+        if (pending != null) return pending == DELETED ? null : pending;
+
+        // The writer replaces the file with an atomic move, so this sees the old or the new save whole
+        Path file = fileFor(nickname);
+        try {
+            return Files.exists(file) ? Files.readAllBytes(file) : null;
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    public void deleteAsync(String nickname) {
+        // Queued behind any pending save so a finished battle cannot be resurrected
+        queued.put(nickname, DELETED);
+        writer.execute(() -> {
+            try {
+                Files.deleteIfExists(fileFor(nickname));
+            } catch (IOException e) {
+                e.printStackTrace();
+            } finally {
+                queued.remove(nickname, DELETED);
+            }
+        });
+    }
+
+    private Path fileFor(String nickname) {
+        return directory.resolve("battle_" + nickname.replaceAll("[^A-Za-z0-9_-]", "_") + ".sav");
+    }
+}
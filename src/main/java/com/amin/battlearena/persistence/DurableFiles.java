@@ -0,0 +1,36 @@
+package com.amin.battlearena.persistence;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/** The write-temp-then-rename step of the stores, done so that it survives a crash. */
+final class DurableFiles {
+    private DurableFiles() {}
+
+    /**
+     * Moves a fully written temp file over the target: the temp file's data reaches the disk
+     * first, then the rename, then the directory entry. Without the first fsync a crash can
+     * leave the target renamed but empty.
+     */
+    static void replace(Path temp, Path target) throws IOException {
+        try (FileChannel ch = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+            ch.force(true);
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        syncDirectory(target.toAbsolutePath().getParent());
+    }
+
+    static void syncDirectory(Path dir) throws IOException {
+        if (dir == null) return;
+        try (FileChannel ch = FileChannel.open(dir, StandardOpenOption.READ)) {
+            ch.force(true);
+        } catch (IOException e) {
+            // Some platforms (Windows) cannot open a directory; their renames are durable already
+            if (Files.isDirectory(dir) && !System.getProperty("os.name", "").startsWith("Windows")) throw e;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.amin.battlearena.persistence;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+import com.amin.battlearena.domain.account.Player;
+
+/** Keeps accounts only for the lifetime of the process; useful for tests and benchmarks. */
+public final class InMemoryAccountStore implements AccountStore {
+    private final Map<String, Player> players = new ConcurrentHashMap<>();
+
+    @Override
+    public Player load(String nickname) {
+        Player p = players.get(nickname);
+        return p != null ? p.copy() : null;
+    }
+
+    @Override
+    public void saveAll(Collection<Player> batch) {
+        for (Player p : batch) {
+            players.put(p.getNickname(), p);
+        }
+    }
+
+    @Override
+    public int size() {
+        return players.size();
+    }
+
+    @Override
+    public void forEach(Consumer<Player> action) {
+        for (Player p : players.values()) {
+            action.accept(p.copy());
+        }
+    }
+
+    @Override
+    public void close() {
+    }
+}
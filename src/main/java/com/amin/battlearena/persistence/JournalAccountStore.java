@@ -0,0 +1,67 @@
+package com.amin.battlearena.persistence;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+
+import com.amin.battlearena.domain.account.Player;
+
+/** Default backend: PlayerCodec records in an AccountJournal, one group commit per batch. */
+public final class JournalAccountStore implements AccountStore {
+    private final AccountJournal journal;
+
+    public JournalAccountStore(Path snapshotFile) throws IOException {
+        this.journal = new AccountJournal(snapshotFile);
+    }
+
+    @Override
+    public Player load(String nickname) throws IOException {
+        byte[] record = journal.get(nickname);
+        return record != null ? PlayerCodec.decodeStored(nickname, ByteBuffer.wrap(record)) : null;
+    }
+
+    @Override
+    public void saveAll(Collection<Player> batch) throws IOException {
+        Map<String, byte[]> records = new LinkedHashMap<>();
+        for (Player p : batch) {
+            records.put(p.getNickname(), PlayerCodec.encode(p));
+        }
+        try {
+            journal.appendAll(records).join();
+        } catch (CompletionException e) {
+            throw new IOException("Group commit failed", e.getCause());
+        }
+    }
+
+    @Override
+    public int size() {
+        return journal.size();
+    }
+
+    @Override
+    public void forEach(Consumer<Player> action) {
+        List<byte[]> records = journal.records();
+        for (int i = 0; i < records.size(); i++) {
+            Player p;
+            try {
+                p = PlayerCodec.decodeStored("account " + i, ByteBuffer.wrap(records.get(i)));
+            } catch (IOException e) {
+                // One bad record must not hide every other account from a scan
+                System.err.println("Skipping " + e.getMessage());
+                continue;
+            }
+            action.accept(p);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        journal.close();
+    }
+}
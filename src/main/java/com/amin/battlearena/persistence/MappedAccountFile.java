@@ -0,0 +1,272 @@
+package com.amin.battlearena.persistence;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.amin.battlearena.domain.account.Player;
+
+/**
+ * Binary player storage made of fixed-size records in a memory-mapped file. Slot i of the
+ * data file belongs to the nickname on line i of the companion index file, so updating a
+ * player is an in-place write and a full scan reads straight from the mapping.
+ */
+public final class MappedAccountFile implements Closeable {
+    private static final int MAGIC = 0x42415246; // "BARF"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 16;
+    private static final int INITIAL_CAPACITY = 1024;
+
+    public static final int UPGRADE_SLOTS = 9;
+    public static final int ITEM_SLOTS = 5;
+    // Item slot i holds the count of ITEMS[i]: append new items, never reorder, at most ITEM_SLOTS
+    private static final String[] ITEMS = {"HealthPotion", "ManaPotion", "HastePotion"};
+
+    // Record layout
+    public static final int OFF_FLAGS = 0;
+    public static final int OFF_HASH = 4;
+    public static final int OFF_GOLD = 12;
+    public static final int OFF_LEVEL = 16;
+    public static final int OFF_VICTORIES = 20;
+    public static final int OFF_PROGRESS = 24;
+    public static final int OFF_UPGRADES = 28;
+    public static final int OFF_ITEMS = OFF_UPGRADES + UPGRADE_SLOTS * 4;
+    public static final int RECORD_SIZE = 96;
+
+    private static final int FLAG_IN_USE = 1;
+
+    private final FileChannel channel;
+    private final FileChannel indexOut;
+    // Index lines appended since the last force()
+    private boolean indexDirty;
+    private final Map<String, Integer> slots = new HashMap<>();
+    // By slot; null for a slot whose record failed its hash check
+    private final List<String> nicknames = new ArrayList<>();
+    private int live;
+    private MappedByteBuffer buffer;
+    private int capacity;
+
+    public interface RecordVisitor {
+        // records is the shared mapping; read with absolute gets at offset, do not keep a reference
+        void visit(String nickname, ByteBuffer records, int offset);
+    }
+
+    public MappedAccountFile(Path dataFile) throws IOException {
+        Path indexFile = dataFile.resolveSibling(dataFile.getFileName() + ".idx");
+        this.channel = FileChannel.open(dataFile, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+
+        boolean fresh = channel.size() < HEADER_SIZE;
+        long existing = fresh ? 0 : (channel.size() - HEADER_SIZE) / RECORD_SIZE;
+        map((int) Math.max(INITIAL_CAPACITY, existing));
+
+        if (fresh) {
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(4, VERSION);
+            buffer.putInt(8, 0);
+        } else if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            channel.close();
+            throw new IOException("Not a version " + VERSION + " account file: " + dataFile);
+        }
+
+        loadIndex(indexFile);
+        boolean newIndex = !Files.exists(indexFile);
+        this.indexOut = FileChannel.open(indexFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+        if (newIndex) DurableFiles.syncDirectory(indexFile.toAbsolutePath().getParent());
+    }
+
+    public synchronized int size() {
+        return live;
+    }
+
+    public synchronized boolean contains(String nickname) {
+        return slots.containsKey(nickname);
+    }
+
+    public synchronized Player read(String nickname) {
+        Integer slot = slots.get(nickname);
+        return slot != null ? decode(nickname, buffer, offset(slot)) : null;
+    }
+
+    /** Builds a Player from the record at offset, e.g. inside forEachRecord. */
+    public static Player decode(String nickname, ByteBuffer records, int base) {
+        Player p = new Player(nickname);
+        p.setGold(records.getInt(base + OFF_GOLD));
+        p.setLevel(records.getInt(base + OFF_LEVEL));
+        p.setVictories(records.getInt(base + OFF_VICTORIES));
+        p.setCampaignProgress(records.getInt(base + OFF_PROGRESS));
+
+        int[] upgrades = new int[UPGRADE_SLOTS];
+        for (int i = 0; i < UPGRADE_SLOTS; i++) {
+            upgrades[i] = records.getInt(base + OFF_UPGRADES + i * 4);
+        }
+        p.setUpgrades(upgrades);
+
+        Map<String, Integer> inv = new HashMap<>();
+        for (int i = 0; i < ITEMS.length; i++) {
+            int count = records.getInt(base + OFF_ITEMS + i * 4);
+            if (count > 0) inv.put(ITEMS[i], count);
+        }
+        p.setInventory(inv);
+        return p;
+    }
+
+    /** Fails for a player with an upgrade or item the record has no slot for, instead of dropping it. */
+    public static void checkStorable(Player p) throws IOException {
+        // PlayerCodec keeps upgrades past UPGRADE_TYPES, so other backends can hold more than fit here
+        for (int i = UPGRADE_SLOTS; i < p.getUpgradeCount(); i++) {
+            if (p.getUpgradeLevel(i) != 0) {
+                throw new IOException("Upgrade " + i + " of " + p.getNickname()
+                        + " has no slot in the mapped account format");
+            }
+        }
+        for (Map.Entry<String, Integer> item : p.getInventory().entrySet()) {
+            if (item.getValue() > 0 && itemSlot(item.getKey()) < 0) {
+                throw new IOException("Item " + item.getKey() + " of " + p.getNickname()
+                        + " has no slot in the mapped account format");
+            }
+        }
+    }
+
+    public synchronized void write(Player p) throws IOException {
+        checkStorable(p);
+        Integer slot = slots.get(p.getNickname());
+        if (slot == null) {
+            slot = allocate(p.getNickname());
+        }
+
+        int base = offset(slot);
+        buffer.putInt(base + OFF_GOLD, p.getGold());
+        buffer.putInt(base + OFF_LEVEL, p.getLevel());
+        buffer.putInt(base + OFF_VICTORIES, p.getVictories());
+        buffer.putInt(base + OFF_PROGRESS, p.getCampaignProgress());
+        for (int i = 0; i < UPGRADE_SLOTS; i++) {
+            buffer.putInt(base + OFF_UPGRADES + i * 4, p.getUpgradeLevel(i));
+        }
+        Map<String, Integer> inv = p.getInventory();
+        for (int i = 0; i < ITEMS.length; i++) {
+            buffer.putInt(base + OFF_ITEMS + i * 4, inv.getOrDefault(ITEMS[i], 0));
+        }
+    }
+
+    /** Visits every record in slot order without copying it out of the mapping. */
+    public synchronized void forEachRecord(RecordVisitor visitor) {
+        ByteBuffer view = buffer.asReadOnlyBuffer();
+        for (int slot = 0; slot < nicknames.size(); slot++) {
+            String nickname = nicknames.get(slot);
+            if (nickname != null) visitor.visit(nickname, view, offset(slot));
+        }
+    }
+
+    /** Makes every write so far durable: the index lines of new accounts as well as the records. */
+    public synchronized void force() throws IOException {
+        buffer.force();
+        // Without the index line a record that reached the disk is not found on the next start.
+        // Records first: an index line whose record is missing is cut off as a torn tail.
+        if (indexDirty) {
+            channel.force(true); // size of a data file that grew for the new slots
+            indexOut.force(true);
+            indexDirty = false;
+        }
+    }
+
+    private int allocate(String nickname) throws IOException {
+        int slot = nicknames.size();
+        if (slot >= capacity) {
+            map(capacity * 2);
+        }
+
+        // Record header first: an index line is only trusted when the hash at its slot matches
+        int base = offset(slot);
+        buffer.putInt(base + OFF_FLAGS, FLAG_IN_USE);
+        buffer.putLong(base + OFF_HASH, hash(nickname));
+        ByteBuffer line = ByteBuffer.wrap((nickname + "\n").getBytes(StandardCharsets.UTF_8));
+        while (line.hasRemaining()) indexOut.write(line);
+        indexDirty = true;
+        buffer.putInt(8, slot + 1);
+
+        slots.put(nickname, slot);
+        nicknames.add(nickname);
+        live++;
+        return slot;
+    }
+
+    private void loadIndex(Path indexFile) throws IOException {
+        if (!Files.exists(indexFile)) return;
+
+        List<String> lines = Files.readAllLines(indexFile, StandardCharsets.UTF_8);
+        // Lines past the last good record are a torn tail: their records never made it to disk
+        int end = 0;
+        for (int slot = 0; slot < Math.min(lines.size(), capacity); slot++) {
+            if (matches(slot, lines.get(slot))) end = slot + 1;
+        }
+        for (int slot = 0; slot < end; slot++) {
+            String line = lines.get(slot);
+            if (!matches(slot, line)) {
+                // A damaged record in the middle: skip its slot, keep every account after it
+                System.err.println("Skipping corrupt account record " + slot + " (" + line + ")");
+                nicknames.add(null);
+                continue;
+            }
+            Integer older = slots.put(line, slot);
+            if (older != null) {
+                nicknames.set(older, null);
+                live--;
+            }
+            nicknames.add(line);
+            live++;
+        }
+        if (end < lines.size()) {
+            Files.write(indexFile, lines.subList(0, end), StandardCharsets.UTF_8);
+        }
+        buffer.putInt(8, end);
+    }
+
+    private boolean matches(int slot, String nickname) {
+        return buffer.getLong(offset(slot) + OFF_HASH) == hash(nickname);
+    }
+
+    private static int itemSlot(String item) {
+        for (int i = 0; i < ITEMS.length; i++) {
+            if (ITEMS[i].equals(item)) return i;
+        }
+        return -1;
+    }
+
+    private void map(int records) throws IOException {
+        capacity = records;
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long) records * RECORD_SIZE);
+    }
+
+    private static int offset(int slot) {
+        return HEADER_SIZE + slot * RECORD_SIZE;
+    }
+
+    // 64-bit FNV-1a over the UTF-16 code units
+    static long hash(String s) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < s.length(); i++) {
+            h ^= s.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        return h;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        force();
+        indexOut.close();
+        channel.close();
+    }
+}
@@ -0,0 +1,62 @@
+package com.amin.battlearena.persistence;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.function.Consumer;
+
+import com.amin.battlearena.domain.account.Player;
+
+/** Fixed-size records in a MappedAccountFile; saves are in-place writes plus one msync per batch. */
+public final class MappedAccountStore implements AccountStore {
+    private final MappedAccountFile file;
+
+    public MappedAccountStore(Path dataFile) throws IOException {
+        this.file = new MappedAccountFile(dataFile);
+    }
+
+    public MappedAccountFile getFile() {
+        return file;
+    }
+
+    @Override
+    public Player load(String nickname) {
+        return file.read(nickname);
+    }
+
+    @Override
+    public void saveAll(Collection<Player> batch) throws IOException {
+        // Check the whole batch first, so a bad player fails it before anything is written
+        for (Player p : batch) {
+            MappedAccountFile.checkStorable(p);
+        }
+        for (Player p : batch) {
+            file.write(p);
+        }
+        file.force();
+    }
+
+    @Override
+    public int size() {
+        return file.size();
+    }
+
+    @Override
+    public void forEach(Consumer<Player> action) {
+        file.forEachRecord((nickname, records, offset) -> action.accept(MappedAccountFile.decode(nickname, records, offset)));
+    }
+
+    // Straight from the mapping: no Player per account
+    @Override
+    public void forEachScore(ScoreVisitor visitor) {
+        file.forEachRecord((nickname, records, offset) -> visitor.visit(nickname,
+                records.getInt(offset + MappedAccountFile.OFF_VICTORIES),
+                records.getInt(offset + MappedAccountFile.OFF_GOLD),
+                records.getInt(offset + MappedAccountFile.OFF_PROGRESS)));
+    }
+
+    @Override
+    public void close() throws IOException {
+        file.close();
+    }
+}
@@ -0,0 +1,397 @@
+package com.amin.battlearena.persistence;
+
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.TreeSet;
+
+import com.amin.battlearena.domain.account.Player;
+import com.amin.battlearena.domain.consumable.ConsumableFactory;
+import com.amin.battlearena.infra.Varints;
+
+/**
+ * Player records as bytes. Binary records start with a version byte followed by tagged
+ * fields (field number and wire type in one varint), so fields can be added without
+ * breaking older readers and unknown fields are skipped. Records in the legacy
+ * "nick|gold|level|..." text format are recognised by their first byte and decoded from
+ * the same buffer. Decoding parses in place instead of splitting the record into strings
+ * first: besides the Player (with its upgrade array and inventory map) it allocates the
+ * nickname and any item name the game does not know about.
+ */
+public final class PlayerCodec {
+    public static final int VERSION = 1;
+
+    // Field numbers are permanent: add new ones, never renumber or reuse
+    private static final int F_NICKNAME = 1;
+    private static final int F_GOLD = 2;
+    private static final int F_LEVEL = 3;
+    private static final int F_VICTORIES = 4;
+    private static final int F_PROGRESS = 5;
+    private static final int F_UPGRADES = 6;
+    private static final int F_ITEM = 7;
+
+    private static final int WIRE_VARINT = 0;
+    private static final int WIRE_LEN = 2;
+
+    // Text records never start with a control byte, binary records always do
+    private static final int FIRST_TEXT_BYTE = 0x20;
+    private static final byte[] EMPTY = "EMPTY".getBytes(StandardCharsets.US_ASCII);
+
+    private static final String[] KNOWN_ITEMS = new TreeSet<>(ConsumableFactory.getItemNames()).toArray(new String[0]);
+    private static final byte[][] KNOWN_ITEM_BYTES = new byte[KNOWN_ITEMS.length][];
+
+    static {
+        for (int i = 0; i < KNOWN_ITEMS.length; i++) {
+            KNOWN_ITEM_BYTES[i] = KNOWN_ITEMS[i].getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    private static final ThreadLocal<ByteBuffer> SCRATCH = ThreadLocal.withInitial(() -> ByteBuffer.allocate(256));
+
+    private PlayerCodec() {}
+
+    public static byte[] encode(Player p) {
+        ByteBuffer buf = SCRATCH.get();
+        while (true) {
+            buf.clear();
+            try {
+                encode(p, buf);
+                break;
+            } catch (BufferOverflowException e) {
+                buf = ByteBuffer.allocate(buf.capacity() * 2);
+                SCRATCH.set(buf);
+            }
+        }
+        byte[] out = new byte[buf.position()];
+        buf.flip();
+        buf.get(out);
+        return out;
+    }
+
+    /** Writes one binary record at the buffer's position. */
+    public static void encode(Player p, ByteBuffer out) {
+        out.put((byte) VERSION);
+
+        Varints.write(out, tag(F_NICKNAME, WIRE_LEN));
+        Varints.write(out, utf8Length(p.getNickname()));
+        putUtf8(out, p.getNickname());
+
+        putVarintField(out, F_GOLD, p.getGold());
+        putVarintField(out, F_LEVEL, p.getLevel());
+        putVarintField(out, F_VICTORIES, p.getVictories());
+        putVarintField(out, F_PROGRESS, p.getCampaignProgress());
+
+        int count = p.getUpgradeCount();
+        int packed = 0;
+        for (int i = 0; i < count; i++) packed += Varints.size(Varints.zigzag(p.getUpgradeLevel(i)));
+        Varints.write(out, tag(F_UPGRADES, WIRE_LEN));
+        Varints.write(out, packed);
+        for (int i = 0; i < count; i++) Varints.writeSigned(out, p.getUpgradeLevel(i));
+
+        for (Map.Entry<String, Integer> item : p.getInventory().entrySet()) {
+            String name = item.getKey();
+            int nameLength = utf8Length(name);
+            int quantity = Varints.zigzag(item.getValue());
+            Varints.write(out, tag(F_ITEM, WIRE_LEN));
+            Varints.write(out, Varints.size(nameLength) + nameLength + Varints.size(quantity));
+            Varints.write(out, nameLength);
+            putUtf8(out, name);
+            Varints.write(out, quantity);
+        }
+    }
+
+    /** Decodes the record between the buffer's position and limit, binary or legacy text. */
+    public static Player decode(ByteBuffer in) {
+        try {
+            int first = in.get(in.position()) & 0xFF;
+            if (first >= FIRST_TEXT_BYTE) return decodeText(in);
+            if (first != VERSION) {
+                throw new IllegalArgumentException("Unsupported player record version " + first);
+            }
+            in.get();
+            return decodeBinary(in);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Truncated player record", e);
+        }
+    }
+
+    /**
+     * decode() for records read back from a store: a record that cannot be decoded becomes an
+     * IOException naming it, so callers treat it like any other unreadable account.
+     */
+    static Player decodeStored(String key, ByteBuffer in) throws IOException {
+        try {
+            return decode(in);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Corrupt record for " + key, e);
+        }
+    }
+
+    /** Reads just the nickname of a record without moving the buffer's position. */
+    public static String nickname(ByteBuffer in) {
+        int start = in.position();
+        try {
+            if ((in.get(start) & 0xFF) >= FIRST_TEXT_BYTE) {
+                return readUtf8(in, indexOf(in, start, (byte) '|') - start);
+            }
+            in.get();
+            if (Varints.read(in) != tag(F_NICKNAME, WIRE_LEN)) {
+                throw new IllegalArgumentException("Player record does not start with a nickname");
+            }
+            return readUtf8(in, Varints.read(in));
+        } finally {
+            in.position(start);
+        }
+    }
+
+    /** Appends the legacy pipe-separated form, without a line terminator. */
+    public static void encodeText(Player p, StringBuilder sb) {
+        sb.append(p.getNickname()).append('|')
+          .append(p.getGold()).append('|')
+          .append(p.getLevel()).append('|')
+          .append(p.getVictories()).append('|')
+          .append(p.getCampaignProgress()).append('|');
+        for (int i = 0; i < p.getUpgradeCount(); i++) {
+            if (i > 0) sb.append(',');
+            sb.append(p.getUpgradeLevel(i));
+        }
+        sb.append('|');
+
+        Map<String, Integer> inv = p.getInventory();
+        if (inv.isEmpty()) {
+            sb.append("EMPTY");
+        } else {
+            boolean first = true;
+            for (Map.Entry<String, Integer> entry : inv.entrySet()) {
+                if (!first) sb.append(',');
+                sb.append(entry.getKey()).append(':').append(entry.getValue());
+                first = false;
+            }
+        }
+    }
+
+    private static Player decodeBinary(ByteBuffer in) {
+        Player p = null;
+        int gold = 0;
+        int level = 1;
+        int victories = 0;
+        int progress = 1;
+
+        while (in.hasRemaining()) {
+            int tag = Varints.read(in);
+            int field = tag >>> 3;
+            int wire = tag & 7;
+
+            if (field == F_NICKNAME && wire == WIRE_LEN) {
+                p = new Player(readUtf8(in, Varints.read(in)));
+            } else if (field == F_GOLD && wire == WIRE_VARINT) {
+                gold = Varints.readSigned(in);
+            } else if (field == F_LEVEL && wire == WIRE_VARINT) {
+                level = Varints.readSigned(in);
+            } else if (field == F_VICTORIES && wire == WIRE_VARINT) {
+                victories = Varints.readSigned(in);
+            } else if (field == F_PROGRESS && wire == WIRE_VARINT) {
+                progress = Varints.readSigned(in);
+            } else if (field == F_UPGRADES && wire == WIRE_LEN) {
+                requireNickname(p);
+                p.setUpgrades(readPackedUpgrades(in, Varints.read(in)));
+            } else if (field == F_ITEM && wire == WIRE_LEN) {
+                requireNickname(p);
+                int end = Varints.read(in) + in.position();
+                String name = readItemName(in, Varints.read(in));
+                p.addItems(name, Varints.readSigned(in));
+                in.position(end);
+            } else {
+                skip(in, wire);
+            }
+        }
+
+        requireNickname(p);
+        p.setGold(gold);
+        p.setLevel(level);
+        p.setVictories(victories);
+        p.setCampaignProgress(progress);
+        return p;
+    }
+
+    private static int[] readPackedUpgrades(ByteBuffer in, int length) {
+        int end = in.position() + length;
+        // One value per byte without the continuation bit; newer saves may carry more slots
+        int count = 0;
+        for (int i = in.position(); i < end; i++) {
+            if (in.get(i) >= 0) count++;
+        }
+        int[] upgrades = new int[Math.max(Player.UPGRADE_TYPES, count)];
+        for (int i = 0; i < count; i++) {
+            upgrades[i] = Varints.readSigned(in);
+        }
+        in.position(end);
+        return upgrades;
+    }
+
+    private static Player decodeText(ByteBuffer in) {
+        int end = in.limit();
+        // Stop at the line terminator if the caller handed us a whole line
+        for (int i = in.position(); i < in.limit(); i++) {
+            byte b = in.get(i);
+            if (b == '\n' || b == '\r') {
+                end = i;
+                break;
+            }
+        }
+
+        int nickEnd = indexOf(in, in.position(), (byte) '|');
+        if (nickEnd >= end) throw new IllegalArgumentException("Player record has no fields");
+        Player p = new Player(readUtf8(in, nickEnd - in.position()));
+        in.get();
+
+        p.setGold(parseInt(in, end));
+        p.setLevel(parseInt(in, end));
+        p.setVictories(parseInt(in, end));
+        p.setCampaignProgress(parseInt(in, end));
+
+        int upgradesEnd = indexOf(in, in.position(), (byte) '|');
+        int count = 1;
+        for (int i = in.position(); i < upgradesEnd; i++) {
+            if (in.get(i) == ',') count++;
+        }
+        int[] upgrades = new int[Math.max(Player.UPGRADE_TYPES, count)];
+        for (int i = 0; i < count; i++) {
+            upgrades[i] = parseInt(in, end);
+        }
+        p.setUpgrades(upgrades);
+
+        if (!matches(in, in.position(), end - in.position(), EMPTY)) {
+            while (in.position() < end) {
+                int colon = indexOf(in, in.position(), (byte) ':');
+                String name = readItemName(in, colon - in.position());
+                in.get();
+                p.addItems(name, parseInt(in, end));
+            }
+        }
+        in.position(Math.min(in.limit(), end + 1));
+        return p;
+    }
+
+    // Parses a decimal int and consumes the delimiter after it
+    private static int parseInt(ByteBuffer in, int end) {
+        int pos = in.position();
+        boolean negative = pos < end && in.get(pos) == '-';
+        if (negative) pos++;
+        int value = 0;
+        int digits = 0;
+        while (pos < end) {
+            int d = in.get(pos) - '0';
+            if (d < 0 || d > 9) break;
+            value = value * 10 + d;
+            pos++;
+            digits++;
+        }
+        if (digits == 0) throw new IllegalArgumentException("Expected a number at byte " + pos);
+        in.position(Math.min(pos + 1, end));
+        return negative ? -value : value;
+    }
+
+    private static String readItemName(ByteBuffer in, int length) {
+        int start = in.position();
+        for (int i = 0; i < KNOWN_ITEMS.length; i++) {
+            if (matches(in, start, length, KNOWN_ITEM_BYTES[i])) {
+                in.position(start + length);
+                return KNOWN_ITEMS[i];
+            }
+        }
+        return readUtf8(in, length);
+    }
+
+    private static boolean matches(ByteBuffer in, int start, int length, byte[] expected) {
+        if (length != expected.length) return false;
+        for (int i = 0; i < length; i++) {
+            if (in.get(start + i) != expected[i]) return false;
+        }
+        return true;
+    }
+
+    private static int indexOf(ByteBuffer in, int from, byte b) {
+        for (int i = from; i < in.limit(); i++) {
+            if (in.get(i) == b) return i;
+        }
+        return in.limit();
+    }
+
+    private static String readUtf8(ByteBuffer in, int length) {
+        if (in.remaining() < length) throw new BufferUnderflowException();
+        String s;
+        if (in.hasArray()) {
+            s = new String(in.array(), in.arrayOffset() + in.position(), length, StandardCharsets.UTF_8);
+        } else {
+            byte[] bytes = new byte[length];
+            in.get(in.position(), bytes);
+            s = new String(bytes, StandardCharsets.UTF_8);
+        }
+        in.position(in.position() + length);
+        return s;
+    }
+
+    private static void skip(ByteBuffer in, int wire) {
+        if (wire == WIRE_VARINT) {
+            Varints.read(in);
+        } else if (wire == WIRE_LEN) {
+            int length = Varints.read(in);
+            in.position(in.position() + length);
+        } else {
+            throw new IllegalArgumentException("Unknown wire type " + wire);
+        }
+    }
+
+    private static void requireNickname(Player p) {
+        if (p == null) throw new IllegalArgumentException("Player record does not start with a nickname");
+    }
+
+    private static void putVarintField(ByteBuffer out, int field, int value) {
+        Varints.write(out, tag(field, WIRE_VARINT));
+        Varints.writeSigned(out, value);
+    }
+
+    private static int tag(int field, int wire) {
+        return (field << 3) | wire;
+    }
+
+    private static int utf8Length(String s) {
+        int length = 0;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c < 0x80) length += 1;
+            else if (c < 0x800) length += 2;
+            else if (i + 1 < s.length() && Character.isSurrogatePair(c, s.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else length += 3;
+        }
+        return length;
+    }
+
+    private static void putUtf8(ByteBuffer out, String s) {
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c < 0x80) {
+                out.put((byte) c);
+            } else if (c < 0x800) {
+                out.put((byte) (0xC0 | (c >> 6)));
+                out.put((byte) (0x80 | (c & 0x3F)));
+            } else if (i + 1 < s.length() && Character.isSurrogatePair(c, s.charAt(i + 1))) {
+                int cp = Character.toCodePoint(c, s.charAt(++i));
+                out.put((byte) (0xF0 | (cp >> 18)));
+                out.put((byte) (0x80 | ((cp >> 12) & 0x3F)));
+                out.put((byte) (0x80 | ((cp >> 6) & 0x3F)));
+                out.put((byte) (0x80 | (cp & 0x3F)));
+            } else {
+                out.put((byte) (0xE0 | (c >> 12)));
+                out.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+                out.put((byte) (0x80 | (c & 0x3F)));
+            }
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.amin.battlearena.persistence;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import com.amin.battlearena.domain.account.Player;
+
+/**
+ * The original one-line-per-player text file. Every batch rewrites the whole file, so this
+ * backend only suits small installs and hand-editable saves.
+ */
+public final class TextFileAccountStore implements AccountStore {
+    private final Path file;
+    private final Path tempFile;
+    private final Map<String, String> lines = new LinkedHashMap<>();
+
+    public TextFileAccountStore(Path file) throws IOException {
+        this.file = file;
+        this.tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+        if (!Files.exists(file)) return;
+        if (AccountJournal.isBinarySnapshot(file)) {
+            throw new IOException(file + " holds a compacted journal snapshot; export it to text before switching backends");
+        }
+
+        try (BufferedReader br = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                int sep = line.indexOf('|');
+                if (sep > 0) lines.put(line.substring(0, sep), line);
+            }
+        }
+    }
+
+    @Override
+    public synchronized Player load(String nickname) throws IOException {
+        String line = lines.get(nickname);
+        return line != null ? decode(nickname, line) : null;
+    }
+
+    @Override
+    public synchronized void saveAll(Collection<Player> batch) throws IOException {
+        StringBuilder sb = new StringBuilder(128);
+        for (Player p : batch) {
+            sb.setLength(0);
+            PlayerCodec.encodeText(p, sb);
+            lines.put(p.getNickname(), sb.toString());
+        }
+
+        try (BufferedWriter out = Files.newBufferedWriter(tempFile, StandardCharsets.UTF_8)) {
+            for (String line : lines.values()) {
+                out.write(line);
+                out.newLine();
+            }
+        }
+        // The batch counts as saved once this returns, so the rename must survive a crash
+        DurableFiles.replace(tempFile, file);
+    }
+
+    @Override
+    public synchronized int size() {
+        return lines.size();
+    }
+
+    @Override
+    public synchronized void forEach(Consumer<Player> action) {
+        for (Map.Entry<String, String> line : lines.entrySet()) {
+            Player p;
+            try {
+                p = decode(line.getKey(), line.getValue());
+            } catch (IOException e) {
+                // One bad line must not hide every other account from a scan
+                System.err.println("Skipping " + e.getMessage());
+                continue;
+            }
+            action.accept(p);
+        }
+    }
+
+    private static Player decode(String nickname, String line) throws IOException {
+        return PlayerCodec.decodeStored(nickname, ByteBuffer.wrap(line.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Override
+    public void close() {
+    }
+}
@@ -0,0 +1,218 @@
+package com.amin.battlearena.persistence;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only log of checksummed records. Appends from any number of threads are queued and
+ * written by one committer thread, which covers everything queued so far with a single
+ * fsync (group commit). Each append's future completes once its record is durable.
+ */
+public final class WriteAheadLog implements Closeable {
+    private static final int MAGIC = 0x4241574C; // "BAWL"
+    private static final int FILE_HEADER = 4;
+    private static final int RECORD_HEADER = 8; // payload length + CRC32
+
+    private static final class Entry {
+        final byte[] payload;
+        final CompletableFuture<Void> done = new CompletableFuture<>();
+
+        Entry(byte[] payload) {
+            this.payload = payload;
+        }
+    }
+
+    private static final Entry CLOSE = new Entry(new byte[0]);
+
+    private final FileChannel channel;
+    private final BlockingQueue<Entry> queue = new LinkedBlockingQueue<>();
+    private final Thread committer;
+    private boolean closed;
+    // Set when a failed write could not be undone; every later commit fails with it
+    private IOException broken;
+
+    public WriteAheadLog(Path file) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        if (channel.size() == 0) {
+            ByteBuffer header = ByteBuffer.allocate(FILE_HEADER).putInt(0, MAGIC);
+            channel.write(header, 0);
+        }
+        channel.position(channel.size());
+
+        this.committer = new Thread(this::commitLoop, "wal-" + file.getFileName());
+        committer.setDaemon(true);
+        committer.start();
+    }
+
+    /**
+     * Feeds every intact record of the log to the consumer in order. A torn or corrupt tail
+     * left by a crash is cut off so new appends start from the last good record.
+     */
+    public static int replay(Path file, Consumer<ByteBuffer> consumer) throws IOException {
+        if (!Files.exists(file)) return 0;
+
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long size = ch.size();
+            if (size == 0) return 0;
+
+            ByteBuffer magic = ByteBuffer.allocate(FILE_HEADER);
+            if (ch.read(magic, 0) < FILE_HEADER || magic.getInt(0) != MAGIC) {
+                throw new IOException("Not a write-ahead log: " + file);
+            }
+
+            ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER);
+            CRC32 crc = new CRC32();
+            long pos = FILE_HEADER;
+            int count = 0;
+            while (pos + RECORD_HEADER <= size) {
+                header.clear();
+                ch.read(header, pos);
+                int length = header.getInt(0);
+                int checksum = header.getInt(4);
+                if (length < 0 || pos + RECORD_HEADER + length > size) break;
+
+                ByteBuffer payload = ByteBuffer.allocate(length);
+                ch.read(payload, pos + RECORD_HEADER);
+                payload.flip();
+                crc.reset();
+                crc.update(payload.duplicate());
+                if ((int) crc.getValue() != checksum) break;
+
+                consumer.accept(payload);
+                pos += RECORD_HEADER + length;
+                count++;
+            }
+            if (pos < size) {
+                ch.truncate(pos);
+                ch.force(true);
+            }
+            return count;
+        }
+    }
+
+    public CompletableFuture<Void> append(byte[] payload) {
+        Entry entry = new Entry(payload);
+        synchronized (this) {
+            if (closed) {
+                entry.done.completeExceptionally(new IOException("Write-ahead log is closed"));
+                return entry.done;
+            }
+            queue.add(entry);
+        }
+        return entry.done;
+    }
+
+    private void commitLoop() {
+        List<Entry> batch = new ArrayList<>();
+        CRC32 crc = new CRC32();
+        Throwable death = null;
+        try {
+            boolean running = true;
+            while (running) {
+                batch.add(queue.take());
+                queue.drainTo(batch);
+
+                int end = batch.indexOf(CLOSE);
+                if (end >= 0) {
+                    running = false;
+                    batch = new ArrayList<>(batch.subList(0, end));
+                }
+                commit(batch, crc);
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            death = e;
+        } catch (RuntimeException | Error e) {
+            death = e;
+            throw e;
+        } finally {
+            failPending(batch, death);
+        }
+    }
+
+    // Once the committer is gone nothing would ever complete these
+    private void failPending(List<Entry> batch, Throwable cause) {
+        IOException stopped = new IOException("Write-ahead log committer stopped", cause);
+        synchronized (this) {
+            closed = true;
+        }
+        for (Entry e : batch) e.done.completeExceptionally(stopped);
+        Entry e;
+        while ((e = queue.poll()) != null) e.done.completeExceptionally(stopped);
+    }
+
+    private void commit(List<Entry> batch, CRC32 crc) {
+        if (batch.isEmpty()) return;
+        if (broken != null) {
+            for (Entry e : batch) e.done.completeExceptionally(broken);
+            return;
+        }
+
+        int total = 0;
+        for (Entry e : batch) total += RECORD_HEADER + e.payload.length;
+
+        ByteBuffer buf = ByteBuffer.allocate(total);
+        for (Entry e : batch) {
+            crc.reset();
+            crc.update(e.payload);
+            buf.putInt(e.payload.length).putInt((int) crc.getValue()).put(e.payload);
+        }
+        buf.flip();
+
+        long start = -1;
+        try {
+            start = channel.position();
+            while (buf.hasRemaining()) {
+                channel.write(buf);
+            }
+            channel.force(false);
+            for (Entry e : batch) e.done.complete(null);
+        } catch (IOException ex) {
+            rollBack(start, ex);
+            for (Entry e : batch) e.done.completeExceptionally(ex);
+        }
+    }
+
+    // A torn batch left in place would end replay there and hide every later, acknowledged record
+    private void rollBack(long start, IOException cause) {
+        try {
+            if (start < 0) throw new IOException("Log position unknown");
+            channel.truncate(start);
+            channel.position(start);
+        } catch (IOException e) {
+            cause.addSuppressed(e);
+            broken = new IOException("Write-ahead log could not be rolled back after a failed write", cause);
+        }
+    }
+
+    /** Commits everything already queued, then closes the file. */
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            // Already closed by a dead committer: the channel still needs closing
+            if (!closed) {
+                closed = true;
+                queue.add(CLOSE);
+            }
+        }
+        try {
+            committer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        channel.close();
+    }
+}
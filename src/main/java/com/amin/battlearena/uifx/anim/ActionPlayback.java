@@ -0,0 +1,115 @@
+package com.amin.battlearena.uifx.anim;
+
+import java.util.List;
+
+import com.amin.battlearena.engine.GameEngine;
+import com.amin.battlearena.engine.replay.ReplayAction;
+
+import javafx.animation.AnimationTimer;
+import javafx.application.Platform;
+
+/**
+ * Plays planned actions onto the live engine from an AnimationTimer: one action per step
+ * interval, and never more work per frame than the frame budget, so a long turn can neither
+ * stall a frame nor flash by. Every applied action publishes its engine events as usual, which
+ * is what moves the board and fills the log. Use on the FX thread.
+ */
+public final class ActionPlayback extends AnimationTimer {
+    // Pause between actions at normal speed, overridable with -Dbattlearena.animStepMs=...
+    private static final long STEP_NANOS = Long.getLong("battlearena.animStepMs", 350) * 1_000_000L;
+    // Work allowed per frame before the rest waits for the next pulse
+    private static final long FRAME_BUDGET_NANOS = Long.getLong("battlearena.animBudgetMs", 4) * 1_000_000L;
+    public static final int FAST_FORWARD = 4;
+
+    private final GameEngine engine;
+    private final Runnable onStep;
+    private final Runnable onFinished;
+    private List<ReplayAction> actions = List.of();
+    private int next;
+    private long nextDue;
+    private int speed = 1;
+    private boolean playing;
+    // Bumped by cancel(), so a finish already handed to runLater is dropped
+    private int generation;
+    private boolean diverged;
+
+    /** onStep runs after each applied action, onFinished once the plan is done or skipped. */
+    public ActionPlayback(GameEngine engine, Runnable onStep, Runnable onFinished) {
+        this.engine = engine;
+        this.onStep = onStep;
+        this.onFinished = onFinished;
+    }
+
+    public void play(List<ReplayAction> plan) {
+        if (playing) throw new IllegalStateException("Playback already running");
+        actions = plan;
+        next = 0;
+        nextDue = 0;
+        diverged = false;
+        playing = true;
+        start();
+    }
+
+    @Override
+    public void handle(long now) {
+        if (!playing) return;
+        if (nextDue == 0) nextDue = now;
+        long frameStart = System.nanoTime();
+        while (next < actions.size() && now >= nextDue && !diverged) {
+            step();
+            nextDue += STEP_NANOS / speed;
+            if (System.nanoTime() - frameStart >= FRAME_BUDGET_NANOS) break;
+        }
+        if (next >= actions.size() || diverged) finish();
+    }
+
+    /** Applies everything that is left right away. */
+    public void skip() {
+        if (!playing) return;
+        while (next < actions.size() && !diverged) step();
+        finish();
+    }
+
+    /** Toggles between normal speed and FAST_FORWARD times faster. */
+    public void toggleFastForward() {
+        speed = speed == 1 ? FAST_FORWARD : 1;
+    }
+
+    public int getSpeed() {
+        return speed;
+    }
+
+    public boolean isPlaying() {
+        return playing;
+    }
+
+    /** True if an action no longer applied to the live engine; the rest of the plan was dropped. */
+    public boolean hasDiverged() {
+        return diverged;
+    }
+
+    /** Stops without applying the rest and without calling onFinished, e.g. when leaving. */
+    public void cancel() {
+        playing = false;
+        generation++;
+        stop();
+    }
+
+    private void step() {
+        if (!actions.get(next++).apply(engine)) {
+            diverged = true;
+            return;
+        }
+        onStep.run();
+    }
+
+    // onFinished may open dialogs (the game-over alert), which JavaFX forbids inside a pulse
+    private void finish() {
+        playing = false;
+        stop();
+        int finished = generation;
+        Platform.runLater(() -> {
+            if (finished == generation) onFinished.run();
+        });
+    }
+}
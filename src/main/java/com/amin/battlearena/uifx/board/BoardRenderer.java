@@ -0,0 +1,26 @@
+package com.amin.battlearena.uifx.board;
+
+import com.amin.battlearena.engine.BattleListener;
+
+/**
+ * A view of one Board that repaints from engine events. Register it with the engine; the
+ * controller calls sync() after its own actions and dispose() when the battle screen closes.
+ */
+public interface BoardRenderer extends BattleListener {
+    interface TileClickHandler {
+        void tileClicked(int x, int y);
+    }
+
+    /** Marks tile (x, y) as changed; off-board tiles are ignored. */
+    void invalidate(int x, int y);
+
+    /** Repaints what changed since the last sync; returns how many tiles were repainted. */
+    int sync();
+
+    /** Repaints every tile, for state that changed without events. */
+    int refreshAll();
+
+    HighlightLayer getHighlights();
+
+    void dispose();
+}
@@ -0,0 +1,123 @@
+package com.amin.battlearena.uifx.board;
+
+import com.amin.battlearena.domain.Board;
+import com.amin.battlearena.domain.Tile;
+import com.amin.battlearena.engine.BattleEvent;
+
+import javafx.scene.layout.GridPane;
+
+/**
+ * Diff-based board renderer. Tile nodes are built once; engine events mark the tiles they touch
+ * as dirty and sync() repaints only those, so the cost of a frame depends on what changed rather
+ * than on the board size. Events must arrive on the FX thread, like every other scene change.
+ */
+public final class BoardView implements BoardRenderer {
+    private final Board board;
+    private final int width;
+    private final TileView[] tiles;
+    private final HighlightLayer highlights;
+    // Dirty tiles as a deduplicated index list, so sync() never scans the whole board
+    private final boolean[] dirty;
+    private final int[] dirtyList;
+    private int dirtyCount;
+
+    public BoardView(GridPane grid, Board board, double tileSize, TileClickHandler onClick) {
+        this.board = board;
+        this.width = board.getWidth();
+        int size = width * board.getHeight();
+        this.tiles = new TileView[size];
+        this.dirty = new boolean[size];
+        this.dirtyList = new int[size];
+        this.highlights = new HighlightLayer(width, board.getHeight(), (index, color) -> tiles[index].setHighlight(color));
+
+        grid.getChildren().clear();
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < board.getHeight(); y++) {
+                TileView view = new TileView(x, y, tileSize);
+                int tx = x;
+                int ty = y;
+                view.setOnMouseClicked(e -> onClick.tileClicked(tx, ty));
+                tiles[y * width + x] = view;
+                grid.add(view, x, y);
+            }
+        }
+        refreshAll();
+    }
+
+    @Override
+    public void onBattleEvent(BattleEvent event) {
+        switch (event.getType()) {
+            case MOVE:
+                invalidate(event.getFrom());
+                invalidate(event.getTo());
+                break;
+            case DAMAGE:
+            case DEATH:
+            case ITEM:
+                invalidate(event.getTo());
+                break;
+            default:
+                // ATTACK is followed by DAMAGE; END_TURN changes nothing that is drawn
+                break;
+        }
+    }
+
+    /** The view of tile (x, y), or null off the board. */
+    public TileView tileAt(int x, int y) {
+        return board.isValid(x, y) ? tiles[y * width + x] : null;
+    }
+
+    @Override
+    public HighlightLayer getHighlights() {
+        return highlights;
+    }
+
+    @Override
+    public void invalidate(int x, int y) {
+        if (!board.isValid(x, y)) return;
+        int index = y * width + x;
+        if (!dirty[index]) {
+            dirty[index] = true;
+            dirtyList[dirtyCount++] = index;
+        }
+    }
+
+    private void invalidate(Tile tile) {
+        if (tile != null) invalidate(tile.getX(), tile.getY());
+    }
+
+    /** Repaints the tiles changed since the last sync; returns how many actually differed. */
+    @Override
+    public int sync() {
+        int repainted = 0;
+        for (int i = 0; i < dirtyCount; i++) {
+            int index = dirtyList[i];
+            dirty[index] = false;
+            if (repaint(index)) repainted++;
+        }
+        dirtyCount = 0;
+        return repainted;
+    }
+
+    /** Compares every tile with the board, for state that changed without events (e.g. a restore). */
+    @Override
+    public int refreshAll() {
+        for (int i = 0; i < dirtyCount; i++) dirty[dirtyList[i]] = false;
+        dirtyCount = 0;
+        int repainted = 0;
+        for (int i = 0; i < tiles.length; i++) {
+            if (repaint(i)) repainted++;
+        }
+        return repainted;
+    }
+
+    @Override
+    public void dispose() {
+        // Nothing runs in the background; the nodes go away with the scene
+    }
+
+    private boolean repaint(int index) {
+        Tile tile = board.getTile(index % width, index / width);
+        return tiles[index].render(tile.getOccupant());
+    }
+}
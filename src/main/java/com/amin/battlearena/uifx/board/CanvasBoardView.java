@@ -0,0 +1,332 @@
+package com.amin.battlearena.uifx.board;
+
+import com.amin.battlearena.domain.Board;
+import com.amin.battlearena.domain.Tile;
+import com.amin.battlearena.domain.character.Character;
+import com.amin.battlearena.engine.BattleEvent;
+
+import javafx.animation.AnimationTimer;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.Image;
+import javafx.scene.input.ScrollEvent;
+import javafx.scene.layout.Pane;
+import javafx.scene.paint.Color;
+
+/**
+ * Board renderer for large maps: one Canvas the size of the viewport instead of nodes per tile.
+ * Only tiles inside the viewport are drawn, engine events repaint just the rectangles of the
+ * tiles they touched, and unit icons come from a GlyphCache. Drag to pan, scroll to zoom.
+ * Repaints are coalesced into the next pulse by an AnimationTimer that runs while the view is in
+ * a scene and does nothing when nothing changed.
+ */
+public final class CanvasBoardView implements BoardRenderer {
+    private static final int MIN_TILE = 4;
+    private static final int MAX_TILE = 96;
+    // Below this tile size icons are unreadable, so units are drawn as team-coloured squares
+    private static final int MIN_GLYPH_TILE = 12;
+    private static final double DRAG_THRESHOLD = 4;
+    private static final Color OUTSIDE = Color.rgb(40, 40, 40);
+
+    private final Board board;
+    private final int width;
+    private final int height;
+    private final Pane host;
+    private final Canvas canvas;
+    private final GraphicsContext gc;
+    private final GlyphCache glyphs = new GlyphCache();
+    private final HighlightLayer highlights;
+    private final Color[] highlightColors;
+    private final boolean[] dirty;
+    private final int[] dirtyList;
+    private int dirtyCount;
+    private boolean fullRepaint = true;
+    private final AnimationTimer pulse;
+
+    // Camera: tile size in pixels and the world pixel shown at the canvas' top-left corner
+    private int tileSize;
+    private int offsetX;
+    private int offsetY;
+
+    private double pressX;
+    private double pressY;
+    private int pressOffsetX;
+    private int pressOffsetY;
+    private boolean dragging;
+
+    public CanvasBoardView(Board board, int tileSize, TileClickHandler onClick) {
+        this.board = board;
+        this.width = board.getWidth();
+        this.height = board.getHeight();
+        this.tileSize = clampTile(tileSize);
+        int size = width * height;
+        this.highlightColors = new Color[size];
+        this.dirty = new boolean[size];
+        this.dirtyList = new int[size];
+        this.highlights = new HighlightLayer(width, height, (index, color) -> {
+            highlightColors[index] = Color.TRANSPARENT.equals(color) ? null : color;
+            invalidate(index % width, index / width);
+        });
+
+        canvas = new Canvas();
+        gc = canvas.getGraphicsContext2D();
+        host = new Pane(canvas);
+        host.setMinSize(0, 0);
+        canvas.widthProperty().bind(host.widthProperty());
+        canvas.heightProperty().bind(host.heightProperty());
+        canvas.widthProperty().addListener((obs, old, now) -> fullRepaint = true);
+        canvas.heightProperty().addListener((obs, old, now) -> fullRepaint = true);
+
+        canvas.setOnMousePressed(e -> {
+            pressX = e.getX();
+            pressY = e.getY();
+            pressOffsetX = offsetX;
+            pressOffsetY = offsetY;
+            dragging = false;
+        });
+        canvas.setOnMouseDragged(e -> {
+            double dx = e.getX() - pressX;
+            double dy = e.getY() - pressY;
+            if (!dragging && Math.abs(dx) + Math.abs(dy) < DRAG_THRESHOLD) return;
+            dragging = true;
+            panTo(pressOffsetX - (int) dx, pressOffsetY - (int) dy);
+        });
+        canvas.setOnMouseClicked(e -> {
+            if (dragging) return;
+            int tx = tileAtScreen(e.getX(), offsetX);
+            int ty = tileAtScreen(e.getY(), offsetY);
+            if (board.isValid(tx, ty)) onClick.tileClicked(tx, ty);
+        });
+        canvas.setOnScroll(this::onScroll);
+
+        pulse = new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                sync();
+            }
+        };
+        // Only tick while on screen
+        host.sceneProperty().addListener((obs, old, scene) -> {
+            if (scene != null) pulse.start();
+            else pulse.stop();
+        });
+    }
+
+    /** The node to put in the scene; it fills whatever space its parent gives it. */
+    public Pane getNode() {
+        return host;
+    }
+
+    public int getTileSize() {
+        return tileSize;
+    }
+
+    /** Zooms so that the given screen point keeps showing the same spot of the board. */
+    public void zoom(int newTileSize, double anchorX, double anchorY) {
+        newTileSize = clampTile(newTileSize);
+        if (newTileSize == tileSize) return;
+        double worldX = (anchorX + offsetX) / tileSize;
+        double worldY = (anchorY + offsetY) / tileSize;
+        tileSize = newTileSize;
+        panTo((int) Math.round(worldX * tileSize - anchorX), (int) Math.round(worldY * tileSize - anchorY));
+        fullRepaint = true;
+    }
+
+    public void panTo(int worldX, int worldY) {
+        // Keep at least part of the board on screen
+        int maxX = width * tileSize - tileSize;
+        int maxY = height * tileSize - tileSize;
+        int minX = tileSize - (int) canvas.getWidth();
+        int minY = tileSize - (int) canvas.getHeight();
+        worldX = Math.max(Math.min(minX, 0), Math.min(worldX, maxX));
+        worldY = Math.max(Math.min(minY, 0), Math.min(worldY, maxY));
+        if (worldX == offsetX && worldY == offsetY) return;
+        offsetX = worldX;
+        offsetY = worldY;
+        fullRepaint = true;
+    }
+
+    private void onScroll(ScrollEvent e) {
+        if (e.getDeltaY() == 0) return;
+        int step = Math.max(1, tileSize / 8);
+        zoom(tileSize + (e.getDeltaY() > 0 ? step : -step), e.getX(), e.getY());
+        e.consume();
+    }
+
+    @Override
+    public void onBattleEvent(BattleEvent event) {
+        switch (event.getType()) {
+            case MOVE:
+                invalidate(event.getFrom());
+                invalidate(event.getTo());
+                break;
+            case DAMAGE:
+            case DEATH:
+            case ITEM:
+                invalidate(event.getTo());
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void invalidate(Tile tile) {
+        if (tile != null) invalidate(tile.getX(), tile.getY());
+    }
+
+    @Override
+    public void invalidate(int x, int y) {
+        if (!board.isValid(x, y)) return;
+        int index = y * width + x;
+        if (!dirty[index]) {
+            dirty[index] = true;
+            dirtyList[dirtyCount++] = index;
+        }
+    }
+
+    @Override
+    public HighlightLayer getHighlights() {
+        return highlights;
+    }
+
+    @Override
+    public int sync() {
+        if (!fullRepaint && dirtyCount == 0) return 0;
+        if (fullRepaint || dirtyCount > visibleTiles() / 4) {
+            return refreshAll();
+        }
+        int repainted = 0;
+        for (int i = 0; i < dirtyCount; i++) {
+            int index = dirtyList[i];
+            dirty[index] = false;
+            int x = index % width;
+            int y = index / width;
+            if (isVisible(x, y)) {
+                drawTile(x, y);
+                repainted++;
+            }
+        }
+        dirtyCount = 0;
+        return repainted;
+    }
+
+    @Override
+    public int refreshAll() {
+        for (int i = 0; i < dirtyCount; i++) dirty[dirtyList[i]] = false;
+        dirtyCount = 0;
+        fullRepaint = false;
+
+        double w = canvas.getWidth();
+        double h = canvas.getHeight();
+        gc.setFill(OUTSIDE);
+        gc.fillRect(0, 0, w, h);
+
+        int x0 = Math.max(0, tileAtScreen(0, offsetX));
+        int y0 = Math.max(0, tileAtScreen(0, offsetY));
+        int x1 = Math.min(width - 1, tileAtScreen(w - 1, offsetX));
+        int y1 = Math.min(height - 1, tileAtScreen(h - 1, offsetY));
+        if (x0 > x1 || y0 > y1) return 0;
+
+        // Empty tiles are one fill plus the grid lines; only lit or occupied tiles are drawn one by one
+        double left = x0 * tileSize - offsetX;
+        double top = y0 * tileSize - offsetY;
+        double right = (x1 + 1) * tileSize - offsetX;
+        double bottom = (y1 + 1) * tileSize - offsetY;
+        gc.setFill(Color.LIGHTGRAY);
+        gc.fillRect(left, top, right - left, bottom - top);
+        gc.setStroke(Color.BLACK);
+        gc.setLineWidth(1);
+        for (int x = x0; x <= x1 + 1; x++) {
+            double sx = x * tileSize - offsetX + 0.5;
+            gc.strokeLine(sx, top, sx, bottom);
+        }
+        for (int y = y0; y <= y1 + 1; y++) {
+            double sy = y * tileSize - offsetY + 0.5;
+            gc.strokeLine(left, sy, right, sy);
+        }
+
+        int drawn = 0;
+        for (int y = y0; y <= y1; y++) {
+            int row = y * width;
+            for (int x = x0; x <= x1; x++) {
+                if (highlightColors[row + x] != null || board.getTile(x, y).isOccupied()) {
+                    drawContent(x, y);
+                    drawn++;
+                }
+            }
+        }
+        return drawn;
+    }
+
+    @Override
+    public void dispose() {
+        pulse.stop();
+    }
+
+    // Repaints one tile's rectangle from scratch; it owns its left and top grid lines
+    private void drawTile(int x, int y) {
+        double sx = x * tileSize - offsetX;
+        double sy = y * tileSize - offsetY;
+        gc.setFill(Color.LIGHTGRAY);
+        gc.fillRect(sx, sy, tileSize, tileSize);
+        gc.setStroke(Color.BLACK);
+        gc.setLineWidth(1);
+        gc.strokeLine(sx + 0.5, sy, sx + 0.5, sy + tileSize);
+        gc.strokeLine(sx, sy + 0.5, sx + tileSize, sy + 0.5);
+        drawContent(x, y);
+    }
+
+    private void drawContent(int x, int y) {
+        double sx = x * tileSize - offsetX;
+        double sy = y * tileSize - offsetY;
+
+        Character c = board.getTile(x, y).getOccupant();
+        if (c != null) {
+            Color team = c.isPlayerTeam() ? Color.BLUE : Color.RED;
+            if (tileSize >= MIN_GLYPH_TILE) {
+                drawGlyph(glyphs.get(c.getIcon(), team, tileSize), sx, sy);
+            } else {
+                gc.setFill(team);
+                gc.fillRect(sx + 1, sy + 1, tileSize - 1, tileSize - 1);
+            }
+        }
+
+        Color highlight = highlightColors[y * width + x];
+        if (highlight != null) {
+            // 4px on the default 50px tile, inside the tile so neighbours are never overdrawn
+            double line = Math.max(1, tileSize * 4.0 / 50);
+            gc.setStroke(highlight);
+            gc.setLineWidth(line);
+            gc.strokeRect(sx + 1 + line / 2, sy + 1 + line / 2, tileSize - 1 - line, tileSize - 1 - line);
+        }
+    }
+
+    // At its natural size and centred, as the node renderer's StackPane lays out the label;
+    // shrunk (never stretched) only if it would spill into a neighbouring tile
+    private void drawGlyph(Image image, double sx, double sy) {
+        double scale = Math.min(1, (tileSize - 1) / Math.max(image.getWidth(), image.getHeight()));
+        double w = image.getWidth() * scale;
+        double h = image.getHeight() * scale;
+        gc.drawImage(image, sx + 1 + (tileSize - 1 - w) / 2, sy + 1 + (tileSize - 1 - h) / 2, w, h);
+    }
+
+    private boolean isVisible(int x, int y) {
+        double sx = x * tileSize - offsetX;
+        double sy = y * tileSize - offsetY;
+        return sx + tileSize > 0 && sy + tileSize > 0 && sx < canvas.getWidth() && sy < canvas.getHeight();
+    }
+
+    private int visibleTiles() {
+        int across = (int) canvas.getWidth() / tileSize + 2;
+        int down = (int) canvas.getHeight() / tileSize + 2;
+        return Math.max(1, Math.min(across, width) * Math.min(down, height));
+    }
+
+    private int tileAtScreen(double screen, int offset) {
+        return (int) Math.floor((screen + offset) / tileSize);
+    }
+
+    private static int clampTile(int size) {
+        return Math.max(MIN_TILE, Math.min(MAX_TILE, size));
+    }
+}
@@ -0,0 +1,47 @@
+package com.amin.battlearena.uifx.board;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import javafx.scene.SnapshotParameters;
+import javafx.scene.image.Image;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.Text;
+
+/**
+ * Unit icons rasterised once per (glyph, team colour, pixel size) and then blitted with
+ * drawImage, instead of laying out text for every unit on every repaint. Use on the FX thread.
+ */
+final class GlyphCache {
+    private final Map<String, Image> images = new HashMap<>();
+    private final SnapshotParameters params = new SnapshotParameters();
+    private int size;
+
+    GlyphCache() {
+        params.setFill(Color.TRANSPARENT);
+    }
+
+    /** Image of the glyph for tiles of the given size; a size change drops the old images. */
+    Image get(String glyph, Color color, int tileSize) {
+        if (tileSize != size) {
+            images.clear();
+            size = tileSize;
+        }
+        String key = glyph + '\u0000' + color;
+        Image image = images.get(key);
+        if (image == null) {
+            Text text = new Text(glyph);
+            // Same proportion as the 24pt icon on a 50px tile
+            text.setFont(new Font(tileSize * 0.48));
+            text.setFill(color);
+            image = text.snapshot(params, null);
+            images.put(key, image);
+        }
+        return image;
+    }
+
+    int size() {
+        return images.size();
+    }
+}
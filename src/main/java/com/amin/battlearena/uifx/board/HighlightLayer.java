@@ -0,0 +1,97 @@
+package com.amin.battlearena.uifx.board;
+
+import javafx.scene.paint.Color;
+
+/**
+ * Tile highlights of one board renderer, changed in batches. Between begin() and commit() callers
+ * describe the complete new set of highlights; commit() then clears the tiles that dropped out
+ * and paints the new ones, so tiles lit in both sets are never touched and clearing costs only
+ * as much as what is currently lit.
+ */
+public final class HighlightLayer {
+    /** Shows one tile's highlight; Color.TRANSPARENT clears it. */
+    interface Painter {
+        void paint(int index, Color color);
+    }
+
+    private final Painter painter;
+    private final int width;
+    private final int height;
+    // Colour per tile index, null when unlit, plus index lists so nothing scans the whole board
+    private final Color[] lit;
+    private final Color[] staged;
+    private final int[] litList;
+    private final int[] stagedList;
+    private int litCount;
+    private int stagedCount;
+    private boolean batching;
+
+    HighlightLayer(int width, int height, Painter painter) {
+        this.painter = painter;
+        this.width = width;
+        this.height = height;
+        this.lit = new Color[width * height];
+        this.staged = new Color[width * height];
+        this.litList = new int[width * height];
+        this.stagedList = new int[width * height];
+    }
+
+    /** Starts describing a new set of highlights; nothing changes on screen until commit(). */
+    public void begin() {
+        for (int i = 0; i < stagedCount; i++) staged[stagedList[i]] = null;
+        stagedCount = 0;
+        batching = true;
+    }
+
+    /** Lights one tile; outside a batch it is painted immediately. Off-board tiles are ignored. */
+    public void set(int x, int y, Color color) {
+        if (x < 0 || x >= width || y < 0 || y >= height) return;
+        int index = y * width + x;
+        if (batching) {
+            if (staged[index] == null) stagedList[stagedCount++] = index;
+            staged[index] = color;
+            return;
+        }
+        if (lit[index] == null) litList[litCount++] = index;
+        lit[index] = color;
+        painter.paint(index, color);
+    }
+
+    /** Replaces the lit set with the staged one. */
+    public void commit() {
+        if (!batching) throw new IllegalStateException("commit() without begin()");
+        batching = false;
+        for (int i = 0; i < litCount; i++) {
+            int index = litList[i];
+            if (staged[index] == null) {
+                painter.paint(index, Color.TRANSPARENT);
+                lit[index] = null;
+            }
+        }
+        litCount = 0;
+        for (int i = 0; i < stagedCount; i++) {
+            int index = stagedList[i];
+            Color previous = lit[index];
+            lit[index] = staged[index];
+            litList[litCount++] = index;
+            if (!staged[index].equals(previous)) painter.paint(index, staged[index]);
+            staged[index] = null;
+        }
+        stagedCount = 0;
+    }
+
+    /** Clears every lit tile. */
+    public void clear() {
+        begin();
+        commit();
+    }
+
+    public Color get(int x, int y) {
+        if (x < 0 || x >= width || y < 0 || y >= height) return null;
+        return lit[y * width + x];
+    }
+
+    public int size() {
+        return litCount;
+    }
+}
@@ -0,0 +1,90 @@
+package com.amin.battlearena.uifx.board;
+
+import com.amin.battlearena.domain.character.Character;
+
+import javafx.geometry.Pos;
+import javafx.scene.layout.StackPane;
+import javafx.scene.paint.Color;
+import javafx.scene.shape.Rectangle;
+import javafx.scene.text.Font;
+import javafx.scene.text.Text;
+
+/**
+ * One board cell. Its nodes are created once; render() and setHighlight() compare against what
+ * is currently shown and only touch the scene graph when something actually differs.
+ */
+public final class TileView extends StackPane {
+    private static final Font ICON_FONT = new Font(24);
+
+    private final int x;
+    private final int y;
+    private final Rectangle highlight;
+    // A Text node rather than a Label: no skin or control CSS to set up per tile
+    private final Text icon;
+
+    // What the nodes currently show
+    private Character shownOccupant;
+    private int shownHp = -1;
+    private Color shownHighlight = Color.TRANSPARENT;
+
+    TileView(int x, int y, double size) {
+        this.x = x;
+        this.y = y;
+        setPrefSize(size, size);
+        setAlignment(Pos.CENTER);
+
+        Rectangle bg = new Rectangle(size, size);
+        bg.setFill(Color.LIGHTGRAY);
+        bg.setStroke(Color.BLACK);
+
+        highlight = new Rectangle(size, size);
+        highlight.setFill(Color.TRANSPARENT);
+        highlight.setStroke(Color.TRANSPARENT);
+        highlight.setStrokeWidth(4);
+        highlight.setMouseTransparent(true);
+
+        icon = new Text();
+        icon.setFont(ICON_FONT);
+        icon.setMouseTransparent(true);
+        icon.setVisible(false);
+
+        getChildren().addAll(bg, highlight, icon);
+    }
+
+    public int getX() { return x; }
+    public int getY() { return y; }
+
+    /** Shows the given occupant (or none); returns false if the tile already showed exactly that. */
+    boolean render(Character occupant) {
+        int hp = occupant != null ? occupant.getCurrentHp() : -1;
+        if (occupant == shownOccupant && hp == shownHp) return false;
+
+        if (occupant != shownOccupant) {
+            if (occupant == null) {
+                icon.setVisible(false);
+                icon.setText("");
+            } else {
+                icon.setText(occupant.getIcon());
+                icon.setFill(occupant.isPlayerTeam() ? Color.BLUE : Color.RED);
+                icon.setVisible(true);
+            }
+            shownOccupant = occupant;
+        }
+        // HP is not drawn on the board, but screen readers get it with the unit name
+        setAccessibleText(occupant != null
+                ? occupant.getName() + " " + hp + "/" + occupant.getMaxHp() : null);
+        shownHp = hp;
+        return true;
+    }
+
+    /** Sets the highlight stroke; Color.TRANSPARENT clears it. */
+    public void setHighlight(Color color) {
+        if (color.equals(shownHighlight)) return;
+        highlight.setStroke(color);
+        shownHighlight = color;
+    }
+
+    public Color getHighlight() {
+        return shownHighlight;
+    }
+}
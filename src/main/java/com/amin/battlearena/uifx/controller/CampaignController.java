@@ -4,6 +4,7 @@ import com.amin.battlearena.domain.account.AccountRepository;
 import com.amin.battlearena.domain.account.Player;
 import com.amin.battlearena.domain.campaign.LevelConfig;
 import com.amin.battlearena.domain.campaign.Reward;
+import com.amin.battlearena.infra.ReusableScene;
 import com.amin.battlearena.infra.SceneManager;
 
 import javafx.fxml.FXML;
@@ -15,7 +16,7 @@ import javafx.scene.input.MouseEvent;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.VBox;
 
-public class CampaignController {
+public class CampaignController implements ReusableScene {
 
     @FXML private Label playerGold;
     @FXML private Label playerLevel;
@@ -34,9 +35,11 @@ public class CampaignController {
 
     private int selectedLevelId = -1;
 
-    @FXML
-    public void initialize() {
+    @Override
+    public void onShow() {
+        // Kept loaded between visits, so start from a clean selection every time
         updatePlayerStats();
+        selectedLevelId = -1;
         levelInfoPanel.setVisible(false);
     }
 
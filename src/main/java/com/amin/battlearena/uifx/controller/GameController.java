@@ -1,8 +1,14 @@
 package com.amin.battlearena.uifx.controller;
 
-import java.util.ArrayList;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import com.amin.battlearena.domain.Board;
 import com.amin.battlearena.domain.Tile;
@@ -11,28 +17,40 @@ import com.amin.battlearena.domain.account.AccountRepository;
 import com.amin.battlearena.domain.account.Player;
 import com.amin.battlearena.domain.campaign.RewardService;
 import com.amin.battlearena.domain.character.Character;
-import com.amin.battlearena.domain.consumable.Consumable;
-import com.amin.battlearena.domain.consumable.ConsumableFactory;
 import com.amin.battlearena.engine.AiEngine;
+import com.amin.battlearena.engine.BattleSnapshot;
 import com.amin.battlearena.engine.GameEngine;
+import com.amin.battlearena.engine.TileSet;
+import com.amin.battlearena.engine.log.BattleLog;
+import com.amin.battlearena.engine.log.LogEntry;
+import com.amin.battlearena.engine.replay.ReplayAction;
+import com.amin.battlearena.engine.replay.TurnPlanner;
+import com.amin.battlearena.engine.replay.ReplayRecorder;
 import com.amin.battlearena.infra.SceneManager;
+import com.amin.battlearena.persistence.BattleSaveStore;
+import com.amin.battlearena.uifx.anim.ActionPlayback;
+import com.amin.battlearena.uifx.board.BoardRenderer;
+import com.amin.battlearena.uifx.board.BoardView;
+import com.amin.battlearena.uifx.board.CanvasBoardView;
+import com.amin.battlearena.uifx.log.BattleLogList;
+import com.amin.battlearena.uifx.board.HighlightLayer;
 
 import javafx.animation.KeyFrame;
 import javafx.animation.Timeline;
 import javafx.application.Platform;
+import javafx.collections.ListChangeListener;
 import javafx.fxml.FXML;
 import javafx.scene.control.Alert;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
+import javafx.scene.control.ListView;
 import javafx.scene.control.ProgressBar;
-import javafx.scene.control.TextArea;
+import javafx.scene.control.ScrollPane;
 import javafx.scene.control.ToggleButton;
 import javafx.scene.layout.GridPane;
-import javafx.scene.layout.StackPane;
+import javafx.scene.layout.Priority;
 import javafx.scene.layout.VBox;
 import javafx.scene.paint.Color;
-import javafx.scene.shape.Rectangle;
-import javafx.scene.text.Font;
 import javafx.util.Duration;
 
 public class GameController {
@@ -42,6 +60,7 @@ public class GameController {
     @FXML private Label timerLabel;
     @FXML private ProgressBar timerProgress;
     
+    @FXML private ScrollPane boardScroll;
     @FXML private GridPane boardGrid;
     
     @FXML private Label selName;
@@ -65,44 +84,113 @@ public class GameController {
     @FXML private Label playerUnitsAlive;
     @FXML private Label cpuUnitsAlive;
     
-    @FXML private TextArea logArea;
+    @FXML private ListView<LogEntry> logList;
     
     @FXML private ToggleButton moveBtn;
     @FXML private ToggleButton attackBtn;
     @FXML private Button endTurnBtn;
+    @FXML private Button fastForwardBtn;
+    @FXML private Button skipBtn;
 
     private static int targetLevel = 1;
     public static void setTargetLevel(int level) { targetLevel = level; }
 
     private GameEngine engine;
     private AiEngine aiEngine;
+    private ReplayRecorder replay;
+    private BattleLogList battleLog;
+    private ActionPlayback playback;
+    private boolean closed;
+    private BoardRenderer boardView;
     private Character selectedCharacter;
     private AbilityInterface selectedAbility;
     private String selectedItem;
     
     private final int TILE_SIZE = 50;
+    // "nodes", "canvas", or "auto": the canvas renderer once the board has more tiles than this
+    private static final String BOARD_RENDERER = System.getProperty("battlearena.boardRenderer", "auto");
+    private static final int CANVAS_THRESHOLD = 2500;
+    // Where exported battle logs go, overridable with -Dbattlearena.logDir=...
+    private static final String LOG_DIR = System.getProperty("battlearena.logDir", "logs");
+    // Plans CPU turns off the FX thread; one thread serves every battle, which plays one at a time
+    private static final ExecutorService PLANNER = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "cpu-turn-planner");
+        t.setDaemon(true);
+        return t;
+    });
     
     private Timeline gameTimer;
     private int timeLeft = 60;
-    
-    // Highlight system
-    private StackPane selectedTileView;
-    private List<StackPane> highlightedTiles = new ArrayList<>();
 
     @FXML
     public void initialize() {
-        engine = new GameEngine();
+        battleLog = new BattleLogList(new BattleLog());
+        logList.setItems(battleLog);
+        // Follow the newest entry; the list only lays out the rows on screen
+        battleLog.addListener((ListChangeListener<LogEntry>) c -> {
+            if (!battleLog.isEmpty()) logList.scrollTo(battleLog.size() - 1);
+        });
         aiEngine = new AiEngine();
-        log("Initializing Level " + targetLevel + "...");
-        engine.initLevel(targetLevel);
+        engine = resumeSavedBattle();
+        if (engine == null) {
+            engine = new GameEngine();
+            log("Initializing Level " + targetLevel + "...");
+            engine.initLevel(targetLevel);
+        }
+        battleLog.attach(engine);
+        playback = new ActionPlayback(engine, () -> {
+            renderBoard();
+            updateSelectionUI();
+        }, this::finishCpuTurn);
+        playbackControls(false);
+        Player user = AccountRepository.getInstance().getCurrentUser();
+        if (user != null) {
+            replay = ReplayRecorder.forBattle(engine, user.getNickname());
+        }
         
         gameTimer = new Timeline(new KeyFrame(Duration.seconds(1), e -> updateTimer()));
         gameTimer.setCycleCount(Timeline.INDEFINITE);
         gameTimer.play();
         
-        renderBoard();
+        boardView = createBoardRenderer(engine.getBoard());
+        engine.addListener(boardView);
         updateUI();
         updateConsumablesList();
+        
+        // Saved right after the player ended a turn: the CPU still has to move
+        if (!engine.isPlayerTurn() && !engine.isGameOver()) {
+            runCpuTurn();
+        }
+    }
+
+    private GameEngine resumeSavedBattle() {
+        Player p = AccountRepository.getInstance().getCurrentUser();
+        if (p == null) return null;
+        
+        byte[] data = BattleSaveStore.getInstance().load(p.getNickname());
+        if (data == null) return null;
+        
+        try {
+            GameEngine saved = BattleSnapshot.decode(data);
+            if (saved.getLevelId() != targetLevel || saved.isGameOver()) return null;
+            log("Resumed saved battle on Level " + targetLevel + " (turn " + saved.getTurnCount() + ").");
+            return saved;
+        } catch (IOException e) {
+            log("Saved battle could not be restored, starting fresh.");
+            return null;
+        }
+    }
+
+    private void saveBattle() {
+        Player p = AccountRepository.getInstance().getCurrentUser();
+        if (p == null) return;
+        
+        if (engine.isGameOver()) {
+            BattleSaveStore.getInstance().deleteAsync(p.getNickname());
+        } else {
+            // Encoding is cheap and must see a consistent state; only the file write is deferred
+            BattleSaveStore.getInstance().saveAsync(p.getNickname(), BattleSnapshot.encode(engine));
+        }
     }
 
     private void updateTimer() {
@@ -126,53 +214,23 @@ public class GameController {
         updateUI();
     }
 
-    private void renderBoard() {
-        boardGrid.getChildren().clear();
-        Board board = engine.getBoard();
-        
-        for (int x = 0; x < board.getWidth(); x++) {
-            for (int y = 0; y < board.getHeight(); y++) {
-                StackPane tileView = createTileView(x, y);
-                boardGrid.add(tileView, x, y);
-            }
+    private BoardRenderer createBoardRenderer(Board board) {
+        boolean canvas = BOARD_RENDERER.equals("canvas") || (BOARD_RENDERER.equals("auto")
+                && board.getWidth() * board.getHeight() > CANVAS_THRESHOLD);
+        if (!canvas) {
+            return new BoardView(boardGrid, board, TILE_SIZE, this::onTileClicked);
         }
+        // The canvas pans and zooms itself, so it replaces the scroll pane rather than living in it
+        CanvasBoardView view = new CanvasBoardView(board, TILE_SIZE, this::onTileClicked);
+        VBox parent = (VBox) boardScroll.getParent();
+        parent.getChildren().set(parent.getChildren().indexOf(boardScroll), view.getNode());
+        VBox.setVgrow(view.getNode(), Priority.ALWAYS);
+        return view;
     }
 
-    private StackPane createTileView(int x, int y) {
-        StackPane stack = new StackPane();
-        stack.setPrefSize(TILE_SIZE, TILE_SIZE);
-        
-        Rectangle bg = new Rectangle(TILE_SIZE, TILE_SIZE);
-        bg.setFill(Color.LIGHTGRAY);
-        bg.setStroke(Color.BLACK);
-        stack.getChildren().add(bg);
-        
-        // Add highlight rectangle (initially transparent)
-        Rectangle highlight = new Rectangle(TILE_SIZE, TILE_SIZE);
-        highlight.setFill(Color.TRANSPARENT);
-        highlight.setStroke(Color.TRANSPARENT);
-        highlight.setStrokeWidth(4);
-        highlight.setMouseTransparent(true);
-        stack.getChildren().add(highlight);
-        
-        Tile tile = engine.getBoard().getTile(x, y);
-        if (tile.isOccupied()) {
-            Character c = tile.getOccupant();
-            Label charIcon = new Label(c.getIcon());
-            charIcon.setFont(new Font(24));
-            if (c.isPlayerTeam()) {
-                charIcon.setTextFill(Color.BLUE);
-            } else {
-                charIcon.setTextFill(Color.RED);
-            }
-            stack.getChildren().add(charIcon);
-            
-            // HP Bar removed as requested
-            stack.setAlignment(javafx.geometry.Pos.CENTER);
-        }
-        
-        stack.setOnMouseClicked(e -> onTileClicked(x, y));
-        return stack;
+    private void renderBoard() {
+        // Only tiles touched by engine events since the last call are repainted
+        boardView.sync();
     }
 
     private void onTileClicked(int x, int y) {
@@ -195,10 +253,11 @@ public class GameController {
         if (selectedCharacter == null || !selectedCharacter.isPlayerTeam() || !engine.isPlayerTurn()) return;
 
         if (engine.moveCharacter(selectedCharacter, tile)) {
-            log(selectedCharacter.getName() + " moved to (" + x + "," + y + ")");
             moveBtn.setSelected(false);
             renderBoard();
             updateUI();
+            // The battle may just have ended and left the scene
+            if (closed) return;
             updateHighlights();
         } else {
             log("Invalid move!");
@@ -210,12 +269,13 @@ public class GameController {
         if (!tile.isOccupied() || tile.getOccupant().isPlayerTeam()) return;
 
         if (engine.attackCharacter(selectedCharacter, tile.getOccupant(), selectedAbility)) {
-            log(selectedCharacter.getName() + " attacked " + tile.getOccupant().getName());
             attackBtn.setSelected(false);
             selectedAbility = null;
             useAbilityBtn.setDisable(true);
             renderBoard();
             updateUI();
+            // The battle may just have ended and left the scene
+            if (closed) return;
             updateHighlights();
         } else {
             log("Attack failed (Out of range or no actions left)!");
@@ -233,150 +293,55 @@ public class GameController {
     }
     
     private void updateHighlights() {
-        clearHighlights();
-        
-        if (selectedCharacter == null || !selectedCharacter.isPlayerTeam()) {
-            return;
-        }
-        
-        // Highlight selected character's tile in BLUE
-        highlightSelectedCharacter();
+        if (closed) return;
+        // One batch: tiles that stay lit are not touched, the rest are cleared or painted once
+        HighlightLayer highlights = boardView.getHighlights();
+        highlights.begin();
         
-        // Highlight available actions based on mode
-        if (moveBtn.isSelected()) {
-            highlightMoveTiles();
-        } else if (attackBtn.isSelected()) {
-            if (selectedAbility != null) {
-                highlightAbilityTargets();
-            } else {
-                highlightAttackTargets();
+        if (selectedCharacter != null && selectedCharacter.isPlayerTeam()) {
+            // Highlight selected character's tile in BLUE
+            highlightSelectedCharacter(highlights);
+            
+            // Highlight available actions based on mode
+            if (moveBtn.isSelected()) {
+                highlightMoveTiles(highlights);
+            } else if (attackBtn.isSelected()) {
+                if (selectedAbility != null) {
+                    highlightAbilityTargets(highlights);
+                } else {
+                    highlightAttackTargets(highlights);
+                }
             }
         }
+        highlights.commit();
     }
     
-    private void clearHighlights() {
-        // Clear all existing highlights
-        for (StackPane tile : highlightedTiles) {
-            Rectangle highlight = (Rectangle) tile.getChildren().get(1);
-            highlight.setStroke(Color.TRANSPARENT);
-        }
-        highlightedTiles.clear();
-        selectedTileView = null;
-    }
-    
-    private void highlightSelectedCharacter() {
+    private void highlightSelectedCharacter(HighlightLayer highlights) {
         if (selectedCharacter == null || selectedCharacter.getPosition() == null) return;
         
-        int x = selectedCharacter.getPosition().getX();
-        int y = selectedCharacter.getPosition().getY();
-        StackPane tileView = getTileView(x, y);
-        
-        if (tileView != null) {
-            Rectangle highlight = (Rectangle) tileView.getChildren().get(1);
-            highlight.setStroke(Color.BLUE);
-            selectedTileView = tileView;
-            highlightedTiles.add(tileView);
-        }
+        highlights.set(selectedCharacter.getPosition().getX(), selectedCharacter.getPosition().getY(), Color.BLUE);
     }
     
-    private void highlightMoveTiles() {
-        if (selectedCharacter == null || selectedCharacter.getMovesLeft() <= 0) return;
-        
-        Board board = engine.getBoard();
-        int charX = selectedCharacter.getPosition().getX();
-        int charY = selectedCharacter.getPosition().getY();
-        int speed = selectedCharacter.getSpeed();
-        
-        // Highlight all tiles within movement range (Manhattan distance)
-        for (int x = 0; x < board.getWidth(); x++) {
-            for (int y = 0; y < board.getHeight(); y++) {
-                Tile tile = board.getTile(x, y);
-                if (tile.isOccupied()) continue;
-                
-                int dist = Math.abs(charX - x) + Math.abs(charY - y);
-                if (dist > 0 && dist <= speed) {
-                    StackPane tileView = getTileView(x, y);
-                    if (tileView != null) {
-                        Rectangle highlight = (Rectangle) tileView.getChildren().get(1);
-                        highlight.setStroke(Color.GREEN);
-                        highlightedTiles.add(tileView);
-                    }
-                }
-            }
-        }
+    private void highlightMoveTiles(HighlightLayer highlights) {
+        if (selectedCharacter == null) return;
+        highlightTiles(highlights, engine.getReachableTiles(selectedCharacter), Color.GREEN);
     }
     
-    private void highlightAttackTargets() {
-        if (selectedCharacter == null || selectedCharacter.getAttacksLeft() <= 0) return;
-        
-        Board board = engine.getBoard();
-        int charX = selectedCharacter.getPosition().getX();
-        int charY = selectedCharacter.getPosition().getY();
-        int range = selectedCharacter.getRange();
-        
-        // Highlight all enemy characters within attack range
-        for (int x = 0; x < board.getWidth(); x++) {
-            for (int y = 0; y < board.getHeight(); y++) {
-                Tile tile = board.getTile(x, y);
-                if (!tile.isOccupied()) continue;
-                if (tile.getOccupant().isPlayerTeam()) continue;
-                
-                int dist = Math.abs(charX - x) + Math.abs(charY - y);
-                if (dist > 0 && dist <= range) {
-                    StackPane tileView = getTileView(x, y);
-                    if (tileView != null) {
-                        Rectangle highlight = (Rectangle) tileView.getChildren().get(1);
-                        highlight.setStroke(Color.RED);
-                        highlightedTiles.add(tileView);
-                    }
-                }
-            }
-        }
+    private void highlightAttackTargets(HighlightLayer highlights) {
+        if (selectedCharacter == null) return;
+        highlightTiles(highlights, engine.getAttackTargets(selectedCharacter, null), Color.RED);
     }
     
-    private void highlightAbilityTargets() {
+    private void highlightAbilityTargets(HighlightLayer highlights) {
         if (selectedCharacter == null || selectedAbility == null) return;
-        if (!selectedAbility.isReady() || selectedCharacter.getCurrentMana() < selectedAbility.getManaCost()) return;
-        
-        Board board = engine.getBoard();
-        int charX = selectedCharacter.getPosition().getX();
-        int charY = selectedCharacter.getPosition().getY();
-        int range = selectedAbility.getRange();
-        
-        // Highlight all enemy characters within ability range
-        for (int x = 0; x < board.getWidth(); x++) {
-            for (int y = 0; y < board.getHeight(); y++) {
-                Tile tile = board.getTile(x, y);
-                if (!tile.isOccupied()) continue;
-                if (tile.getOccupant().isPlayerTeam()) continue;
-                
-                int dist = Math.abs(charX - x) + Math.abs(charY - y);
-                if (dist > 0 && dist <= range) {
-                    StackPane tileView = getTileView(x, y);
-                    if (tileView != null) {
-                        Rectangle highlight = (Rectangle) tileView.getChildren().get(1);
-                        highlight.setStroke(Color.PURPLE);
-                        highlightedTiles.add(tileView);
-                    }
-                }
-            }
-        }
+        highlightTiles(highlights, engine.getAttackTargets(selectedCharacter, selectedAbility), Color.PURPLE);
     }
     
-    private StackPane getTileView(int x, int y) {
-        for (javafx.scene.Node node : boardGrid.getChildren()) {
-            Integer colIndex = GridPane.getColumnIndex(node);
-            Integer rowIndex = GridPane.getRowIndex(node);
-            
-            // Handle null indices (defaults to 0)
-            int col = (colIndex != null) ? colIndex : 0;
-            int row = (rowIndex != null) ? rowIndex : 0;
-            
-            if (col == x && row == y) {
-                return (StackPane) node;
-            }
+    // The engine's action sets are what it will accept, so highlighting cannot disagree with it
+    private void highlightTiles(HighlightLayer highlights, TileSet tiles, Color color) {
+        for (int i = 0; i < tiles.size(); i++) {
+            highlights.set(tiles.xAt(i), tiles.yAt(i), color);
         }
-        return null;
     }
 
     private void updateSelectionUI() {
@@ -454,10 +419,7 @@ public class GameController {
             log("Move Mode: Select a tile to move to.");
             updateHighlights();
         } else {
-            clearHighlights();
-            if (selectedCharacter != null && selectedCharacter.isPlayerTeam()) {
-                highlightSelectedCharacter();
-            }
+            updateHighlights();
         }
     }
 
@@ -471,38 +433,73 @@ public class GameController {
             log("Attack Mode: Select an enemy to attack.");
             updateHighlights();
         } else {
-            clearHighlights();
-            if (selectedCharacter != null && selectedCharacter.isPlayerTeam()) {
-                highlightSelectedCharacter();
-            }
+            updateHighlights();
         }
     }
 
     @FXML
     public void onEndTurn() {
         if (engine.isPlayerTurn()) {
-            log("Player Turn Ended.");
             engine.endTurn();
+            saveBattle();
             timeLeft = 60; // Reset timer
             updateUI();
             
-            // CPU Turn
-            new Thread(() -> {
-                try {
-                    Thread.sleep(1000); // Delay for effect
-                    Platform.runLater(() -> {
-                        log("CPU Turn...");
-                        aiEngine.performTurn(engine);
-                        engine.endTurn();
-                        log("Player Turn Started.");
-                        renderBoard();
-                        updateUI();
-                    });
-                } catch (InterruptedException e) {
-                    e.printStackTrace();
-                }
-            }).start();
+            if (!engine.isGameOver()) {
+                runCpuTurn();
+            }
+        }
+    }
+
+    private void runCpuTurn() {
+        playbackControls(true);
+        // The AI plans on a copy at full speed; the live engine then plays the plan frame by frame
+        byte[] snapshot = BattleSnapshot.encode(engine);
+        PLANNER.execute(() -> {
+            try {
+                List<ReplayAction> plan = TurnPlanner.plan(snapshot, aiEngine, false);
+                Platform.runLater(() -> {
+                    if (!closed) playback.play(plan);
+                });
+            } catch (IOException e) {
+                e.printStackTrace();
+                Platform.runLater(() -> {
+                    if (closed) return;
+                    aiEngine.performTurn(engine);
+                    finishCpuTurn();
+                });
+            }
+        });
+    }
+
+    private void finishCpuTurn() {
+        if (playback.hasDiverged()) {
+            // Should not happen; let the AI finish the turn on the live engine instead
+            aiEngine.performTurn(engine);
         }
+        playbackControls(false);
+        engine.endTurn();
+        saveBattle();
+        renderBoard();
+        updateUI();
+        if (closed) return;
+        updateHighlights();
+    }
+
+    private void playbackControls(boolean cpuTurn) {
+        skipBtn.setDisable(!cpuTurn);
+        fastForwardBtn.setDisable(!cpuTurn);
+    }
+
+    @FXML
+    public void onSkipAnimation() {
+        playback.skip();
+    }
+
+    @FXML
+    public void onFastForward() {
+        playback.toggleFastForward();
+        fastForwardBtn.setText(playback.getSpeed() > 1 ? "⏩ x" + playback.getSpeed() : "⏩");
     }
 
     private void updateUI() {
@@ -519,6 +516,7 @@ public class GameController {
         cpuUnitsAlive.setText(eCount + " Alive");
         
         if (engine.isGameOver()) {
+            stopReplay();
             if (engine.didPlayerWin()) {
                 log("VICTORY! You won the battle!");
                 Player p = AccountRepository.getInstance().getCurrentUser();
@@ -533,20 +531,31 @@ public class GameController {
                 }
                 Alert alert = new Alert(Alert.AlertType.INFORMATION, "Victory! You earned gold and rewards.");
                 alert.showAndWait();
-                onBack();
             } else {
                 log("DEFEAT! You lost the battle.");
                 Alert alert = new Alert(Alert.AlertType.INFORMATION, "Defeat! Try again.");
                 alert.showAndWait();
-                onBack();
             }
+            // Disposes the board and leaves the scene: nothing below may touch them any more
+            onBack();
+            return;
         }
         
         updateSelectionUI();
     }
 
+    private void stopReplay() {
+        if (replay == null) return;
+        try {
+            replay.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        replay = null;
+    }
+
     private void log(String message) {
-        logArea.appendText(message + "\n");
+        battleLog.info(message);
     }
 
     @FXML
@@ -556,7 +565,14 @@ public class GameController {
 
     @FXML
     public void onBack() {
+        closed = true;
         if (gameTimer != null) gameTimer.stop();
+        playback.cancel();
+        engine.removeListener(boardView);
+        boardView.dispose();
+        battleLog.detach();
+        stopReplay();
+        saveBattle();
         SceneManager.getInstance().switchScene("/uifx/campaign.fxml");
     }
     
@@ -600,14 +616,13 @@ public class GameController {
         if (selectedCharacter != null && selectedCharacter.isPlayerTeam() && engine.isPlayerTurn()) {
              Player p = AccountRepository.getInstance().getCurrentUser();
              if (p != null && p.hasItem(selectedItem)) {
-                 Consumable item = ConsumableFactory.createItem(selectedItem);
-                 if (item != null) {
-                     item.use(selectedCharacter);
+                 if (engine.useConsumable(selectedCharacter, selectedItem)) {
                      p.useItem(selectedItem);
                      AccountRepository.getInstance().savePlayer(p);
                      
-                     log("Used " + selectedItem + " on " + selectedCharacter.getName());
+                     renderBoard();
                      updateUI();
+                     if (closed) return;
                      updateConsumablesList();
                      
                      if (!p.hasItem(selectedItem)) {
@@ -616,13 +631,30 @@ public class GameController {
                          useConsumableBtn.setText("Use Selected Consumable");
                      }
                  } else {
-                     log("Item effect not implemented: " + selectedItem);
+                     log("Cannot use " + selectedItem + " on " + selectedCharacter.getName());
                  }
              }
         } else {
             log("Select a player character to use item.");
         }
     }
-    @FXML public void onClearLog() { logArea.clear(); }
-    @FXML public void onExportLog() {}
+    @FXML public void onClearLog() { battleLog.clear(); }
+
+    @FXML
+    public void onExportLog() {
+        Player p = AccountRepository.getInstance().getCurrentUser();
+        String nick = p != null ? p.getNickname().replaceAll("[^A-Za-z0-9_-]", "_") : "guest";
+        Path file = Paths.get(LOG_DIR, nick + "_L" + targetLevel + "_"
+                + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + ".tsv");
+        // Written on the export thread; only the result message comes back to the FX thread
+        battleLog.getLog().exportAsync(file).whenComplete((count, error) -> Platform.runLater(() -> {
+            if (error != null) {
+                error.printStackTrace();
+                Throwable cause = error.getCause() != null ? error.getCause() : error;
+                log("Log export failed: " + cause.getMessage());
+            } else {
+                log("Exported " + count + " log entries to " + file);
+            }
+        }));
+    }
 }
@@ -1,9 +1,15 @@
 package com.amin.battlearena.uifx.controller;
 
+import com.amin.battlearena.infra.ReusableScene;
 import com.amin.battlearena.infra.SceneManager;
 import javafx.fxml.FXML;
 
-public class HelpController {
+public class HelpController implements ReusableScene {
+
+    @Override
+    public void onShow() {
+        // Static text, nothing to refresh
+    }
 
     @FXML
     public void onBack() {
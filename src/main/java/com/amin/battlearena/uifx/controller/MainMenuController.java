@@ -2,13 +2,14 @@ package com.amin.battlearena.uifx.controller;
 
 import com.amin.battlearena.domain.account.AccountRepository;
 import com.amin.battlearena.domain.account.Player;
+import com.amin.battlearena.infra.ReusableScene;
 import com.amin.battlearena.infra.SceneManager;
 
 import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.scene.control.Label;
 
-public class MainMenuController {
+public class MainMenuController implements ReusableScene {
 
     @FXML
     private Label welcomeLabel;
@@ -16,8 +17,8 @@ public class MainMenuController {
     @FXML
     private Label goldAmount;
 
-    @FXML
-    public void initialize() {
+    @Override
+    public void onShow() {
         Player player = AccountRepository.getInstance().getCurrentUser();
         if (player != null) {
             welcomeLabel.setText("Welcome, " + player.getNickname() + "!");
@@ -3,12 +3,13 @@ package com.amin.battlearena.uifx.controller;
 import com.amin.battlearena.domain.account.AccountRepository;
 import com.amin.battlearena.domain.account.Player;
 import com.amin.battlearena.domain.shop.Shop;
+import com.amin.battlearena.infra.ReusableScene;
 import com.amin.battlearena.infra.SceneManager;
 
 import javafx.fxml.FXML;
 import javafx.scene.control.Label;
 
-public class ShopController {
+public class ShopController implements ReusableScene {
 
     @FXML private Label playerGold;
     @FXML private Label statusMessage;
@@ -28,6 +29,7 @@ public class ShopController {
     @FXML private Label hastePotionPrice;
 
     private final Shop shop = new Shop();
+    private String greeting;
     
     // Upgrade type indices
     private static final int WARRIOR_HEALTH = 0;
@@ -47,10 +49,16 @@ public class ShopController {
 
     @FXML
     public void initialize() {
-        updateUI();
+        greeting = statusMessage.getText();
         setPrices();
     }
 
+    @Override
+    public void onShow() {
+        updateUI();
+        statusMessage.setText(greeting);
+    }
+
     private void setPrices() {
         healthPrice.setText(shop.getUpgradeCost(WARRIOR_HEALTH) + " G");
         attackPrice.setText(shop.getUpgradeCost(WARRIOR_ATTACK) + " G");
@@ -1,22 +1,37 @@
 package com.amin.battlearena.uifx.controller;
 
+import java.io.UncheckedIOException;
+
 import com.amin.battlearena.domain.account.AccountRepository;
+import com.amin.battlearena.infra.ReusableScene;
 import com.amin.battlearena.infra.SceneManager;
 
 import javafx.application.Platform;
 import javafx.fxml.FXML;
+import javafx.scene.control.Alert;
 import javafx.scene.control.TextField;
 
-public class SignInController {
+public class SignInController implements ReusableScene {
 
     @FXML
     private TextField nicknameField;
 
+    @Override
+    public void onShow() {
+        nicknameField.clear();
+    }
+
     @FXML
     public void onLogin() {
         String nickname = nicknameField.getText();
         if (nickname != null && !nickname.trim().isEmpty()) {
-            AccountRepository.getInstance().login(nickname.trim());
+            try {
+                AccountRepository.getInstance().login(nickname.trim());
+            } catch (UncheckedIOException e) {
+                e.printStackTrace();
+                new Alert(Alert.AlertType.ERROR, "Could not load this account. Please try again.").show();
+                return;
+            }
             SceneManager.getInstance().switchScene("/uifx/main_menu.fxml");
         }
     }
@@ -0,0 +1,82 @@
+package com.amin.battlearena.uifx.log;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.amin.battlearena.engine.BattleEvent;
+import com.amin.battlearena.engine.BattleListener;
+import com.amin.battlearena.engine.GameEngine;
+import com.amin.battlearena.engine.log.BattleLog;
+import com.amin.battlearena.engine.log.LogEntry;
+
+import javafx.collections.ObservableListBase;
+
+/**
+ * A BattleLog seen as an ObservableList for a ListView, which only builds cells for the visible
+ * rows. Each append is reported as one small change (the new entry, plus the oldest one dropping
+ * out when the ring is full), so the view never re-reads the whole log. Use on the FX thread.
+ */
+public final class BattleLogList extends ObservableListBase<LogEntry> implements BattleListener {
+    private final BattleLog log;
+    private GameEngine engine;
+
+    public BattleLogList(BattleLog log) {
+        this.log = log;
+    }
+
+    /** Starts logging the engine's events; messages before this are logged as turn 0. */
+    public void attach(GameEngine engine) {
+        if (this.engine != null) this.engine.removeListener(this);
+        this.engine = engine;
+        engine.addListener(this);
+    }
+
+    public void detach() {
+        if (engine != null) engine.removeListener(this);
+    }
+
+    public BattleLog getLog() {
+        return log;
+    }
+
+    @Override
+    public void onBattleEvent(BattleEvent event) {
+        // Peek at the entry that is about to fall out before the ring overwrites it
+        LogEntry dropped = log.size() == log.capacity() ? log.get(0) : null;
+        LogEntry added = log.record(event, engine);
+        if (added != null) fireAppended(dropped);
+    }
+
+    public void info(String message) {
+        LogEntry dropped = log.size() == log.capacity() ? log.get(0) : null;
+        log.info(engine != null ? engine.getTurnCount() : 0, message);
+        fireAppended(dropped);
+    }
+
+    private void fireAppended(LogEntry dropped) {
+        beginChange();
+        if (dropped != null) nextRemove(0, dropped);
+        nextAdd(log.size() - 1, log.size());
+        endChange();
+    }
+
+    @Override
+    public void clear() {
+        if (log.size() == 0) return;
+        List<LogEntry> removed = new ArrayList<>(this);
+        log.clear();
+        beginChange();
+        nextRemove(0, removed);
+        endChange();
+    }
+
+    @Override
+    public LogEntry get(int index) {
+        return log.get(index);
+    }
+
+    @Override
+    public int size() {
+        return log.size();
+    }
+}
@@ -0,0 +1,102 @@
+package com.amin.battlearena.domain.account;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class RankedSkipListTest {
+    @Test
+    void ordersByScoreThenName() {
+        RankedSkipList list = new RankedSkipList();
+        list.insert("carol", 10);
+        list.insert("alice", 30);
+        list.insert("bob", 10);
+        list.insert("dave", 20);
+
+        List<String> names = new ArrayList<>();
+        List<Integer> scores = new ArrayList<>();
+        list.range(1, 10, names, scores);
+
+        assertEquals(List.of("alice", "dave", "bob", "carol"), names);
+        assertEquals(List.of(30, 20, 10, 10), scores);
+        assertEquals(1, list.rank("alice", 30));
+        assertEquals(3, list.rank("bob", 10));
+        assertEquals(4, list.rank("carol", 10));
+    }
+
+    @Test
+    void rankOfMissingEntryIsZero() {
+        RankedSkipList list = new RankedSkipList();
+        list.insert("alice", 30);
+
+        assertEquals(0, list.rank("alice", 29));
+        assertEquals(0, list.rank("bob", 30));
+        assertFalse(list.remove("alice", 29));
+    }
+
+    @Test
+    void rangeClipsToTheList() {
+        RankedSkipList list = new RankedSkipList();
+        for (int i = 0; i < 5; i++) list.insert("p" + i, i);
+
+        List<String> names = new ArrayList<>();
+        List<Integer> scores = new ArrayList<>();
+        list.range(4, 10, names, scores);
+        assertEquals(List.of("p1", "p0"), names);
+
+        names.clear();
+        list.range(0, 3, names, scores);
+        list.range(6, 3, names, scores);
+        list.range(1, 0, names, scores);
+        assertTrue(names.isEmpty());
+    }
+
+    @Test
+    void matchesSortedModelUnderRandomUpdates() {
+        RankedSkipList list = new RankedSkipList();
+        Map<String, Integer> model = new HashMap<>();
+        Random random = new Random(7);
+
+        for (int step = 0; step < 5000; step++) {
+            String name = "p" + random.nextInt(300);
+            Integer old = model.get(name);
+            if (old != null) assertTrue(list.remove(name, old));
+            if (random.nextInt(4) == 0) {
+                model.remove(name);
+            } else {
+                int score = random.nextInt(50);
+                list.insert(name, score);
+                model.put(name, score);
+            }
+        }
+
+        List<Map.Entry<String, Integer>> expected = new ArrayList<>(model.entrySet());
+        expected.sort(Comparator.<Map.Entry<String, Integer>>comparingInt(Map.Entry::getValue).reversed()
+                .thenComparing(Map.Entry::getKey));
+        assertEquals(expected.size(), list.size());
+        for (int i = 0; i < expected.size(); i++) {
+            Map.Entry<String, Integer> e = expected.get(i);
+            assertEquals(i + 1, list.rank(e.getKey(), e.getValue()));
+        }
+        // Every window of the range query agrees with the model
+        for (int from = 1; from <= expected.size(); from += 17) {
+            List<String> names = new ArrayList<>();
+            List<Integer> scores = new ArrayList<>();
+            list.range(from, 25, names, scores);
+            for (int i = 0; i < names.size(); i++) {
+                assertEquals(expected.get(from - 1 + i).getKey(), names.get(i));
+                assertEquals(expected.get(from - 1 + i).getValue(), scores.get(i));
+            }
+            assertEquals(Math.min(25, expected.size() - from + 1), names.size());
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.amin.battlearena.persistence;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.amin.battlearena.domain.account.Player;
+
+class PlayerCodecTest {
+    @Test
+    void binaryRoundTrip() {
+        Player p = sample();
+        byte[] record = PlayerCodec.encode(p);
+
+        assertEquals(PlayerCodec.VERSION, record[0]);
+        assertSamePlayer(p, PlayerCodec.decode(ByteBuffer.wrap(record)));
+    }
+
+    @Test
+    void binaryRoundTripKeepsExtraUpgradesAndUnknownItems() {
+        Player p = new Player("wide");
+        p.setUpgrades(new int[] {1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11});
+        p.addItems("ItemFromTheFuture", 3);
+
+        assertSamePlayer(p, PlayerCodec.decode(ByteBuffer.wrap(PlayerCodec.encode(p))));
+    }
+
+    @Test
+    void encodeIntoBufferMatchesEncode() {
+        Player p = sample();
+        ByteBuffer out = ByteBuffer.allocate(256);
+        PlayerCodec.encode(p, out);
+
+        assertArrayEquals(PlayerCodec.encode(p), Arrays.copyOf(out.array(), out.position()));
+    }
+
+    @Test
+    void textRoundTrip() {
+        Player p = sample();
+        StringBuilder sb = new StringBuilder();
+        PlayerCodec.encodeText(p, sb);
+
+        assertSamePlayer(p, PlayerCodec.decode(utf8(sb.toString())));
+    }
+
+    @Test
+    void decodesLegacyLine() {
+        Player p = PlayerCodec.decode(utf8("old_timer|500|3|12|4|1,0,2,0,0,0,0,0,0|HealthPotion:2,ManaPotion:1\n"));
+
+        assertEquals("old_timer", p.getNickname());
+        assertEquals(500, p.getGold());
+        assertEquals(3, p.getLevel());
+        assertEquals(12, p.getVictories());
+        assertEquals(4, p.getCampaignProgress());
+        assertEquals(1, p.getUpgradeLevel(0));
+        assertEquals(2, p.getUpgradeLevel(2));
+        assertEquals(Map.of("HealthPotion", 2, "ManaPotion", 1), p.getInventory());
+    }
+
+    @Test
+    void decodesLegacyLineWithEmptyInventory() {
+        Player p = PlayerCodec.decode(utf8("newbie|0|1|0|1|0,0,0,0,0,0,0,0,0|EMPTY"));
+
+        assertEquals("newbie", p.getNickname());
+        assertTrue(p.getInventory().isEmpty());
+    }
+
+    @Test
+    void readsNicknameWithoutMovingPosition() {
+        ByteBuffer binary = ByteBuffer.wrap(PlayerCodec.encode(sample()));
+        ByteBuffer text = utf8("old_timer|500|3|12|4|0,0,0,0,0,0,0,0,0|EMPTY");
+
+        assertEquals("codec_test", PlayerCodec.nickname(binary));
+        assertEquals(0, binary.position());
+        assertEquals("old_timer", PlayerCodec.nickname(text));
+        assertEquals(0, text.position());
+    }
+
+    @Test
+    void rejectsTruncatedAndUnknownVersions() {
+        byte[] record = PlayerCodec.encode(sample());
+        byte[] truncated = Arrays.copyOf(record, record.length / 2);
+        byte[] future = record.clone();
+        future[0] = (byte) (PlayerCodec.VERSION + 1);
+
+        assertThrows(IllegalArgumentException.class, () -> PlayerCodec.decode(ByteBuffer.wrap(truncated)));
+        assertThrows(IllegalArgumentException.class, () -> PlayerCodec.decode(ByteBuffer.wrap(future)));
+    }
+
+    @Test
+    void storedRecordThatCannotBeDecodedIsAnIoError() {
+        IOException e = assertThrows(IOException.class,
+                () -> PlayerCodec.decodeStored("broken", utf8("broken|12|not-a-number")));
+        assertTrue(e.getMessage().contains("broken"));
+    }
+
+    @Test
+    void textStoreFailsTheLoadAndSkipsTheScanForACorruptLine(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("savegame.dat");
+        Files.write(file, List.of("good|1|1|0|1|0,0,0,0,0,0,0,0,0|EMPTY", "bad|x"), StandardCharsets.UTF_8);
+        try (TextFileAccountStore store = new TextFileAccountStore(file)) {
+            assertThrows(IOException.class, () -> store.load("bad"));
+            assertEquals("good", store.load("good").getNickname());
+            List<String> seen = new ArrayList<>();
+            store.forEach(p -> seen.add(p.getNickname()));
+            assertEquals(List.of("good"), seen);
+        }
+    }
+
+    private static Player sample() {
+        Player p = new Player("codec_test");
+        p.setGold(12345);
+        p.setLevel(7);
+        p.setVictories(42);
+        p.setCampaignProgress(6);
+        p.setUpgrades(new int[] {3, 2, 1, 4, 0, 2, 5, 1, 1});
+        p.addItems("HealthPotion", 5);
+        p.addItems("ManaPotion", 2);
+        return p;
+    }
+
+    private static ByteBuffer utf8(String s) {
+        return ByteBuffer.wrap(s.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void assertSamePlayer(Player expected, Player actual) {
+        assertEquals(expected.getNickname(), actual.getNickname());
+        assertEquals(expected.getGold(), actual.getGold());
+        assertEquals(expected.getLevel(), actual.getLevel());
+        assertEquals(expected.getVictories(), actual.getVictories());
+        assertEquals(expected.getCampaignProgress(), actual.getCampaignProgress());
+        assertEquals(expected.getUpgradeCount(), actual.getUpgradeCount());
+        for (int i = 0; i < expected.getUpgradeCount(); i++) {
+            assertEquals(expected.getUpgradeLevel(i), actual.getUpgradeLevel(i));
+        }
+        assertEquals(expected.getInventory(), actual.getInventory());
+    }
+}
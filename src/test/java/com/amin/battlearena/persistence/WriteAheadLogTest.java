@@ -0,0 +1,89 @@
+package com.amin.battlearena.persistence;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class WriteAheadLogTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void replaysCommittedRecordsInOrder() throws Exception {
+        Path file = dir.resolve("log");
+        write(file, "one", "two", "three");
+
+        assertEquals(List.of("one", "two", "three"), replay(file));
+    }
+
+    @Test
+    void cutsTornTailAndKeepsAppending() throws Exception {
+        Path file = dir.resolve("log");
+        write(file, "one", "two");
+        long intact = Files.size(file);
+        // A crash mid-write: a header promising more bytes than made it to disk
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            ch.write(ByteBuffer.allocate(10).putInt(100).putInt(0x1234).put((byte) 'x').put((byte) 'y').flip());
+        }
+
+        assertEquals(List.of("one", "two"), replay(file));
+        assertEquals(intact, Files.size(file));
+
+        write(file, "three");
+        assertEquals(List.of("one", "two", "three"), replay(file));
+    }
+
+    @Test
+    void stopsAtCorruptRecord() throws Exception {
+        Path file = dir.resolve("log");
+        write(file, "one", "two", "three");
+        // Flip a payload byte of "two": header 4, record "one" 8 + 3, then the header of "two"
+        long offset = 4 + 8 + 3 + 8;
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            ch.write(ByteBuffer.wrap(new byte[] {'T'}), offset);
+        }
+
+        assertEquals(List.of("one"), replay(file));
+        assertEquals(4 + 8 + 3, Files.size(file));
+    }
+
+    @Test
+    void rejectsForeignFile() throws Exception {
+        Path file = dir.resolve("log");
+        Files.write(file, "not a log".getBytes(StandardCharsets.UTF_8));
+
+        assertThrows(IOException.class, () -> replay(file));
+    }
+
+    @Test
+    void appendAfterCloseFails() throws Exception {
+        WriteAheadLog log = new WriteAheadLog(dir.resolve("log"));
+        log.close();
+
+        assertThrows(Exception.class, () -> log.append(new byte[] {1}).get());
+    }
+
+    private static void write(Path file, String... records) throws Exception {
+        try (WriteAheadLog log = new WriteAheadLog(file)) {
+            for (String r : records) log.append(r.getBytes(StandardCharsets.UTF_8)).get();
+        }
+    }
+
+    private static List<String> replay(Path file) throws IOException {
+        List<String> out = new ArrayList<>();
+        WriteAheadLog.replay(file, b -> out.add(StandardCharsets.UTF_8.decode(b).toString()));
+        return out;
+    }
+}